@@ -0,0 +1,119 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.engine.application.FlexibleConneg;
+import org.restlet.engine.application.StrictConneg;
+import org.restlet.engine.header.PreferenceReader;
+import org.restlet.message.Method;
+import org.restlet.message.Request;
+import org.restlet.representation.Language;
+import org.restlet.representation.MediaType;
+import org.restlet.representation.Variant;
+import org.restlet.service.MetadataService;
+
+/**
+ * Benchmarks the content negotiation between the client preferences and the
+ * variants exposed by a resource.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConnegBenchmark {
+
+    /** The metadata service. */
+    private final MetadataService metadataService = new MetadataService();
+
+    /** Request with typical browser preferences. */
+    private Request request;
+
+    /** The available variants. */
+    private List<Variant> variants;
+
+    /**
+     * Selects the preferred variant with the flexible algorithm.
+     * 
+     * @return The preferred variant.
+     */
+    @Benchmark
+    public Variant flexible() {
+        return new FlexibleConneg(this.request, this.metadataService)
+                .getPreferredVariant(this.variants);
+    }
+
+    /**
+     * Prepares the request and variants.
+     */
+    @Setup
+    public void setUp() {
+        this.request = new Request(Method.GET, "http://localhost/items/1");
+        PreferenceReader
+                .addMediaTypes(
+                        "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8",
+                        this.request.getClientInfo());
+        PreferenceReader.addLanguages("fr-FR,fr;q=0.8,en;q=0.5",
+                this.request.getClientInfo());
+
+        this.variants = new ArrayList<Variant>();
+        this.variants.add(new Variant(MediaType.APPLICATION_JSON,
+                Language.ENGLISH));
+        this.variants.add(new Variant(MediaType.APPLICATION_XML,
+                Language.ENGLISH));
+        this.variants.add(new Variant(MediaType.APPLICATION_XML,
+                Language.FRENCH));
+        this.variants.add(new Variant(MediaType.TEXT_PLAIN, Language.FRENCH));
+    }
+
+    /**
+     * Selects the preferred variant with the strict algorithm.
+     * 
+     * @return The preferred variant.
+     */
+    @Benchmark
+    public Variant strict() {
+        return new StrictConneg(this.request, this.metadataService)
+                .getPreferredVariant(this.variants);
+    }
+
+}
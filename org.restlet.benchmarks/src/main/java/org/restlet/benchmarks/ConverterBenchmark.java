@@ -0,0 +1,103 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.representation.MediaType;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
+import org.restlet.service.ConverterService;
+import org.restlet.util.Form;
+
+/**
+ * Benchmarks the selection and invocation of converters by the converter
+ * service, using the built-in converter.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConverterBenchmark {
+
+    /** The converter service. */
+    private final ConverterService converterService = new ConverterService();
+
+    /** Target variant for text conversions. */
+    private final Variant textVariant = new Variant(MediaType.TEXT_PLAIN);
+
+    /**
+     * Converts a URL encoded form representation into a form.
+     * 
+     * @return The form.
+     * @throws IOException
+     */
+    @Benchmark
+    public Form formToObject() throws IOException {
+        return this.converterService.toObject(new StringRepresentation(
+                "color=red&size=large&tags=a&tags=b",
+                MediaType.APPLICATION_WWW_FORM), Form.class, null);
+    }
+
+    /**
+     * Converts a string into a text representation.
+     * 
+     * @return The representation.
+     * @throws IOException
+     */
+    @Benchmark
+    public Representation stringToText() throws IOException {
+        return this.converterService.toRepresentation("hello",
+                this.textVariant);
+    }
+
+    /**
+     * Converts a text representation into a string.
+     * 
+     * @return The string.
+     * @throws IOException
+     */
+    @Benchmark
+    public String textToString() throws IOException {
+        return this.converterService.toObject(new StringRepresentation(
+                "hello"), String.class, null);
+    }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.engine.util.DateUtils;
+
+/**
+ * Benchmarks the parsing and formatting of HTTP dates.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateUtilsBenchmark {
+
+    /** Date to format. */
+    private final Date date = new Date(784903526000L);
+
+    /**
+     * Formats a date with the default RFC 1123 format.
+     * 
+     * @return The formatted date.
+     */
+    @Benchmark
+    public String format() {
+        return DateUtils.format(this.date);
+    }
+
+    /**
+     * Parses a date in the obsolete asctime format.
+     * 
+     * @return The parsed date.
+     */
+    @Benchmark
+    public Date parseAscTime() {
+        return DateUtils.parse("Sun Nov 06 08:49:37 1994",
+                DateUtils.FORMAT_ASC_TIME);
+    }
+
+    /**
+     * Parses a date in the RFC 1123 format.
+     * 
+     * @return The parsed date.
+     */
+    @Benchmark
+    public Date parseRfc1123() {
+        return DateUtils.parse("Tue, 15 Nov 1994 12:45:26 GMT");
+    }
+
+}
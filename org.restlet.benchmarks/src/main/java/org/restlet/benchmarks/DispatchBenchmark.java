@@ -0,0 +1,190 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.Application;
+import org.restlet.Component;
+import org.restlet.Restlet;
+import org.restlet.message.Method;
+import org.restlet.message.Request;
+import org.restlet.message.Response;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.resource.Get;
+import org.restlet.resource.Post;
+import org.restlet.resource.ServerResource;
+import org.restlet.routing.Router;
+
+/**
+ * Benchmarks the in-process dispatch of calls through a {@link Component}, its
+ * default virtual host, an application {@link Router} and a
+ * {@link ServerResource}, without any network connector.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+
+    /** Server resource used by the benchmarks. */
+    public static class HelloResource extends ServerResource {
+
+        /**
+         * Echoes the posted text.
+         * 
+         * @param text
+         *            The posted text.
+         * @return The echoed text.
+         */
+        @Post("txt:txt")
+        public String echo(String text) {
+            return "echo " + text;
+        }
+
+        /**
+         * Greets the name given in the URI template and query.
+         * 
+         * @return The greeting.
+         */
+        @Get("txt")
+        public String hello() {
+            return "hello " + getAttribute("name") + " "
+                    + getQueryValue("lang");
+        }
+    }
+
+    /**
+     * Creates the benchmarked application.
+     * 
+     * @return The benchmarked application.
+     */
+    public static Application createApplication() {
+        return new Application() {
+            @Override
+            public Restlet createInboundRoot() {
+                Router router = new Router(getContext());
+                router.attach("/users/{name}", HelloResource.class);
+                router.attach("/echo", HelloResource.class);
+                router.attach("/items/{id}/parts/{part}", HelloResource.class);
+                return router;
+            }
+        };
+    }
+
+    /** The benchmarked component. */
+    private Component component;
+
+    /**
+     * Handles a call through the component and returns the response entity
+     * text.
+     * 
+     * @param request
+     *            The request to handle.
+     * @return The response entity text.
+     * @throws IOException
+     */
+    private String handle(Request request) throws IOException {
+        Response response = new Response(request);
+        this.component.handle(request, response);
+        Representation entity = response.getEntity();
+        return (entity == null) ? null : entity.getText();
+    }
+
+    /**
+     * Dispatches a GET call with a template variable and a query.
+     * 
+     * @return The response entity text.
+     * @throws IOException
+     */
+    @Benchmark
+    public String get() throws IOException {
+        return handle(new Request(Method.GET,
+                "http://localhost/app/users/jerome?lang=fr"));
+    }
+
+    /**
+     * Dispatches a GET call that no route matches.
+     * 
+     * @return The response entity text.
+     * @throws IOException
+     */
+    @Benchmark
+    public String notFound() throws IOException {
+        return handle(new Request(Method.GET, "http://localhost/app/missing"));
+    }
+
+    /**
+     * Dispatches a POST call converting the request and response entities.
+     * 
+     * @return The response entity text.
+     * @throws IOException
+     */
+    @Benchmark
+    public String post() throws IOException {
+        return handle(new Request(Method.POST, "http://localhost/app/echo",
+                new StringRepresentation("payload")));
+    }
+
+    /**
+     * Creates and starts the component.
+     * 
+     * @throws Exception
+     */
+    @Setup
+    public void setUp() throws Exception {
+        this.component = new Component();
+        this.component.getDefaultHost().attach("/app", createApplication());
+        this.component.start();
+    }
+
+    /**
+     * Stops the component.
+     * 
+     * @throws Exception
+     */
+    @TearDown
+    public void tearDown() throws Exception {
+        this.component.stop();
+    }
+
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.engine.header.CacheDirectiveReader;
+import org.restlet.engine.header.ContentType;
+import org.restlet.engine.header.ContentTypeReader;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.header.HeaderReader;
+import org.restlet.engine.header.HeaderUtils;
+import org.restlet.engine.header.PreferenceReader;
+import org.restlet.message.CacheDirective;
+import org.restlet.message.ClientInfo;
+import org.restlet.message.Method;
+import org.restlet.message.Request;
+import org.restlet.representation.Representation;
+import org.restlet.util.Header;
+import org.restlet.util.Series;
+
+/**
+ * Benchmarks the parsing and formatting of HTTP headers done by connectors for
+ * each call.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeaderBenchmark {
+
+    /** Typical browser "Accept" header. */
+    private static final String ACCEPT = "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8";
+
+    /** Typical "Cache-Control" header. */
+    private static final String CACHE_CONTROL = "private, max-age=600, no-transform";
+
+    /** Typical "Content-Type" header. */
+    private static final String CONTENT_TYPE = "application/json; charset=UTF-8";
+
+    /** Entity headers of a typical response. */
+    private Series<Header> entityHeaders;
+
+    /** Request with typical client preferences. */
+    private Request request;
+
+    /**
+     * Extracts the entity headers into a representation.
+     * 
+     * @return The updated representation.
+     */
+    @Benchmark
+    public Representation extractEntityHeaders() {
+        return HeaderUtils.extractEntityHeaders(this.entityHeaders, null);
+    }
+
+    /**
+     * Parses an "Accept" header.
+     * 
+     * @return The updated client info.
+     */
+    @Benchmark
+    public ClientInfo readAccept() {
+        ClientInfo result = new ClientInfo();
+        PreferenceReader.addMediaTypes(ACCEPT, result);
+        return result;
+    }
+
+    /**
+     * Parses a "Cache-Control" header.
+     * 
+     * @return The cache directives.
+     */
+    @Benchmark
+    public List<CacheDirective> readCacheControl() {
+        return new CacheDirectiveReader(CACHE_CONTROL).readValues();
+    }
+
+    /**
+     * Parses a "Content-Type" header.
+     * 
+     * @return The content type.
+     * @throws IOException
+     */
+    @Benchmark
+    public ContentType readContentType() throws IOException {
+        return new ContentTypeReader(CONTENT_TYPE).readValue();
+    }
+
+    /**
+     * Parses a raw header line.
+     * 
+     * @return The header.
+     * @throws IOException
+     */
+    @Benchmark
+    public Header readHeader() throws IOException {
+        return HeaderReader.readHeader("Content-Type: " + CONTENT_TYPE);
+    }
+
+    /**
+     * Prepares the request and headers.
+     */
+    @Setup
+    public void setUp() {
+        this.request = new Request(Method.GET, "http://localhost/items/1");
+        PreferenceReader.addMediaTypes(ACCEPT, this.request.getClientInfo());
+        PreferenceReader.addLanguages("fr-FR,fr;q=0.8,en;q=0.5",
+                this.request.getClientInfo());
+        PreferenceReader.addEncodings("gzip, deflate",
+                this.request.getClientInfo());
+
+        this.entityHeaders = new Series<Header>(Header.class);
+        this.entityHeaders.add(HeaderConstants.HEADER_CONTENT_TYPE,
+                CONTENT_TYPE);
+        this.entityHeaders.add(HeaderConstants.HEADER_CONTENT_LENGTH, "1234");
+        this.entityHeaders.add(HeaderConstants.HEADER_CACHE_CONTROL,
+                CACHE_CONTROL);
+        this.entityHeaders.add("Last-Modified",
+                "Tue, 15 Nov 1994 12:45:26 GMT");
+    }
+
+    /**
+     * Formats the headers of a request.
+     * 
+     * @return The request headers.
+     */
+    @Benchmark
+    public Series<Header> writeRequestHeaders() {
+        Series<Header> result = new Series<Header>(Header.class);
+        HeaderUtils.addRequestHeaders(this.request, result);
+        return result;
+    }
+
+}
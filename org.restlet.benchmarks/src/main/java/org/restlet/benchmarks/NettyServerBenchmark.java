@@ -0,0 +1,174 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.Component;
+import org.restlet.util.Protocol;
+
+/**
+ * Benchmarks the throughput of the Netty based HTTP server connector. The load
+ * is generated locally by the benchmark threads, each one issuing persistent
+ * HTTP/1.1 requests with the JDK's {@link HttpURLConnection} so that the
+ * measure doesn't depend on the Restlet client connector.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class NettyServerBenchmark {
+
+    /** The benchmarked component. */
+    private Component component;
+
+    /** The base URI of the application. */
+    private String baseUri;
+
+    /**
+     * Sends a request and consumes the response.
+     * 
+     * @param method
+     *            The request method.
+     * @param path
+     *            The path relative to the application.
+     * @param body
+     *            The request body or null.
+     * @return The response status code.
+     * @throws IOException
+     */
+    private int call(String method, String path, byte[] body)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(
+                this.baseUri + path).openConnection();
+        connection.setRequestMethod(method);
+
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "text/plain");
+            connection.setFixedLengthStreamingMode(body.length);
+
+            try (OutputStream os = connection.getOutputStream()) {
+                os.write(body);
+            }
+        }
+
+        int result = connection.getResponseCode();
+
+        // Fully read the response so the connection is kept alive
+        InputStream is = (result < 400) ? connection.getInputStream()
+                : connection.getErrorStream();
+
+        if (is != null) {
+            byte[] buffer = new byte[1024];
+
+            try {
+                while (is.read(buffer) != -1) {
+                }
+            } finally {
+                is.close();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Sends a GET request.
+     * 
+     * @return The response status code.
+     * @throws IOException
+     */
+    @Benchmark
+    public int get() throws IOException {
+        return call("GET", "/users/jerome?lang=fr", null);
+    }
+
+    /**
+     * Sends a POST request with a small body.
+     * 
+     * @return The response status code.
+     * @throws IOException
+     */
+    @Benchmark
+    public int post() throws IOException {
+        return call("POST", "/echo", "payload".getBytes("US-ASCII"));
+    }
+
+    /**
+     * Starts the component with an HTTP server on a free local port.
+     * 
+     * @throws Exception
+     */
+    @Setup
+    public void setUp() throws Exception {
+        int port;
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        this.baseUri = "http://localhost:" + port + "/app";
+        this.component = new Component();
+        this.component.getServers().add(Protocol.HTTP, port);
+        this.component.getDefaultHost().attach("/app",
+                DispatchBenchmark.createApplication());
+        this.component.start();
+    }
+
+    /**
+     * Stops the component.
+     * 
+     * @throws Exception
+     */
+    @TearDown
+    public void tearDown() throws Exception {
+        this.component.stop();
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.util.Form;
+import org.restlet.util.Reference;
+
+/**
+ * Benchmarks the parsing, decoding and resolution of URI references.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReferenceBenchmark {
+
+    /** Typical absolute URI. */
+    private static final String URI = "http://www.example.com:8080/app/items/1234/parts/wheel%20cap?color=red&size=large#top";
+
+    /** Base reference of the application. */
+    private final Reference baseRef = new Reference(
+            "http://www.example.com:8080/app/");
+
+    /** Reference parsed once, read by the accessors benchmarks. */
+    private final Reference reference = new Reference(URI);
+
+    /**
+     * Decodes an encoded path segment.
+     * 
+     * @return The decoded segment.
+     */
+    @Benchmark
+    public String decode() {
+        return Reference.decode("wheel%20cap%2Fleft");
+    }
+
+    /**
+     * Encodes a string that needs no escaping.
+     * 
+     * @return The encoded string.
+     */
+    @Benchmark
+    public String encodeSafe() {
+        return Reference.encode("wheel-cap_left.1");
+    }
+
+    /**
+     * Returns the decoded path of a reference.
+     * 
+     * @return The decoded path.
+     */
+    @Benchmark
+    public String getPath() {
+        return this.reference.getPath(true);
+    }
+
+    /**
+     * Parses the query of a reference as a form.
+     * 
+     * @return The query form.
+     */
+    @Benchmark
+    public Form getQueryAsForm() {
+        return new Reference(URI).getQueryAsForm();
+    }
+
+    /**
+     * Returns the part of a reference remaining after its base reference.
+     * 
+     * @return The remaining part.
+     */
+    @Benchmark
+    public String getRemainingPart() {
+        Reference result = new Reference(URI);
+        result.setBaseRef(this.baseRef);
+        return result.getRemainingPart(false, false);
+    }
+
+    /**
+     * Returns the path segments of a reference.
+     * 
+     * @return The segments.
+     */
+    @Benchmark
+    public List<String> getSegments() {
+        return this.reference.getSegments();
+    }
+
+    /**
+     * Parses an absolute reference and reads its main components.
+     * 
+     * @return The host name.
+     */
+    @Benchmark
+    public String parse() {
+        Reference result = new Reference(URI);
+        result.getPath();
+        result.getQuery();
+        return result.getHostDomain();
+    }
+
+    /**
+     * Resolves a relative reference against a base reference.
+     * 
+     * @return The resolved reference.
+     */
+    @Benchmark
+    public Reference resolve() {
+        return new Reference(this.baseRef, "items/1234?color=red")
+                .getTargetRef();
+    }
+
+}
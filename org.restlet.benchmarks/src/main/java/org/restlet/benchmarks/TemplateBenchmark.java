@@ -0,0 +1,111 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.routing.Template;
+
+/**
+ * Benchmarks the URI template matching and parsing used by routers.
+ * 
+ * @author Jerome Louvel
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TemplateBenchmark {
+
+    /** URI matched by the templates. */
+    private final String uri = "/items/1234/parts/wheel";
+
+    /** Template with no variable. */
+    private final Template literal = new Template("/items/list",
+            Template.MODE_STARTS_WITH);
+
+    /** Template with two variables. */
+    private final Template variables = new Template(
+            "/items/{id}/parts/{part}", Template.MODE_STARTS_WITH);
+
+    /**
+     * Formats a template with two variables.
+     * 
+     * @return The formatted URI.
+     */
+    @Benchmark
+    public String format() {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("id", "1234");
+        values.put("part", "wheel");
+        return this.variables.format(values);
+    }
+
+    /**
+     * Tries to match a template with no variable.
+     * 
+     * @return The matched length.
+     */
+    @Benchmark
+    public int matchLiteral() {
+        return this.literal.match(this.uri);
+    }
+
+    /**
+     * Matches a template with two variables.
+     * 
+     * @return The matched length.
+     */
+    @Benchmark
+    public int matchVariables() {
+        return this.variables.match(this.uri);
+    }
+
+    /**
+     * Parses the variables of a template.
+     * 
+     * @return The parsed variables.
+     */
+    @Benchmark
+    public Map<String, Object> parse() {
+        Map<String, Object> result = new HashMap<String, Object>();
+        this.variables.parse(this.uri, result);
+        return result;
+    }
+
+}
@@ -26,8 +26,11 @@ package org.restlet.ext.freemarker;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
 
 import org.restlet.Context;
+import org.restlet.engine.util.LruCache;
 import org.restlet.ext.freemarker.internal.ResolverHashModel;
 import org.restlet.message.Request;
 import org.restlet.message.Response;
@@ -43,15 +46,38 @@ import freemarker.template.TemplateException;
 
 /**
  * FreeMarker template representation. Useful for dynamic string-based
- * representations.
+ * representations.<br>
+ * <br>
+ * Templates provided via representations having a location reference and
+ * either a tag or a modification date are parsed once and cached by their
+ * FreeMarker configuration, up to {@link #TEMPLATE_CACHE_SIZE} entries each.
+ * The cache is released with the configuration, so callers should share a
+ * configuration to benefit from it.
  * 
  * @see <a href="http://freemarker.org/">FreeMarker home page</a>
  * @author Jerome Louvel
  */
 public class TemplateRepresentation extends WriterRepresentation {
 
+    /**
+     * The maximum number of parsed templates cached. Default value provided by
+     * system property "org.restlet.ext.freemarker.templateCacheSize", 100 by
+     * default.
+     */
+    public final static int TEMPLATE_CACHE_SIZE = Integer.getInteger(
+            "org.restlet.ext.freemarker.templateCacheSize", 100);
+
+    /**
+     * The name of the custom attribute of FreeMarker configurations holding
+     * their cache of templates parsed from representations.
+     */
+    private static final String TEMPLATES_ATTRIBUTE = "org.restlet.ext.freemarker.templates";
+
     /**
      * Returns a FreeMarker template from a representation and a configuration.
+     * When the representation has a location reference and either a tag or a
+     * modification date, the parsed template is cached by the configuration
+     * and reused for representations having the same properties.
      * 
      * @param config
      *            The FreeMarker configuration.
@@ -61,22 +87,34 @@ public class TemplateRepresentation extends WriterRepresentation {
      */
     public static Template getTemplate(Configuration config,
             Representation templateRepresentation) {
-        try {
-            // Instantiate the template with the character set of the template
-            // representation if it has been set, otherwise use UTF-8.
-            if (templateRepresentation.getCharacterSet() != null) {
-                return new Template("template",
-                        templateRepresentation.getReader(), config,
-                        templateRepresentation.getCharacterSet().getName());
-            }
+        List<Object> key = null;
 
-            return new Template("template", templateRepresentation.getReader(),
-                    config, CharacterSet.UTF_8.getName());
-        } catch (IOException e) {
-            Context.getCurrentLogger().warn(
-                    "Unable to get the template from the representation " + templateRepresentation.getLocationRef(), e);
-            return null;
+        if ((config != null)
+                && (templateRepresentation.getLocationRef() != null)
+                && ((templateRepresentation.getTag() != null) || (templateRepresentation
+                        .getModificationDate() != null))) {
+            key = Arrays.<Object> asList(templateRepresentation
+                    .getLocationRef().toString(), templateRepresentation
+                    .getTag(), templateRepresentation.getModificationDate(),
+                    templateRepresentation.getCharacterSet());
+        }
+
+        LruCache<List<Object>, Template> templates = (key == null) ? null
+                : getTemplates(config);
+        Template result = (key == null) ? null : templates.get(key);
+
+        if (result != null) {
+            // The template content doesn't need to be read
+            templateRepresentation.release();
+        } else {
+            result = parseTemplate(config, templateRepresentation);
+
+            if ((key != null) && (result != null)) {
+                templates.put(key, result);
+            }
         }
+
+        return result;
     }
 
     /**
@@ -97,6 +135,63 @@ public class TemplateRepresentation extends WriterRepresentation {
         }
     }
 
+    /**
+     * Returns the cache of templates parsed from representations held by a
+     * FreeMarker configuration, creating it if needed.
+     * 
+     * @param config
+     *            The FreeMarker configuration.
+     * @return The cache of templates.
+     */
+    @SuppressWarnings("unchecked")
+    private static LruCache<List<Object>, Template> getTemplates(
+            Configuration config) {
+        Object result = config.getCustomAttribute(TEMPLATES_ATTRIBUTE);
+
+        if (result == null) {
+            synchronized (config) {
+                result = config.getCustomAttribute(TEMPLATES_ATTRIBUTE);
+
+                if (result == null) {
+                    result = new LruCache<List<Object>, Template>(
+                            TEMPLATE_CACHE_SIZE);
+                    config.setCustomAttribute(TEMPLATES_ATTRIBUTE, result);
+                }
+            }
+        }
+
+        return (LruCache<List<Object>, Template>) result;
+    }
+
+    /**
+     * Parses a FreeMarker template from a representation and a configuration.
+     * 
+     * @param config
+     *            The FreeMarker configuration.
+     * @param templateRepresentation
+     *            The template representation.
+     * @return The template or null if not found.
+     */
+    private static Template parseTemplate(Configuration config,
+            Representation templateRepresentation) {
+        try {
+            // Instantiate the template with the character set of the template
+            // representation if it has been set, otherwise use UTF-8.
+            if (templateRepresentation.getCharacterSet() != null) {
+                return new Template("template",
+                        templateRepresentation.getReader(), config,
+                        templateRepresentation.getCharacterSet().getName());
+            }
+
+            return new Template("template", templateRepresentation.getReader(),
+                    config, CharacterSet.UTF_8.getName());
+        } catch (IOException e) {
+            Context.getCurrentLogger().warn(
+                    "Unable to get the template from the representation " + templateRepresentation.getLocationRef(), e);
+            return null;
+        }
+    }
+
     /** The template's data model. */
     private volatile Object dataModel;
 
@@ -25,7 +25,10 @@
 package org.restlet.ext.gson;
 
 import java.io.IOException;
+import java.text.DateFormat;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.restlet.engine.converter.ConverterHelper;
 import org.restlet.engine.resource.VariantInfo;
@@ -35,8 +38,17 @@ import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Resource;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+
 /**
- * Converter between the JSON and Representation classe based on Gson library.
+ * Converter between the JSON and Representation classe based on Gson library.<br>
+ * <br>
+ * The converter maintains a shared Gson instance, created once from the
+ * {@link #createBuilder()} method, and caches its type adapters per object
+ * class. The representations created by this converter rely on them, unless
+ * their own Gson builder is requested or set.
  * 
  * @author Neal Mi
  */
@@ -46,6 +58,19 @@ public class GsonConverter extends ConverterHelper {
     private static final VariantInfo VARIANT_JSON = new VariantInfo(
             MediaType.APPLICATION_JSON);
 
+    /** The shared Gson instance. */
+    private volatile Gson gson;
+
+    /** The cache of type adapters, per object class. */
+    private final ConcurrentMap<Class<?>, TypeAdapter<?>> typeAdapters;
+
+    /**
+     * Constructor.
+     */
+    public GsonConverter() {
+        this.typeAdapters = new ConcurrentHashMap<Class<?>, TypeAdapter<?>>();
+    }
+
     /**
      * Creates the unmarshaling {@link GsonRepresentation}.
      * 
@@ -58,7 +83,10 @@ public class GsonConverter extends ConverterHelper {
      */
     protected <T> GsonRepresentation<T> create(Representation source,
             Class<T> objectClass) {
-        return new GsonRepresentation<T>(source, objectClass);
+        GsonRepresentation<T> result = new GsonRepresentation<T>(source,
+                objectClass);
+        result.converter = this;
+        return result;
     }
 
     /**
@@ -70,7 +98,42 @@ public class GsonConverter extends ConverterHelper {
      * @return The marshaling {@link GsonRepresentation}.
      */
     protected <T> GsonRepresentation<T> create(T source) {
-        return new GsonRepresentation<T>(source);
+        GsonRepresentation<T> result = new GsonRepresentation<T>(source);
+        result.converter = this;
+        return result;
+    }
+
+    /**
+     * Creates the builder of the shared Gson instance. By default, dates are
+     * serialized using the ISO 8601 format, like in {@link GsonRepresentation}
+     * . Override this method to customize the shared Gson instance.
+     * 
+     * @return The builder of the shared Gson instance.
+     */
+    protected GsonBuilder createBuilder() {
+        return GsonRepresentation.registerDateAdapters(new GsonBuilder()
+                .setDateFormat(DateFormat.FULL));
+    }
+
+    /**
+     * Returns the shared Gson instance, creating it if needed.
+     * 
+     * @return The shared Gson instance.
+     */
+    public Gson getGson() {
+        Gson result = this.gson;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.gson;
+
+                if (result == null) {
+                    this.gson = result = createBuilder().create();
+                }
+            }
+        }
+
+        return result;
     }
 
     @Override
@@ -85,6 +148,35 @@ public class GsonConverter extends ConverterHelper {
         return result;
     }
 
+    /**
+     * Returns the type adapter of the shared Gson instance for the given
+     * object class.
+     * 
+     * @param <T>
+     *            The object type.
+     * @param objectClass
+     *            The object class.
+     * @return The type adapter.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> getTypeAdapter(Class<T> objectClass) {
+        TypeAdapter<T> result = (TypeAdapter<T>) this.typeAdapters
+                .get(objectClass);
+
+        if (result == null) {
+            result = getGson().getAdapter(objectClass);
+            TypeAdapter<T> prev = (TypeAdapter<T>) this.typeAdapters
+                    .putIfAbsent(objectClass, result);
+
+            if (prev != null) {
+                // Reuse the previous entry
+                result = prev;
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public List<VariantInfo> getVariants(Class<?> source) {
         List<VariantInfo> result = null;
@@ -132,6 +224,19 @@ public class GsonConverter extends ConverterHelper {
         return result;
     }
 
+    /**
+     * Sets the shared Gson instance and clears the cached type adapters.
+     * 
+     * @param gson
+     *            The shared Gson instance.
+     */
+    public void setGson(Gson gson) {
+        synchronized (this) {
+            this.gson = gson;
+            this.typeAdapters.clear();
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T> T toObject(Representation source, Class<T> target,
@@ -24,6 +24,7 @@
 
 package org.restlet.ext.gson;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.Writer;
 import java.lang.reflect.Type;
@@ -44,6 +45,7 @@ import com.google.gson.JsonParseException;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 
@@ -61,7 +63,7 @@ public class GsonRepresentation<T> extends WriterRepresentation {
      * 
      * @author Neal Mi.
      */
-    private class ISODateDeserializer implements JsonDeserializer<Date> {
+    private static class ISODateDeserializer implements JsonDeserializer<Date> {
         public Date deserialize(JsonElement json, Type typeOfT,
                 JsonDeserializationContext context) throws JsonParseException {
             return new DateTime(json.getAsJsonPrimitive().getAsString())
@@ -74,7 +76,7 @@ public class GsonRepresentation<T> extends WriterRepresentation {
      * 
      * @author Neal Mi.
      */
-    private class ISODateSerializer implements JsonSerializer<Date> {
+    private static class ISODateSerializer implements JsonSerializer<Date> {
         public JsonElement serialize(Date src, Type typeOfSrc,
                 JsonSerializationContext context) {
             DateTime dt = new DateTime(src);
@@ -83,9 +85,28 @@ public class GsonRepresentation<T> extends WriterRepresentation {
         }
     }
 
+    /**
+     * Registers the ISO 8601 {@link Date} serializer and deserializer on a
+     * Gson builder.
+     * 
+     * @param builder
+     *            The Gson builder to update.
+     * @return The updated Gson builder.
+     */
+    static GsonBuilder registerDateAdapters(GsonBuilder builder) {
+        return builder.registerTypeAdapter(Date.class, new ISODateSerializer())
+                .registerTypeAdapter(Date.class, new ISODateDeserializer());
+    }
+
     /** The modifiable Gson builder. */
     private GsonBuilder builder;
 
+    /**
+     * The converter providing the shared Gson instance and type adapters, used
+     * as long as this representation doesn't have its own builder.
+     */
+    volatile GsonConverter converter;
+
     /** The JSON representation to parse. */
     private Representation jsonRepresentation;
 
@@ -146,9 +167,7 @@ public class GsonRepresentation<T> extends WriterRepresentation {
      */
     public GsonBuilder getBuilder() {
         if (builder == null) {
-            builder = createBuilder().registerTypeAdapter(Date.class,
-                    new ISODateSerializer()).registerTypeAdapter(Date.class,
-                    new ISODateDeserializer());
+            builder = registerDateAdapters(createBuilder());
         }
         return builder;
     }
@@ -166,10 +185,28 @@ public class GsonRepresentation<T> extends WriterRepresentation {
         if (this.object != null) {
             result = this.object;
         } else if (this.jsonRepresentation != null) {
-            Gson gson = getBuilder().create();
-            result = gson.fromJson(
-                    new JsonReader(jsonRepresentation.getReader()),
-                    this.objectClass);
+            if (isShared()) {
+                JsonReader jsonReader = new JsonReader(
+                        jsonRepresentation.getReader());
+                jsonReader.setLenient(true);
+                boolean empty = false;
+
+                try {
+                    jsonReader.peek();
+                } catch (EOFException e) {
+                    empty = true;
+                }
+
+                if (!empty) {
+                    result = this.converter.getTypeAdapter(this.objectClass)
+                            .read(jsonReader);
+                }
+            } else {
+                Gson gson = getBuilder().create();
+                result = gson.fromJson(
+                        new JsonReader(jsonRepresentation.getReader()),
+                        this.objectClass);
+            }
         }
 
         return result;
@@ -184,6 +221,18 @@ public class GsonRepresentation<T> extends WriterRepresentation {
         return objectClass;
     }
 
+    /**
+     * Indicates if the shared Gson instance and type adapters of the parent
+     * converter can be used. This isn't the case when this representation has
+     * its own Gson builder.
+     * 
+     * @return True if the shared Gson instance can be used.
+     */
+    private boolean isShared() {
+        return (this.converter != null) && (this.builder == null)
+                && (this.objectClass != null);
+    }
+
     /**
      * Sets the Gson builder.
      * 
@@ -218,6 +267,14 @@ public class GsonRepresentation<T> extends WriterRepresentation {
     public void write(Writer writer) throws IOException {
         if (jsonRepresentation != null) {
             jsonRepresentation.write(writer);
+        } else if (isShared()) {
+            TypeAdapter<T> typeAdapter = this.converter
+                    .getTypeAdapter(objectClass);
+            JsonWriter jsonWriter = this.converter.getGson().newJsonWriter(
+                    writer);
+            jsonWriter.setLenient(true);
+            typeAdapter.write(jsonWriter, object);
+            jsonWriter.flush();
         } else {
             Gson gson = getBuilder().create();
             gson.toJson(object, objectClass, new JsonWriter(writer));
@@ -27,6 +27,7 @@ package org.restlet.ext.html;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.restlet.Context;
 import org.restlet.engine.header.ContentType;
 import org.restlet.engine.header.HeaderUtils;
 import org.restlet.engine.util.StringUtils;
@@ -74,6 +75,9 @@ public class FormDataSet extends OutputRepresentation {
     /** The boundary separating multipart entries. */
     private volatile String multipartBoundary;
 
+    /** Indicates if the entries were parsed from a multipart form. */
+    private volatile boolean parsed;
+
     /**
      * Default constructor, creates a single part form.
      */
@@ -100,7 +104,10 @@ public class FormDataSet extends OutputRepresentation {
     }
 
     /**
-     * Constructor.
+     * Constructor. Parses either URL encoded or multipart forms. The values of
+     * multipart entries are buffered by a {@link MultipartFormReader} with its
+     * default settings, use this reader directly to stream them or to enforce
+     * other limits.
      * 
      * @param formRepresentation
      *            The representation to parse.
@@ -112,6 +119,23 @@ public class FormDataSet extends OutputRepresentation {
                 && MediaType.APPLICATION_WWW_FORM.equals(formRepresentation
                         .getMediaType())) {
             FormUtils.parse(this.entries, formRepresentation);
+        } else if ((formRepresentation != null)
+                && MediaType.MULTIPART_FORM_DATA.equals(
+                        formRepresentation.getMediaType(), true)) {
+            try {
+                MultipartFormReader reader = new MultipartFormReader(
+                        formRepresentation);
+                setMultipartBoundary(formRepresentation.getMediaType()
+                        .getParameters().getFirstValue("boundary", true));
+                this.parsed = true;
+                reader.readEntries(this.entries);
+            } catch (IOException ioe) {
+                Context.getCurrentLogger().warn(
+                        "Unable to parse the multipart form. Parsing aborted.",
+                        ioe);
+                releaseEntries();
+                this.entries.clear();
+            }
         }
     }
 
@@ -247,6 +271,30 @@ public class FormDataSet extends OutputRepresentation {
         return this.multipart;
     }
 
+    /**
+     * Releases the value representations of parsed multipart entries,
+     * including their temporary files.
+     */
+    @Override
+    public void release() {
+        if (this.parsed) {
+            releaseEntries();
+        }
+
+        super.release();
+    }
+
+    /**
+     * Releases the value representations of the entries.
+     */
+    private void releaseEntries() {
+        for (FormData data : getEntries()) {
+            if (data.getValueRepresentation() != null) {
+                data.getValueRepresentation().release();
+            }
+        }
+    }
+
     /**
      * Indicates if the form is multipart encoded.
      * 
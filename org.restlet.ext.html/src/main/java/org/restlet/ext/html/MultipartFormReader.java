@@ -0,0 +1,601 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.html;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.restlet.engine.header.ContentType;
+import org.restlet.engine.header.DispositionReader;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.representation.ByteArrayRepresentation;
+import org.restlet.representation.CharacterSet;
+import org.restlet.representation.Disposition;
+import org.restlet.representation.FileRepresentation;
+import org.restlet.representation.InputRepresentation;
+import org.restlet.representation.MediaType;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.util.Series;
+
+/**
+ * Streaming reader of "multipart/form-data" representations. Each part is
+ * returned as a {@link FormData} whose value representation directly reads
+ * the underlying stream, so that forms of any size can be processed in
+ * constant memory. Reading the next entry skips the unread content of the
+ * previous one.<br>
+ * <br>
+ * Alternatively, the {@link #readEntries(Series)} method buffers each part,
+ * in memory up to the memory threshold and in a temporary file beyond. In all
+ * cases, the total number of bytes read can be limited by a maximum size.
+ * 
+ * @author Jerome Louvel
+ */
+public class MultipartFormReader {
+
+    /**
+     * The default maximum number of bytes of a multipart form, or -1 for no
+     * limit. Default value provided by system property
+     * "org.restlet.ext.html.multipartMaxSize", -1 by default.
+     */
+    public final static long DEFAULT_MAX_SIZE = Long.getLong(
+            "org.restlet.ext.html.multipartMaxSize", -1L);
+
+    /**
+     * The default maximum number of bytes of a buffered part kept in memory
+     * before spilling to a temporary file. Default value provided by system
+     * property "org.restlet.ext.html.multipartMemoryThreshold", 64 KB by
+     * default.
+     */
+    public final static int DEFAULT_MEMORY_THRESHOLD = Integer.getInteger(
+            "org.restlet.ext.html.multipartMemoryThreshold", 64 * 1024);
+
+    /** The maximum length of a part header line. */
+    private final static int MAX_HEADER_LENGTH = 8192;
+
+    /**
+     * Input stream of the current part, ending before the next delimiter.
+     */
+    private class PartInputStream extends InputStream {
+
+        /** Indicates if the end of the part has been reached. */
+        private boolean ended;
+
+        /**
+         * Returns the number of bytes of the part available in the buffer,
+         * filling it if needed. Returns 0 at the end of the part.
+         * 
+         * @return The number of bytes of the part available in the buffer.
+         * @throws IOException
+         */
+        private int available0() throws IOException {
+            int result = -1;
+
+            while (result < 0) {
+                int index = indexOfDelimiter();
+
+                if (index >= 0) {
+                    result = index - position;
+                } else if (limit - position >= delimiter.length) {
+                    // Keep the bytes that could start a delimiter
+                    result = limit - position - delimiter.length + 1;
+                } else if (endReached) {
+                    throw new IOException(
+                            "Unexpected end of the multipart form");
+                } else {
+                    fill();
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public int available() throws IOException {
+            int result = 0;
+
+            if (!ended) {
+                int index = indexOfDelimiter();
+                result = (index >= 0) ? index - position : Math.max(0, limit
+                        - position - delimiter.length + 1);
+            }
+
+            return result;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = -1;
+
+            if (!ended) {
+                if (available0() == 0) {
+                    ended = true;
+                } else {
+                    result = buffer[position++] & 0xff;
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int result = -1;
+
+            if (!ended) {
+                int available = available0();
+
+                if (available == 0) {
+                    ended = true;
+                } else if (len == 0) {
+                    result = 0;
+                } else {
+                    result = Math.min(available, len);
+                    System.arraycopy(buffer, position, b, off, result);
+                    position += result;
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long result = 0;
+
+            if (!ended && n > 0) {
+                int available = available0();
+
+                if (available == 0) {
+                    ended = true;
+                } else {
+                    result = Math.min(available, n);
+                    position += (int) result;
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Skips the unread content of the part.
+         * 
+         * @throws IOException
+         */
+        private void skipAll() throws IOException {
+            while (!ended) {
+                skip(Long.MAX_VALUE);
+            }
+        }
+    }
+
+    /** The byte buffer. */
+    private final byte[] buffer;
+
+    /** The character set of the part headers and textual values. */
+    private final CharacterSet characterSet;
+
+    /** The number of bytes read from the form stream. */
+    private long count;
+
+    /** The part delimiter, including the leading CRLF. */
+    private final byte[] delimiter;
+
+    /** Indicates if the end of the form stream has been reached. */
+    private boolean endReached;
+
+    /** Indicates if the closing delimiter has been read. */
+    private boolean finished;
+
+    /** The end position of the buffered bytes. */
+    private int limit;
+
+    /** The maximum number of bytes of the form, or -1 for no limit. */
+    private volatile long maxSize;
+
+    /** The maximum number of bytes of a buffered part kept in memory. */
+    private volatile int memoryThreshold;
+
+    /** The input stream of the current part. */
+    private PartInputStream part;
+
+    /** The position of the next byte to read in the buffer. */
+    private int position;
+
+    /** The form stream. */
+    private final InputStream stream;
+
+    /** The directory of temporary files, or null for the default one. */
+    private volatile File temporaryDirectory;
+
+    /**
+     * Constructor. The multipart boundary is read from the "boundary"
+     * parameter of the representation's media type. In case the
+     * representation does not define a character set, the UTF-8 character set
+     * is used.
+     * 
+     * @param representation
+     *            The multipart form content.
+     * @throws IOException
+     *             If no boundary is defined or if the stream of the
+     *             representation could not be opened.
+     */
+    public MultipartFormReader(Representation representation)
+            throws IOException {
+        String boundary = (representation.getMediaType() == null) ? null
+                : representation.getMediaType().getParameters()
+                        .getFirstValue("boundary", true);
+
+        if (boundary == null || boundary.isEmpty()) {
+            throw new IOException(
+                    "No boundary defined for the multipart form");
+        }
+
+        this.characterSet = (representation.getCharacterSet() != null) ? representation
+                .getCharacterSet() : CharacterSet.UTF_8;
+        this.delimiter = ("\r\n--" + boundary).getBytes("ISO-8859-1");
+        this.buffer = new byte[Math.max(IoUtils.BUFFER_SIZE,
+                4 * this.delimiter.length)];
+        this.maxSize = DEFAULT_MAX_SIZE;
+        this.memoryThreshold = DEFAULT_MEMORY_THRESHOLD;
+        this.stream = representation.getStream();
+
+        // The first delimiter isn't preceded by a CRLF
+        this.buffer[0] = '\r';
+        this.buffer[1] = '\n';
+        this.limit = 2;
+    }
+
+    /**
+     * Reads all the entries and adds them to a given series. The value of
+     * each entry is buffered, in memory up to the memory threshold and in an
+     * automatically deleted temporary file beyond. The temporary files are
+     * deleted when the value representations are released.
+     * 
+     * @param entries
+     *            The series to update.
+     * @throws IOException
+     */
+    public void readEntries(Series<FormData> entries) throws IOException {
+        try {
+            for (FormData entry = readNextEntry(); entry != null; entry = readNextEntry()) {
+                entry.setValueRepresentation(buffer(entry
+                        .getValueRepresentation()));
+                entries.add(entry);
+            }
+        } finally {
+            this.stream.close();
+        }
+    }
+
+    /**
+     * Buffers the value of a part, in memory up to the memory threshold and in
+     * a temporary file beyond.
+     * 
+     * @param value
+     *            The streamed part value.
+     * @return The buffered part value.
+     * @throws IOException
+     */
+    private Representation buffer(Representation value) throws IOException {
+        Representation result = null;
+        InputStream in = value.getStream();
+        ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        byte[] bytes = new byte[IoUtils.BUFFER_SIZE];
+        int threshold = getMemoryThreshold();
+        int read;
+
+        while ((memory.size() <= threshold)
+                && ((read = in.read(bytes)) != -1)) {
+            memory.write(bytes, 0, read);
+        }
+
+        if (memory.size() > threshold) {
+            // Spill to a temporary file
+            File file = File.createTempFile("restlet-multipart-", ".tmp",
+                    getTemporaryDirectory());
+            OutputStream out = null;
+
+            try {
+                out = new FileOutputStream(file);
+                memory.writeTo(out);
+                memory = null;
+                IoUtils.copy(in, out);
+            } catch (IOException e) {
+                IoUtils.delete(file);
+                throw e;
+            } finally {
+                if (out != null) {
+                    out.close();
+                }
+            }
+
+            FileRepresentation fr = new FileRepresentation(file,
+                    value.getMediaType());
+            fr.setAutoDeleting(true);
+            result = fr;
+        } else if (value.getDisposition() == null
+                || value.getDisposition().getFilename() == null) {
+            result = new StringRepresentation(new String(memory.toByteArray(),
+                    value.getCharacterSet().toCharset()),
+                    value.getMediaType(), null, value.getCharacterSet());
+        } else {
+            result = new ByteArrayRepresentation(memory.toByteArray(),
+                    value.getMediaType(), memory.size());
+        }
+
+        result.setCharacterSet(value.getCharacterSet());
+        result.setDisposition(value.getDisposition());
+        return result;
+    }
+
+    /**
+     * Ensures that at least the given number of bytes are available in the
+     * buffer, unless the end of the form stream is reached.
+     * 
+     * @param length
+     *            The number of bytes required.
+     * @return True if the bytes are available.
+     * @throws IOException
+     */
+    private boolean ensure(int length) throws IOException {
+        while ((limit - position < length) && !endReached) {
+            fill();
+        }
+
+        return limit - position >= length;
+    }
+
+    /**
+     * Compacts the buffer and reads more bytes from the form stream.
+     * 
+     * @throws IOException
+     */
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+
+        int read = this.stream.read(buffer, limit, buffer.length - limit);
+
+        if (read == -1) {
+            endReached = true;
+        } else {
+            limit += read;
+            count += read;
+
+            if ((getMaxSize() >= 0) && (count > getMaxSize())) {
+                throw new IOException(
+                        "The multipart form exceeds the maximum size of "
+                                + getMaxSize() + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Returns the maximum number of bytes of the form, or -1 for no limit.
+     * Defaults to {@link #DEFAULT_MAX_SIZE}.
+     * 
+     * @return The maximum number of bytes of the form.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the maximum number of bytes of a buffered part kept in memory
+     * before spilling to a temporary file. Defaults to
+     * {@link #DEFAULT_MEMORY_THRESHOLD}.
+     * 
+     * @return The maximum number of bytes of a buffered part kept in memory.
+     */
+    public int getMemoryThreshold() {
+        return memoryThreshold;
+    }
+
+    /**
+     * Returns the directory of temporary files, or null for the default one.
+     * 
+     * @return The directory of temporary files.
+     */
+    public File getTemporaryDirectory() {
+        return temporaryDirectory;
+    }
+
+    /**
+     * Returns the index of the next delimiter in the buffer, or -1.
+     * 
+     * @return The index of the next delimiter in the buffer, or -1.
+     */
+    private int indexOfDelimiter() {
+        int last = limit - delimiter.length;
+
+        for (int i = position; i <= last; i++) {
+            if (buffer[i] == '\r') {
+                int j = 1;
+
+                while ((j < delimiter.length)
+                        && (buffer[i + j] == delimiter[j])) {
+                    j++;
+                }
+
+                if (j == delimiter.length) {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Reads the next entry available or null. Its value representation
+     * directly reads the form stream and is only readable until the next
+     * entry is read.
+     * 
+     * @return The next entry available or null.
+     * @throws IOException
+     *             If the next entry could not be read.
+     */
+    public FormData readNextEntry() throws IOException {
+        FormData result = null;
+
+        if (!finished) {
+            // Skip the preamble or the rest of the previous part
+            (this.part == null ? new PartInputStream() : this.part).skipAll();
+            this.part = null;
+            position += delimiter.length;
+
+            if (!ensure(2)) {
+                throw new IOException("Unexpected end of the multipart form");
+            } else if ((buffer[position] == '-')
+                    && (buffer[position + 1] == '-')) {
+                finished = true;
+                this.stream.close();
+            } else {
+                // Skip the transport padding and the line break
+                readLine();
+
+                Disposition disposition = null;
+                ContentType contentType = null;
+                String line = readLine();
+
+                while (line.length() > 0) {
+                    int colon = line.indexOf(':');
+
+                    if (colon > 0) {
+                        String name = line.substring(0, colon).trim();
+                        String value = line.substring(colon + 1).trim();
+
+                        if (HeaderConstants.HEADER_CONTENT_DISPOSITION
+                                .equalsIgnoreCase(name)) {
+                            disposition = new DispositionReader(value)
+                                    .readValue();
+                        } else if (HeaderConstants.HEADER_CONTENT_TYPE
+                                .equalsIgnoreCase(name)) {
+                            contentType = new ContentType(value);
+                        }
+                    }
+
+                    line = readLine();
+                }
+
+                this.part = new PartInputStream();
+                InputRepresentation value = new InputRepresentation(this.part,
+                        (contentType == null) ? MediaType.TEXT_PLAIN
+                                : contentType.getMediaType());
+                value.setCharacterSet((contentType == null || contentType
+                        .getCharacterSet() == null) ? this.characterSet
+                        : contentType.getCharacterSet());
+                value.setDisposition(disposition);
+                result = new FormData((disposition == null) ? null
+                        : disposition.getParameters().getFirstValue("name"),
+                        value);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads a header line ending with a CRLF.
+     * 
+     * @return The header line without the line break.
+     * @throws IOException
+     */
+    private String readLine() throws IOException {
+        int start = position;
+        int index = -1;
+
+        while (index == -1) {
+            for (int i = start; (index == -1) && (i < limit - 1); i++) {
+                if ((buffer[i] == '\r') && (buffer[i + 1] == '\n')) {
+                    index = i;
+                }
+            }
+
+            if (index == -1) {
+                if ((limit - position >= MAX_HEADER_LENGTH)
+                        || (limit - position == buffer.length)) {
+                    throw new IOException(
+                            "Multipart header line too long");
+                } else if (endReached) {
+                    throw new IOException(
+                            "Unexpected end of the multipart form");
+                }
+
+                start = Math.max(position, limit - 1) - position;
+                fill();
+                start += position;
+            }
+        }
+
+        String result = new String(buffer, position, index - position,
+                this.characterSet.toCharset());
+        position = index + 2;
+        return result;
+    }
+
+    /**
+     * Sets the maximum number of bytes of the form, or -1 for no limit.
+     * Exceeding it causes an {@link IOException} while reading.
+     * 
+     * @param maxSize
+     *            The maximum number of bytes of the form.
+     */
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Sets the maximum number of bytes of a buffered part kept in memory
+     * before spilling to a temporary file.
+     * 
+     * @param memoryThreshold
+     *            The maximum number of bytes of a buffered part kept in
+     *            memory.
+     */
+    public void setMemoryThreshold(int memoryThreshold) {
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    /**
+     * Sets the directory of temporary files, or null for the default one.
+     * 
+     * @param temporaryDirectory
+     *            The directory of temporary files.
+     */
+    public void setTemporaryDirectory(File temporaryDirectory) {
+        this.temporaryDirectory = temporaryDirectory;
+    }
+
+}
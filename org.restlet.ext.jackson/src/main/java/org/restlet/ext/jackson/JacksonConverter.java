@@ -25,7 +25,10 @@
 package org.restlet.ext.jackson;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.restlet.engine.converter.ConverterHelper;
 import org.restlet.engine.resource.VariantInfo;
@@ -35,9 +38,22 @@ import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Resource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+
 /**
  * Converter between the JSON, JSON Smile, CSV, XML, YAML and Representation
- * classes based on Jackson.
+ * classes based on Jackson.<br>
+ * <br>
+ * The converter maintains one shared object mapper per serialization format,
+ * and caches the object readers and writers derived from them for each object
+ * class, so that Jackson serializers and deserializers are only built once. The
+ * shared mappers can be customized by overriding the
+ * {@link #configureObjectMapper(MediaType, ObjectMapper)} method. The
+ * representations created by this converter rely on those shared readers and
+ * writers, unless their own object mapper or CSV schema is requested or set.
  * 
  * @author Jerome Louvel
  * @author Thierry Boileau
@@ -73,6 +89,43 @@ public class JacksonConverter extends ConverterHelper {
     private static final VariantInfo VARIANT_TEXT_YAML = new VariantInfo(
             MediaType.TEXT_YAML);
 
+    /** The shared object mappers, per serialization format. */
+    private final ConcurrentMap<MediaType, ObjectMapper> objectMappers;
+
+    /** The shared object readers, per serialization format and class. */
+    private final ConcurrentMap<List<Object>, ObjectReader> objectReaders;
+
+    /** The shared object writers, per serialization format and class. */
+    private final ConcurrentMap<List<Object>, ObjectWriter> objectWriters;
+
+    /**
+     * Constructor.
+     */
+    public JacksonConverter() {
+        this.objectMappers = new ConcurrentHashMap<MediaType, ObjectMapper>();
+        this.objectReaders = new ConcurrentHashMap<List<Object>, ObjectReader>();
+        this.objectWriters = new ConcurrentHashMap<List<Object>, ObjectWriter>();
+    }
+
+    /**
+     * Configures a shared object mapper once, right after its creation. Does
+     * nothing by default. Override this method to register modules or set
+     * features on all the mappers used by this converter.
+     * 
+     * @param format
+     *            The media type identifying the serialization format, among
+     *            {@link MediaType#APPLICATION_JSON},
+     *            {@link MediaType#APPLICATION_JSON_SMILE},
+     *            {@link MediaType#APPLICATION_XML},
+     *            {@link MediaType#APPLICATION_YAML} and
+     *            {@link MediaType#TEXT_CSV}.
+     * @param objectMapper
+     *            The object mapper to configure.
+     */
+    protected void configureObjectMapper(MediaType format,
+            ObjectMapper objectMapper) {
+    }
+
     /**
      * Creates the marshaling {@link JacksonRepresentation}.
      * 
@@ -84,7 +137,10 @@ public class JacksonConverter extends ConverterHelper {
      * @return The marshaling {@link JacksonRepresentation}.
      */
     protected <T> JacksonRepresentation<T> create(MediaType mediaType, T source) {
-        return new JacksonRepresentation<T>(mediaType, source);
+        JacksonRepresentation<T> result = new JacksonRepresentation<T>(
+                mediaType, source);
+        result.converter = this;
+        return result;
     }
 
     /**
@@ -99,7 +155,10 @@ public class JacksonConverter extends ConverterHelper {
      */
     protected <T> JacksonRepresentation<T> create(Representation source,
             Class<T> objectClass) {
-        return new JacksonRepresentation<T>(source, objectClass);
+        JacksonRepresentation<T> result = new JacksonRepresentation<T>(
+                source, objectClass);
+        result.converter = this;
+        return result;
     }
 
     @Override
@@ -114,6 +173,111 @@ public class JacksonConverter extends ConverterHelper {
         return result;
     }
 
+    /**
+     * Returns the shared object mapper for the given media type, creating and
+     * configuring it if needed. It should not be modified once readers or
+     * writers have been obtained from it.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @return The shared object mapper.
+     */
+    public ObjectMapper getObjectMapper(MediaType mediaType) {
+        MediaType format = JacksonRepresentation.getFormat(mediaType);
+        ObjectMapper result = this.objectMappers.get(format);
+
+        if (result == null) {
+            synchronized (this.objectMappers) {
+                result = this.objectMappers.get(format);
+
+                if (result == null) {
+                    result = JacksonRepresentation.createObjectMapper(format,
+                            JacksonRepresentation.XML_EXPANDING_ENTITY_REFS,
+                            JacksonRepresentation.XML_VALIDATING_DTD);
+                    configureObjectMapper(format, result);
+                    this.objectMappers.put(format, result);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the shared object reader for the given media type and object
+     * class.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @param objectClass
+     *            The object class to instantiate.
+     * @return The shared object reader.
+     */
+    public ObjectReader getObjectReader(MediaType mediaType,
+            Class<?> objectClass) {
+        MediaType format = JacksonRepresentation.getFormat(mediaType);
+        List<Object> key = Arrays.<Object> asList(format, objectClass);
+        ObjectReader result = this.objectReaders.get(key);
+
+        if (result == null) {
+            ObjectMapper objectMapper = getObjectMapper(format);
+
+            if (objectMapper instanceof CsvMapper) {
+                CsvMapper csvMapper = (CsvMapper) objectMapper;
+                result = csvMapper.readerFor(objectClass).with(
+                        csvMapper.schemaFor(objectClass));
+            } else {
+                result = objectMapper.readerFor(objectClass);
+            }
+
+            ObjectReader prev = this.objectReaders.putIfAbsent(key, result);
+
+            if (prev != null) {
+                // Reuse the previous entry
+                result = prev;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the shared object writer for the given media type and object
+     * class.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @param objectClass
+     *            The object class to serialize.
+     * @return The shared object writer.
+     */
+    public ObjectWriter getObjectWriter(MediaType mediaType,
+            Class<?> objectClass) {
+        MediaType format = JacksonRepresentation.getFormat(mediaType);
+        List<Object> key = Arrays.<Object> asList(format, objectClass);
+        ObjectWriter result = this.objectWriters.get(key);
+
+        if (result == null) {
+            ObjectMapper objectMapper = getObjectMapper(format);
+
+            if (objectMapper instanceof CsvMapper) {
+                CsvMapper csvMapper = (CsvMapper) objectMapper;
+                result = csvMapper.writer(csvMapper.schemaFor(objectClass));
+            } else {
+                result = objectMapper.writerFor(objectClass);
+            }
+
+            ObjectWriter prev = this.objectWriters.putIfAbsent(key, result);
+
+            if (prev != null) {
+                // Reuse the previous entry
+                result = prev;
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public List<VariantInfo> getVariants(Class<?> source) {
         List<VariantInfo> result = null;
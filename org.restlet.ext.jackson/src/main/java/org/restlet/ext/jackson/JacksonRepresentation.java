@@ -80,6 +80,97 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
     public final static boolean XML_VALIDATING_DTD = Boolean
             .getBoolean("org.restlet.ext.xml.validatingDtd");
 
+    /**
+     * Creates a Jackson object mapper based on a media type. It supports JSON,
+     * JSON Smile, XML, YAML and CSV.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @param expandingEntityRefs
+     *            True if the XML parser will expand entity reference nodes.
+     * @param validatingDtd
+     *            True if the XML parser will validate DTD documents.
+     * @return The Jackson object mapper.
+     */
+    static ObjectMapper createObjectMapper(MediaType mediaType,
+            boolean expandingEntityRefs, boolean validatingDtd) {
+        ObjectMapper result = null;
+        MediaType format = getFormat(mediaType);
+
+        if (MediaType.APPLICATION_JSON_SMILE.equals(format)) {
+            SmileFactory smileFactory = new SmileFactory();
+            smileFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
+            result = new ObjectMapper(smileFactory);
+            // [ifndef android]
+        } else if (MediaType.APPLICATION_XML.equals(format)) {
+            javax.xml.stream.XMLInputFactory xif = XmlFactoryProvider.newInputFactory();
+            xif.setProperty(
+                    javax.xml.stream.XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+                    expandingEntityRefs);
+            xif.setProperty(javax.xml.stream.XMLInputFactory.SUPPORT_DTD,
+                    expandingEntityRefs);
+            xif.setProperty(javax.xml.stream.XMLInputFactory.IS_VALIDATING,
+                    validatingDtd);
+            javax.xml.stream.XMLOutputFactory xof = XmlFactoryProvider.newOutputFactory();
+            XmlFactory xmlFactory = new XmlFactory(xif, xof);
+            xmlFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
+            result = new XmlMapper(xmlFactory);
+            // [enddef]
+        } else if (MediaType.APPLICATION_YAML.equals(format)) {
+            YAMLFactory yamlFactory = new YAMLFactory();
+            yamlFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
+            result = new ObjectMapper(yamlFactory);
+        } else if (MediaType.TEXT_CSV.equals(format)) {
+            CsvFactory csvFactory = new CsvFactory();
+            csvFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
+            result = new CsvMapper(csvFactory);
+        } else {
+            JsonFactory jsonFactory = new JsonFactory();
+            jsonFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
+            result = new ObjectMapper(jsonFactory);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the serialization format matching a media type. Equivalent media
+     * types such as "application/xml" and "text/xml" share the same format.
+     * 
+     * @param mediaType
+     *            The media type.
+     * @return The media type identifying the serialization format.
+     */
+    static MediaType getFormat(MediaType mediaType) {
+        MediaType result = null;
+
+        if (MediaType.APPLICATION_JSON.isCompatible(mediaType)) {
+            result = MediaType.APPLICATION_JSON;
+        } else if (MediaType.APPLICATION_JSON_SMILE.isCompatible(mediaType)) {
+            result = MediaType.APPLICATION_JSON_SMILE;
+            // [ifndef android]
+        } else if (MediaType.APPLICATION_XML.isCompatible(mediaType)
+                || MediaType.TEXT_XML.isCompatible(mediaType)) {
+            result = MediaType.APPLICATION_XML;
+            // [enddef]
+        } else if (MediaType.APPLICATION_YAML.isCompatible(mediaType)
+                || MediaType.TEXT_YAML.isCompatible(mediaType)) {
+            result = MediaType.APPLICATION_YAML;
+        } else if (MediaType.TEXT_CSV.isCompatible(mediaType)) {
+            result = MediaType.TEXT_CSV;
+        } else {
+            result = MediaType.APPLICATION_JSON;
+        }
+
+        return result;
+    }
+
+    /**
+     * The converter providing shared object readers and writers, used as long
+     * as this representation doesn't have its own mapper or CSV schema.
+     */
+    volatile JacksonConverter converter;
+
     /** The modifiable Jackson CSV schema. */
     private CsvSchema csvSchema;
 
@@ -196,49 +287,8 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
      * @return The Jackson object mapper.
      */
     protected ObjectMapper createObjectMapper() {
-        ObjectMapper result = null;
-
-        if (MediaType.APPLICATION_JSON.isCompatible(getMediaType())) {
-            JsonFactory jsonFactory = new JsonFactory();
-            jsonFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
-            result = new ObjectMapper(jsonFactory);
-        } else if (MediaType.APPLICATION_JSON_SMILE
-                .isCompatible(getMediaType())) {
-            SmileFactory smileFactory = new SmileFactory();
-            smileFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
-            result = new ObjectMapper(smileFactory);
-            // [ifndef android]
-        } else if (MediaType.APPLICATION_XML.isCompatible(getMediaType())
-                || MediaType.TEXT_XML.isCompatible(getMediaType())) {
-            javax.xml.stream.XMLInputFactory xif = XmlFactoryProvider.newInputFactory();
-            xif.setProperty(
-                    javax.xml.stream.XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
-                    isExpandingEntityRefs());
-            xif.setProperty(javax.xml.stream.XMLInputFactory.SUPPORT_DTD,
-                    isExpandingEntityRefs());
-            xif.setProperty(javax.xml.stream.XMLInputFactory.IS_VALIDATING,
-                    isValidatingDtd());
-            javax.xml.stream.XMLOutputFactory xof = XmlFactoryProvider.newOutputFactory();
-            XmlFactory xmlFactory = new XmlFactory(xif, xof);
-            xmlFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
-            result = new XmlMapper(xmlFactory);
-            // [enddef]
-        } else if (MediaType.APPLICATION_YAML.isCompatible(getMediaType())
-                || MediaType.TEXT_YAML.isCompatible(getMediaType())) {
-            YAMLFactory yamlFactory = new YAMLFactory();
-            yamlFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
-            result = new ObjectMapper(yamlFactory);
-        } else if (MediaType.TEXT_CSV.isCompatible(getMediaType())) {
-            CsvFactory csvFactory = new CsvFactory();
-            csvFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
-            result = new CsvMapper(csvFactory);
-        } else {
-            JsonFactory jsonFactory = new JsonFactory();
-            jsonFactory.configure(Feature.AUTO_CLOSE_TARGET, false);
-            result = new ObjectMapper(jsonFactory);
-        }
-
-        return result;
+        return createObjectMapper(getMediaType(), isExpandingEntityRefs(),
+                isValidatingDtd());
     }
 
     /**
@@ -250,7 +300,10 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
     protected ObjectReader createObjectReader() {
         ObjectReader result = null;
 
-        if (MediaType.TEXT_CSV.isCompatible(getMediaType())) {
+        if (isShared()) {
+            result = this.converter.getObjectReader(getMediaType(),
+                    getObjectClass());
+        } else if (MediaType.TEXT_CSV.isCompatible(getMediaType())) {
             CsvMapper csvMapper = (CsvMapper) getObjectMapper();
             CsvSchema csvSchema = createCsvSchema(csvMapper);
             result = csvMapper.readerFor(getObjectClass()).with(csvSchema);
@@ -270,7 +323,10 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
     protected ObjectWriter createObjectWriter() {
         ObjectWriter result = null;
 
-        if (MediaType.TEXT_CSV.isCompatible(getMediaType())) {
+        if (isShared()) {
+            result = this.converter.getObjectWriter(getMediaType(),
+                    getObjectClass());
+        } else if (MediaType.TEXT_CSV.isCompatible(getMediaType())) {
             CsvMapper csvMapper = (CsvMapper) getObjectMapper();
             CsvSchema csvSchema = createCsvSchema(csvMapper);
             result = csvMapper.writer(csvSchema);
@@ -387,6 +443,23 @@ public class JacksonRepresentation<T> extends OutputRepresentation {
         return validatingDtd;
     }
 
+    /**
+     * Indicates if the shared object readers and writers of the parent
+     * converter can be used. This isn't the case when this representation has
+     * its own object mapper or CSV schema, or non default XML parsing
+     * settings.
+     * 
+     * @return True if the shared object readers and writers can be used.
+     */
+    private boolean isShared() {
+        return (this.converter != null) && (this.objectMapper == null)
+                // [ifndef android] line
+                && (isExpandingEntityRefs() == XML_EXPANDING_ENTITY_REFS)
+                // [ifndef android] line
+                && (isValidatingDtd() == XML_VALIDATING_DTD)
+                && (this.csvSchema == null) && (getObjectClass() != null);
+    }
+
     /**
      * Sets the Jackson CSV schema.
      * 
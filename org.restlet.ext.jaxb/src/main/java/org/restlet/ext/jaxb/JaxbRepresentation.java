@@ -39,8 +39,11 @@ import javax.xml.bind.util.JAXBSource;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
 /**
  * An XML representation based on JAXB that provides easy translation between
@@ -53,8 +56,19 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class JaxbRepresentation<T> extends WriterRepresentation {
 
-    /** Improves performance by caching contexts which are expensive to create. */
-    private final static Map<String, JAXBContext> contexts = new ConcurrentHashMap<String, JAXBContext>();
+    /**
+     * The maximum number of idle marshallers and unmarshallers pooled per JAXB
+     * context. Default value provided by system property
+     * "org.restlet.ext.jaxb.poolSize", 32 by default.
+     */
+    public final static int POOL_SIZE = Integer.getInteger(
+            "org.restlet.ext.jaxb.poolSize", 32);
+
+    /**
+     * Improves performance by caching contexts which are expensive to create,
+     * per context path and classloader.
+     */
+    private final static ConcurrentMap<List<Object>, JAXBContext> contexts = new ConcurrentHashMap<List<Object>, JAXBContext>();
 
     /**
      * Returns the JAXB context, if possible from the cached contexts.
@@ -65,7 +79,7 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
      * @return The JAXB context.
      * @throws JAXBException
      */
-    public static synchronized JAXBContext getContext(String contextPath)
+    public static JAXBContext getContext(String contextPath)
             throws JAXBException {
         return getContext(contextPath, null);
     }
@@ -82,16 +96,22 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
      * @return The JAXB context.
      * @throws JAXBException
      */
-    public static synchronized JAXBContext getContext(String contextPath,
-                                                      ClassLoader classLoader) throws JAXBException {
+    public static JAXBContext getContext(String contextPath,
+                                         ClassLoader classLoader) throws JAXBException {
         // Contexts are thread-safe so reuse those.
-        JAXBContext result = contexts.get(contextPath);
+        List<Object> key = Arrays.<Object> asList(contextPath, classLoader);
+        JAXBContext result = contexts.get(key);
 
         if (result == null) {
             result = (classLoader == null) ? JAXBContext
                     .newInstance(contextPath) : JAXBContext.newInstance(
                     contextPath, classLoader);
-            contexts.put(contextPath, result);
+            JAXBContext previous = contexts.putIfAbsent(key, result);
+
+            if (previous != null) {
+                // Reuse the previous entry
+                result = previous;
+            }
         }
 
         return result;
@@ -426,6 +446,38 @@ public class JaxbRepresentation<T> extends WriterRepresentation {
         return this.object;
     }
 
+    /**
+     * Unmarshals, one at a time, the child elements of the root element of the
+     * wrapped XML representation and passes them to the given consumer. Unlike
+     * {@link #getObject()}, the whole content tree is never held in memory,
+     * which is suitable for large XML lists. The wrapped XML representation is
+     * consumed.
+     *
+     * @param elementType
+     *            The type of child elements to unmarshal.
+     * @param consumer
+     *            The consumer of unmarshalled child elements.
+     * @return The number of child elements unmarshalled.
+     * @throws IOException
+     */
+    public <E> int getObjects(Class<E> elementType, Consumer<? super E> consumer)
+            throws IOException {
+        if (this.xmlRepresentation == null) {
+            throw new IOException("No XML representation to unmarshal.");
+        }
+
+        final Unmarshaller<T> u = new Unmarshaller<T>(this.contextPath,
+                this.classLoader);
+
+        try {
+            return u.unmarshal(this, this.xmlRepresentation.getReader(),
+                    elementType, consumer);
+        } catch (JAXBException e) {
+            Context.getCurrentLogger().warn("Unable to unmarshal the XML representation", e);
+            throw new IOException("Unable to unmarshal the XML representation." + e.getMessage());
+        }
+    }
+
     /**
      * Returns the "xsi:schemaLocation" attribute in the generated XML data.
      *
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.ext.jaxb.internal;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.restlet.Context;
+import org.restlet.engine.util.Pool;
+import org.restlet.ext.jaxb.JaxbRepresentation;
+
+/**
+ * Bounded pool of JAXB marshallers or unmarshallers created by a given JAXB
+ * context. Objects checked in when the pool is full are simply dropped.
+ * 
+ * @author Jerome Louvel
+ * 
+ * @param <T>
+ *            The type of pooled objects.
+ */
+abstract class ContextPool<T> extends Pool<T> {
+
+    /** The JAXB context creating the pooled objects. */
+    private final JAXBContext context;
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The JAXB context creating the pooled objects.
+     */
+    public ContextPool(JAXBContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Creates a new object from the given JAXB context.
+     * 
+     * @param context
+     *            The JAXB context.
+     * @return The new object.
+     * @throws JAXBException
+     */
+    protected abstract T createObject(JAXBContext context)
+            throws JAXBException;
+
+    /**
+     * Creates a new object from the JAXB context. Returns null and logs a
+     * warning if the creation failed.
+     * 
+     * @return A new object or null.
+     */
+    @Override
+    protected T createObject() {
+        try {
+            return createObject(getContext());
+        } catch (JAXBException e) {
+            Context.getCurrentLogger().warn(
+                    "Problem creating a JAXB marshaller or unmarshaller", e);
+            return null;
+        }
+    }
+
+    /**
+     * Creates a store bounded to {@link JaxbRepresentation#POOL_SIZE} objects.
+     * 
+     * @return The bounded store.
+     */
+    @Override
+    protected Queue<T> createStore() {
+        return new ArrayBlockingQueue<T>(Math.max(1,
+                JaxbRepresentation.POOL_SIZE));
+    }
+
+    /**
+     * Returns the JAXB context creating the pooled objects.
+     * 
+     * @return The JAXB context creating the pooled objects.
+     */
+    public JAXBContext getContext() {
+        return context;
+    }
+
+}
@@ -27,10 +27,13 @@ package org.restlet.ext.jaxb.internal;
 import org.restlet.Context;
 import org.restlet.ext.jaxb.JaxbRepresentation;
 
+import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This is a utility class to assist in marshaling Java content trees into XML.
@@ -38,65 +41,67 @@ import java.io.Writer;
  * 
  * This class is a factory that constructs an instance of itself for multiple
  * uses. The created instance is thread safe and is optimized to be used for
- * multiple, possibly concurrent calls.
+ * multiple, possibly concurrent calls. The underlying JAXB marshallers are
+ * pooled per JAXB context.
  * 
  * @author Overstock.com
  */
 public class Marshaller<T> {
 
-    /** The JAXB classloader. */
-    private final ClassLoader classLoader;
-
-    /** The JAXB context path. */
-    private final String contextPath;
-
-    /** The parent JAXB representation. */
-    private final JaxbRepresentation<T> jaxbRepresentation;
+    /** The bounded pools of JAXB marshallers, per JAXB context. */
+    private static final ConcurrentMap<JAXBContext, ContextPool<javax.xml.bind.Marshaller>> pools = new ConcurrentHashMap<JAXBContext, ContextPool<javax.xml.bind.Marshaller>>();
 
-    /** Use thread identity to preserve safety of access to marshalers. */
-    private final ThreadLocal<javax.xml.bind.Marshaller> marshaller = new ThreadLocal<javax.xml.bind.Marshaller>() {
-
-        @Override
-        protected synchronized javax.xml.bind.Marshaller initialValue() {
-            javax.xml.bind.Marshaller m = null;
-
-            try {
-                m = JaxbRepresentation.getContext(getContextPath(),
-                        getClassLoader()).createMarshaller();
-                m.setProperty("jaxb.formatted.output", getJaxbRepresentation()
-                        .isFormattedOutput());
-
-                if (getJaxbRepresentation().getSchemaLocation() != null) {
-                    m.setProperty("jaxb.schemaLocation",
-                            getJaxbRepresentation().getSchemaLocation());
-                }
-                if (getJaxbRepresentation().getNoNamespaceSchemaLocation() != null) {
-                    m.setProperty("jaxb.noNamespaceSchemaLocation",
-                            getJaxbRepresentation()
-                                    .getNoNamespaceSchemaLocation());
+    /**
+     * Returns the pool of JAXB marshallers for the given context.
+     * 
+     * @param context
+     *            The JAXB context.
+     * @return The pool of JAXB marshallers.
+     */
+    private static ContextPool<javax.xml.bind.Marshaller> getPool(
+            JAXBContext context) {
+        ContextPool<javax.xml.bind.Marshaller> result = pools.get(context);
+
+        if (result == null) {
+            result = new ContextPool<javax.xml.bind.Marshaller>(context) {
+
+                @Override
+                protected void clear(javax.xml.bind.Marshaller object) {
+                    try {
+                        object.setEventHandler(null);
+                    } catch (JAXBException e) {
+                        Context.getCurrentLogger().debug(
+                                "Unable to reset the marshaller", e);
+                    }
                 }
 
-                if (Marshaller.this.jaxbRepresentation.getCharacterSet() != null) {
-                    m.setProperty("jaxb.encoding",
-                            Marshaller.this.jaxbRepresentation
-                                    .getCharacterSet().getName());
+                @Override
+                protected javax.xml.bind.Marshaller createObject(
+                        JAXBContext context) throws JAXBException {
+                    return context.createMarshaller();
                 }
+            };
 
-                if (getJaxbRepresentation().getNamespacePrefixMapper() != null) {
-                    m.setProperty("com.sun.xml.bind.namespacePrefixMapper",
-                            getJaxbRepresentation().getNamespacePrefixMapper());
-                }
+            ContextPool<javax.xml.bind.Marshaller> previous = pools
+                    .putIfAbsent(context, result);
 
-                m.setProperty("jaxb.fragment", getJaxbRepresentation()
-                        .isFragment());
-            } catch (Exception e) {
-                Context.getCurrentLogger().warn("Problem creating Marshaller", e);
-                return null;
+            if (previous != null) {
+                // Reuse the previous entry
+                result = previous;
             }
-
-            return m;
         }
-    };
+
+        return result;
+    }
+
+    /** The JAXB classloader. */
+    private final ClassLoader classLoader;
+
+    /** The JAXB context path. */
+    private final String contextPath;
+
+    /** The parent JAXB representation. */
+    private final JaxbRepresentation<T> jaxbRepresentation;
 
     // This is a factory class.
     public Marshaller(JaxbRepresentation<T> jaxbRepresentation) {
@@ -120,6 +125,40 @@ public class Marshaller<T> {
         this.classLoader = classLoader;
     }
 
+    /**
+     * Configures a pooled JAXB marshaller according to the parent JAXB
+     * representation.
+     * 
+     * @param m
+     *            The JAXB marshaller to configure.
+     * @throws JAXBException
+     */
+    private void configure(javax.xml.bind.Marshaller m) throws JAXBException {
+        m.setProperty("jaxb.formatted.output", getJaxbRepresentation()
+                .isFormattedOutput());
+
+        if (getJaxbRepresentation().getSchemaLocation() != null) {
+            m.setProperty("jaxb.schemaLocation", getJaxbRepresentation()
+                    .getSchemaLocation());
+        }
+
+        if (getJaxbRepresentation().getNoNamespaceSchemaLocation() != null) {
+            m.setProperty("jaxb.noNamespaceSchemaLocation",
+                    getJaxbRepresentation().getNoNamespaceSchemaLocation());
+        }
+
+        m.setProperty("jaxb.encoding",
+                (getJaxbRepresentation().getCharacterSet() != null) ? getJaxbRepresentation()
+                        .getCharacterSet().getName() : "UTF-8");
+
+        if (getJaxbRepresentation().getNamespacePrefixMapper() != null) {
+            m.setProperty("com.sun.xml.bind.namespacePrefixMapper",
+                    getJaxbRepresentation().getNamespacePrefixMapper());
+        }
+
+        m.setProperty("jaxb.fragment", getJaxbRepresentation().isFragment());
+    }
+
     /**
      * Returns the JAXB classloader.
      * 
@@ -147,21 +186,6 @@ public class Marshaller<T> {
         return jaxbRepresentation;
     }
 
-    /**
-     * Returns the JAXB marshaller.
-     * 
-     * @return The JAXB marshaller.
-     * @throws JAXBException
-     */
-    private javax.xml.bind.Marshaller getMarshaller() throws JAXBException {
-        final javax.xml.bind.Marshaller m = this.marshaller.get();
-        if (m == null) {
-            Context.getCurrentLogger().warn("Unable to locate marshaller.");
-            throw new JAXBException("Unable to locate marshaller.");
-        }
-        return m;
-    }
-
     /**
      * Marshals the content tree rooted at {@code jaxbElement} into an output
      * stream.
@@ -189,9 +213,30 @@ public class Marshaller<T> {
      *             If any unexpected problem occurs during marshaling.
      */
     public void marshal(Object jaxbElement, Writer writer) throws JAXBException {
-        getMarshaller().setEventHandler(
-                getJaxbRepresentation().getValidationEventHandler());
-        getMarshaller().marshal(jaxbElement, writer);
+        final ContextPool<javax.xml.bind.Marshaller> pool = getPool(JaxbRepresentation
+                .getContext(getContextPath(), getClassLoader()));
+        final javax.xml.bind.Marshaller m = pool.checkout();
+
+        if (m == null) {
+            Context.getCurrentLogger().warn("Unable to locate marshaller.");
+            throw new JAXBException("Unable to locate marshaller.");
+        }
+
+        // Properties that can't be reset prevent the marshaller reuse
+        boolean reusable = (getJaxbRepresentation().getSchemaLocation() == null)
+                && (getJaxbRepresentation().getNoNamespaceSchemaLocation() == null)
+                && (getJaxbRepresentation().getNamespacePrefixMapper() == null);
+
+        try {
+            configure(m);
+            m.setEventHandler(getJaxbRepresentation()
+                    .getValidationEventHandler());
+            m.marshal(jaxbElement, writer);
+        } finally {
+            if (reusable) {
+                pool.checkin(m);
+            }
+        }
     }
 
 }
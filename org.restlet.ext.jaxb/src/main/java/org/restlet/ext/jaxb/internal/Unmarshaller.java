@@ -30,14 +30,24 @@ import org.xml.sax.InputSource;
 import org.xml.sax.XMLReader;
 
 import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.ValidationEventHandler;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.sax.SAXSource;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
 /**
  * This is a utility class to assist in unmarshaling XML into a new Java content
@@ -45,35 +55,146 @@ import java.io.Reader;
  * 
  * Each {@code unmarshal} method takes a different source for the XML. This
  * class caches information to improve unmarshaling performance across calls
- * using the same schema (package).
+ * using the same schema (package). The underlying JAXB unmarshallers are pooled
+ * per JAXB context.
  * 
  * @author Overstock.com
  */
 public class Unmarshaller<T> {
 
-    /** The JAXB classloader. */
-    private final ClassLoader classLoader;
+    /** The StAX input factories, per entity expansion flag. */
+    private static final ConcurrentMap<Boolean, XMLInputFactory> inputFactories = new ConcurrentHashMap<Boolean, XMLInputFactory>();
 
-    /** The JAXB context path. */
-    private final String contextPath;
+    /** The SAX parser factories, per combination of parsing flags. */
+    private static final ConcurrentMap<List<Boolean>, SAXParserFactory> parserFactories = new ConcurrentHashMap<List<Boolean>, SAXParserFactory>();
+
+    /** The bounded pools of JAXB unmarshallers, per JAXB context. */
+    private static final ConcurrentMap<JAXBContext, ContextPool<javax.xml.bind.Unmarshaller>> pools = new ConcurrentHashMap<JAXBContext, ContextPool<javax.xml.bind.Unmarshaller>>();
 
     /**
-     * Use thread identity to preserve safety of access to unmarshallers.
+     * Returns a shared StAX input factory configured according to the given
+     * JAXB representation. StAX input factories are thread-safe once
+     * configured.
+     * 
+     * @param jaxbRep
+     *            The source JAXB representation.
+     * @return The StAX input factory.
      */
-    private final ThreadLocal<javax.xml.bind.Unmarshaller> unmarshaller = new ThreadLocal<javax.xml.bind.Unmarshaller>() {
-        @Override
-        protected synchronized javax.xml.bind.Unmarshaller initialValue() {
-            javax.xml.bind.Unmarshaller m = null;
-            try {
-                m = JaxbRepresentation.getContext(getContextPath(),
-                        getClassLoader()).createUnmarshaller();
-            } catch (Exception e) {
-                Context.getCurrentLogger().warn("Problem creating Unmarshaller", e);
-                return null;
+    private static XMLInputFactory getInputFactory(JaxbRepresentation<?> jaxbRep) {
+        Boolean key = jaxbRep.isExpandingEntityRefs();
+        XMLInputFactory result = inputFactories.get(key);
+
+        if (result == null) {
+            result = XMLInputFactory.newInstance();
+            result.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+            result.setProperty(
+                    XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, key);
+            result.setProperty(XMLInputFactory.SUPPORT_DTD, key);
+            XMLInputFactory previous = inputFactories.putIfAbsent(key, result);
+
+            if (previous != null) {
+                // Reuse the previous entry
+                result = previous;
             }
-            return m;
         }
-    };
+
+        return result;
+    }
+
+    /**
+     * Returns a shared SAX parser factory configured according to the given
+     * JAXB representation.
+     * 
+     * @param jaxbRep
+     *            The source JAXB representation.
+     * @return The SAX parser factory.
+     * @throws Exception
+     */
+    private static SAXParserFactory getParserFactory(
+            JaxbRepresentation<?> jaxbRep) throws Exception {
+        List<Boolean> key = Arrays.asList(jaxbRep.isValidatingDtd(),
+                jaxbRep.isXIncludeAware(), jaxbRep.isSecureProcessing(),
+                jaxbRep.isExpandingEntityRefs());
+        SAXParserFactory result = parserFactories.get(key);
+
+        if (result == null) {
+            result = SAXParserFactory.newInstance();
+
+            // Keep before the external entity preferences
+            result.setNamespaceAware(true);
+            result.setValidating(jaxbRep.isValidatingDtd());
+            result.setXIncludeAware(jaxbRep.isXIncludeAware());
+            result.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING,
+                    jaxbRep.isSecureProcessing());
+            result.setFeature(
+                    "http://xml.org/sax/features/external-general-entities",
+                    jaxbRep.isExpandingEntityRefs());
+            result.setFeature(
+                    "http://xml.org/sax/features/external-parameter-entities",
+                    jaxbRep.isExpandingEntityRefs());
+            SAXParserFactory previous = parserFactories.putIfAbsent(key,
+                    result);
+
+            if (previous != null) {
+                // Reuse the previous entry
+                result = previous;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the pool of JAXB unmarshallers for the given context.
+     * 
+     * @param context
+     *            The JAXB context.
+     * @return The pool of JAXB unmarshallers.
+     */
+    private static ContextPool<javax.xml.bind.Unmarshaller> getPool(
+            JAXBContext context) {
+        ContextPool<javax.xml.bind.Unmarshaller> result = pools.get(context);
+
+        if (result == null) {
+            result = new ContextPool<javax.xml.bind.Unmarshaller>(context) {
+
+                @Override
+                protected void clear(javax.xml.bind.Unmarshaller object) {
+                    try {
+                        object.setEventHandler(null);
+                    } catch (JAXBException e) {
+                        Context.getCurrentLogger().debug(
+                                "Unable to reset the unmarshaller", e);
+                    }
+                }
+
+                @Override
+                protected javax.xml.bind.Unmarshaller createObject(
+                        JAXBContext context) throws JAXBException {
+                    return context.createUnmarshaller();
+                }
+            };
+
+            ContextPool<javax.xml.bind.Unmarshaller> previous = pools
+                    .putIfAbsent(context, result);
+
+            if (previous != null) {
+                // Reuse the previous entry
+                result = previous;
+            }
+        }
+
+        return result;
+    }
+
+    /** The JAXB classloader. */
+    private final ClassLoader classLoader;
+
+    /** The JAXB context path. */
+    private final String contextPath;
+
+    /** The validation event handler. */
+    private volatile ValidationEventHandler eventHandler;
 
     /**
      * Constructor.
@@ -107,20 +228,49 @@ public class Unmarshaller<T> {
     }
 
     /**
-     * Returns the JAXB unmarshaller.
+     * Checks out a JAXB unmarshaller from the pool and sets its validation
+     * event handler.
      * 
+     * @param pool
+     *            The pool of JAXB unmarshallers.
+     * @param jaxbRep
+     *            The source JAXB representation.
      * @return The JAXB unmarshaller.
      * @throws JAXBException
      */
-    private javax.xml.bind.Unmarshaller getUnmarshaller() throws JAXBException {
-        final javax.xml.bind.Unmarshaller m = this.unmarshaller.get();
+    private javax.xml.bind.Unmarshaller checkout(
+            ContextPool<javax.xml.bind.Unmarshaller> pool,
+            JaxbRepresentation<?> jaxbRep) throws JAXBException {
+        final javax.xml.bind.Unmarshaller m = pool.checkout();
+
         if (m == null) {
             Context.getCurrentLogger().warn("Unable to locate unmarshaller.");
             throw new JAXBException("Unable to locate unmarshaller.");
         }
+
+        try {
+            m.setEventHandler((jaxbRep.getValidationEventHandler() != null) ? jaxbRep
+                    .getValidationEventHandler() : this.eventHandler);
+        } catch (JAXBException e) {
+            pool.checkin(m);
+            throw e;
+        }
+
         return m;
     }
 
+    /**
+     * Returns the pool of JAXB unmarshallers for the JAXB context.
+     * 
+     * @return The pool of JAXB unmarshallers.
+     * @throws JAXBException
+     */
+    private ContextPool<javax.xml.bind.Unmarshaller> getPool()
+            throws JAXBException {
+        return getPool(JaxbRepresentation.getContext(getContextPath(),
+                getClassLoader()));
+    }
+
     /**
      * Sets the validation handler for this unmarshaller.
      * 
@@ -131,7 +281,7 @@ public class Unmarshaller<T> {
      */
     public void setEventHandler(ValidationEventHandler handler)
             throws JAXBException {
-        getUnmarshaller().setEventHandler(handler);
+        this.eventHandler = handler;
     }
 
     /**
@@ -185,27 +335,87 @@ public class Unmarshaller<T> {
         SAXSource ss = null;
 
         try {
-            SAXParserFactory spf = SAXParserFactory.newInstance();
+            SAXParserFactory spf = getParserFactory(jaxbRep);
+            XMLReader xmlReader;
+
+            // JAXP factories aren't thread-safe
+            synchronized (spf) {
+                xmlReader = spf.newSAXParser().getXMLReader();
+            }
 
-            // Keep before the external entity preferences
-            spf.setNamespaceAware(true);
-            spf.setValidating(jaxbRep.isValidatingDtd());
-            spf.setXIncludeAware(jaxbRep.isXIncludeAware());
-            spf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING,
-                    jaxbRep.isSecureProcessing());
-            spf.setFeature(
-                    "http://xml.org/sax/features/external-general-entities",
-                    jaxbRep.isExpandingEntityRefs());
-            spf.setFeature(
-                    "http://xml.org/sax/features/external-parameter-entities",
-                    jaxbRep.isExpandingEntityRefs());
-            XMLReader xmlReader = spf.newSAXParser().getXMLReader();
             ss = new SAXSource(xmlReader, new InputSource(reader));
         } catch (Exception e) {
             throw new JAXBException("Unable to create customized SAX source", e);
         }
 
-        getUnmarshaller().setEventHandler(jaxbRep.getValidationEventHandler());
-        return getUnmarshaller().unmarshal(ss);
+        final ContextPool<javax.xml.bind.Unmarshaller> pool = getPool();
+        final javax.xml.bind.Unmarshaller m = checkout(pool, jaxbRep);
+
+        try {
+            return m.unmarshal(ss);
+        } finally {
+            pool.checkin(m);
+        }
+    }
+
+    /**
+     * Unmarshals, one at a time, the child elements of the root element read
+     * from the specified reader and passes them to the given consumer. Only
+     * one child element is held in memory at a time which is suitable for
+     * large XML lists.
+     * 
+     * @param jaxbRep
+     *            The source JAXB representation.
+     * @param reader
+     *            The source reader.
+     * @param elementType
+     *            The type of child elements to unmarshal.
+     * @param consumer
+     *            The consumer of unmarshaled child elements.
+     * @return The number of child elements unmarshaled.
+     * @throws JAXBException
+     *             If any unexpected problem occurs during unmarshaling.
+     */
+    public <E> int unmarshal(JaxbRepresentation<?> jaxbRep, Reader reader,
+            Class<E> elementType, Consumer<? super E> consumer)
+            throws JAXBException {
+        int result = 0;
+        XMLStreamReader xsr = null;
+        final ContextPool<javax.xml.bind.Unmarshaller> pool = getPool();
+        final javax.xml.bind.Unmarshaller m = checkout(pool, jaxbRep);
+
+        try {
+            xsr = getInputFactory(jaxbRep).createXMLStreamReader(reader);
+
+            // Move past the root element
+            xsr.nextTag();
+            xsr.next();
+
+            while (xsr.getEventType() != XMLStreamConstants.END_DOCUMENT
+                    && xsr.getEventType() != XMLStreamConstants.END_ELEMENT) {
+                if (xsr.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                    // The cursor is moved past the unmarshaled element
+                    consumer.accept(m.unmarshal(xsr, elementType).getValue());
+                    result++;
+                } else {
+                    xsr.next();
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new JAXBException("Unable to stream the XML elements", e);
+        } finally {
+            pool.checkin(m);
+
+            if (xsr != null) {
+                try {
+                    xsr.close();
+                } catch (XMLStreamException e) {
+                    Context.getCurrentLogger().debug(
+                            "Unable to close the XML stream reader", e);
+                }
+            }
+        }
+
+        return result;
     }
 }
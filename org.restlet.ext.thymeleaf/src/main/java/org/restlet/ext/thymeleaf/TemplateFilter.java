@@ -36,6 +36,7 @@ import org.restlet.message.Status;
 import org.restlet.representation.Encoding;
 import org.restlet.routing.Filter;
 import org.restlet.util.Resolver;
+import org.thymeleaf.TemplateEngine;
 
 /**
  * Filters response's entity and wraps it with a Thymeleaf's template
@@ -131,9 +132,11 @@ public abstract class TemplateFilter extends Filter {
         if (response.isEntityAvailable()
                 && response.getEntity().getEncodings().contains(THYMELEAF)) {
             try {
+                final TemplateRepresentation source = (TemplateRepresentation) response
+                        .getEntity();
                 final TemplateRepresentation representation = new TemplateRepresentation(
-                        (TemplateRepresentation) response.getEntity(),
-                        getLocale(), response.getEntity().getMediaType());
+                        source, getTemplateEngine(source), getLocale(),
+                        source.getMediaType());
 
                 if ((this.mapDataModel == null)
                         && (this.resolverDataModel == null)) {
@@ -153,6 +156,20 @@ public abstract class TemplateFilter extends Filter {
         }
     }
 
+    /**
+     * Returns the template engine used to render the given template
+     * representation. By default, the engine of the representation is reused,
+     * or the one shared by the filter's context if not set.
+     * 
+     * @param source
+     *            The template representation to render.
+     * @return The template engine.
+     */
+    protected TemplateEngine getTemplateEngine(TemplateRepresentation source) {
+        return (source.getEngine() != null) ? source.getEngine()
+                : TemplateRepresentation.getTemplateEngine(getContext());
+    }
+
     /**
      * Overrides with {@link Locale} detection.
      * 
@@ -48,7 +48,13 @@ import org.thymeleaf.util.Validate;
 
 /**
  * Thymeleaf template representation. Useful for dynamic string-based
- * representations.
+ * representations.<br>
+ * <br>
+ * The constructors that don't take a template engine share a single engine per
+ * Restlet context, as returned by {@link #getTemplateEngine(org.restlet.Context)}
+ * . As a result, parsed templates are kept in the engine's cache and reused
+ * across representations and requests. This shared engine can be replaced by
+ * setting the {@link #ATTRIBUTE_TEMPLATE_ENGINE} context attribute.
  *
  * @see <a href="http://www.thymeleaf.org/">Thymeleaf home page</a>
  * @author Grzegorz Godlewski
@@ -107,6 +113,15 @@ public class TemplateRepresentation extends WriterRepresentation {
         }
     }
 
+    /**
+     * The name of the context attribute holding the template engine shared by
+     * the representations, filters and converters of a Restlet context.
+     */
+    public static final String ATTRIBUTE_TEMPLATE_ENGINE = "org.restlet.ext.thymeleaf.templateEngine";
+
+    /** The template engine shared outside of any Restlet context. */
+    private static volatile TemplateEngine defaultTemplateEngine;
+
     /**
      * Returns a new instance of {@link TemplateEngine} based by default on a
      * {@link ITemplateResolver} returned by calling
@@ -153,6 +168,53 @@ public class TemplateRepresentation extends WriterRepresentation {
         return templateResolver;
     }
 
+    /**
+     * Returns the template engine shared by the given Restlet context, stored
+     * in its {@link #ATTRIBUTE_TEMPLATE_ENGINE} attribute. If missing, a new
+     * engine is created by calling {@link #createTemplateEngine()} and stored.
+     * When the Restlet context is null, a template engine shared by the whole
+     * JVM is returned.
+     *
+     * @param context
+     *            The Restlet context or null.
+     * @return The shared template engine.
+     */
+    public static TemplateEngine getTemplateEngine(org.restlet.Context context) {
+        TemplateEngine result = null;
+
+        if (context == null) {
+            result = defaultTemplateEngine;
+
+            if (result == null) {
+                synchronized (TemplateRepresentation.class) {
+                    result = defaultTemplateEngine;
+
+                    if (result == null) {
+                        defaultTemplateEngine = result = createTemplateEngine();
+                    }
+                }
+            }
+        } else {
+            Object attribute = context.getAttributes().get(
+                    ATTRIBUTE_TEMPLATE_ENGINE);
+
+            if (attribute instanceof TemplateEngine) {
+                result = (TemplateEngine) attribute;
+            } else {
+                result = createTemplateEngine();
+                Object prev = context.getAttributes().putIfAbsent(
+                        ATTRIBUTE_TEMPLATE_ENGINE, result);
+
+                if (prev instanceof TemplateEngine) {
+                    // Reuse the previous entry
+                    result = (TemplateEngine) prev;
+                }
+            }
+        }
+
+        return result;
+    }
+
     /** The template's data model. */
     protected volatile IContext context;
 
@@ -180,7 +242,8 @@ public class TemplateRepresentation extends WriterRepresentation {
      */
     public TemplateRepresentation(String templateName, Locale locale, Map<String, Object> dataModel,
             MediaType mediaType) {
-        this(templateName, createTemplateEngine(), locale, dataModel, mediaType);
+        this(templateName, getTemplateEngine(org.restlet.Context.getCurrent()),
+                locale, dataModel, mediaType);
     }
 
     /**
@@ -250,7 +313,8 @@ public class TemplateRepresentation extends WriterRepresentation {
      */
     public TemplateRepresentation(TemplateRepresentation templateRepresentation, Locale locale, MediaType mediaType)
             throws IOException {
-        this(templateRepresentation, createTemplateEngine(), locale, mediaType);
+        this(templateRepresentation, getTemplateEngine(org.restlet.Context
+                .getCurrent()), locale, mediaType);
     }
 
     /**
@@ -276,6 +340,15 @@ public class TemplateRepresentation extends WriterRepresentation {
         this.templateName = templateRepresentation.getTemplateName();
     }
 
+    /**
+     * Returns the template engine.
+     *
+     * @return The template engine.
+     */
+    public TemplateEngine getEngine() {
+        return engine;
+    }
+
     /**
      * Returns the representation's locale.
      *
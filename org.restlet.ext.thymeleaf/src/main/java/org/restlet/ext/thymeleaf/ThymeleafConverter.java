@@ -97,8 +97,9 @@ public class ThymeleafConverter extends ConverterHelper {
             Locale locale = getLocale(resource);
 
             TemplateRepresentation tr = new TemplateRepresentation(
-                    ((TemplateResolution) source).getTemplateResource().getBaseName(), locale,
-                    target.getMediaType());
+                    ((TemplateResolution) source).getTemplateResource().getBaseName(),
+                    TemplateRepresentation.getTemplateEngine(resource.getContext()),
+                    locale, target.getMediaType());
             tr.setDataModel(resource.getRequest(), resource.getResponse());
             return tr;
         }
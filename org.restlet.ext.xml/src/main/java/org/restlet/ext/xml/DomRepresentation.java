@@ -107,8 +107,7 @@ public class DomRepresentation extends XmlRepresentation {
     protected javax.xml.transform.Transformer createTransformer()
             throws IOException {
         try {
-            javax.xml.transform.Transformer transformer = javax.xml.transform.TransformerFactory
-                    .newInstance().newTransformer();
+            javax.xml.transform.Transformer transformer = newTransformer();
             transformer.setOutputProperty(
                     javax.xml.transform.OutputKeys.METHOD, "xml");
             transformer.setOutputProperty(
@@ -26,13 +26,17 @@ package org.restlet.ext.xml;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Result;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.TransformerFactoryConfigurationError;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.sax.SAXResult;
@@ -43,6 +47,7 @@ import org.restlet.representation.Representation;
 import org.w3c.dom.Document;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
 
 /**
@@ -74,6 +79,12 @@ public class SaxRepresentation extends XmlRepresentation {
             .getProperty("org.restlet.ext.xml.secureProcessing") == null) ? true
             : Boolean.getBoolean("org.restlet.ext.xml.secureProcessing");
 
+    /**
+     * The shared SAX parser factories, per configuration. Factories configured
+     * with a schema aren't shared.
+     */
+    private static final ConcurrentMap<List<Object>, SAXParserFactory> saxParserFactories = new ConcurrentHashMap<List<Object>, SAXParserFactory>();
+
     /** Limits potential XML overflow attacks. */
     private boolean secureProcessing;
 
@@ -175,28 +186,36 @@ public class SaxRepresentation extends XmlRepresentation {
                         .getSaxSource();
             } else {
                 try {
-                    SAXParserFactory spf = SAXParserFactory.newInstance();
-                    spf.setNamespaceAware(isNamespaceAware());
+                    javax.xml.validation.Schema xsd = getSchema();
+                    SAXParserFactory spf = null;
 
-                    // Keep before the external entity preferences
-                    spf.setValidating(isValidatingDtd());
+                    if (xsd == null) {
+                        List<Object> key = Arrays.<Object> asList(
+                                isNamespaceAware(), isValidatingDtd(),
+                                isXIncludeAware(), isSecureProcessing(),
+                                isExpandingEntityRefs());
+                        spf = saxParserFactories.get(key);
 
-                    javax.xml.validation.Schema xsd = getSchema();
+                        if (spf == null) {
+                            spf = newSaxParserFactory(null);
+                            SAXParserFactory prev = saxParserFactories
+                                    .putIfAbsent(key, spf);
 
-                    if (xsd != null) {
-                        spf.setSchema(xsd);
+                            if (prev != null) {
+                                // Reuse the previous entry
+                                spf = prev;
+                            }
+                        }
+                    } else {
+                        spf = newSaxParserFactory(xsd);
+                    }
+
+                    XMLReader xmlReader = null;
+
+                    synchronized (spf) {
+                        xmlReader = spf.newSAXParser().getXMLReader();
                     }
 
-                    spf.setXIncludeAware(isXIncludeAware());
-                    spf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING,
-                            isSecureProcessing());
-                    spf.setFeature(
-                            "http://xml.org/sax/features/external-general-entities",
-                            isExpandingEntityRefs());
-                    spf.setFeature(
-                            "http://xml.org/sax/features/external-parameter-entities",
-                            isExpandingEntityRefs());
-                    XMLReader xmlReader = spf.newSAXParser().getXMLReader();
                     this.source = new SAXSource(xmlReader, new InputSource(
                             xmlRepresentation.getReader()));
                 } catch (Exception e) {
@@ -223,6 +242,40 @@ public class SaxRepresentation extends XmlRepresentation {
         return secureProcessing;
     }
 
+    /**
+     * Creates a SAX parser factory properly configured.
+     * 
+     * @param xsd
+     *            The schema to validate against or null.
+     * @return A SAX parser factory properly configured.
+     * @throws ParserConfigurationException
+     * @throws SAXException
+     */
+    private SAXParserFactory newSaxParserFactory(
+            javax.xml.validation.Schema xsd)
+            throws ParserConfigurationException, SAXException {
+        SAXParserFactory result = SAXParserFactory.newInstance();
+        result.setNamespaceAware(isNamespaceAware());
+
+        // Keep before the external entity preferences
+        result.setValidating(isValidatingDtd());
+
+        if (xsd != null) {
+            result.setSchema(xsd);
+        }
+
+        result.setXIncludeAware(isXIncludeAware());
+        result.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING,
+                isSecureProcessing());
+        result.setFeature(
+                "http://xml.org/sax/features/external-general-entities",
+                isExpandingEntityRefs());
+        result.setFeature(
+                "http://xml.org/sax/features/external-parameter-entities",
+                isExpandingEntityRefs());
+        return result;
+    }
+
     /**
      * Parses the source and sends SAX events to a content handler.
      * 
@@ -233,8 +286,7 @@ public class SaxRepresentation extends XmlRepresentation {
         if (contentHandler != null) {
             try {
                 Result result = new SAXResult(contentHandler);
-                TransformerFactory.newInstance().newTransformer()
-                        .transform(getSaxSource(), result);
+                newTransformer().transform(getSaxSource(), result);
             } catch (TransformerConfigurationException tce) {
                 throw new IOException(
                         "Couldn't parse the source representation: "
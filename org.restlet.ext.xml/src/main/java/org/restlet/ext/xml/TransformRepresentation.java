@@ -26,7 +26,9 @@ package org.restlet.ext.xml;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.transform.ErrorListener;
@@ -36,7 +38,6 @@ import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.TransformerFactoryConfigurationError;
 import javax.xml.transform.URIResolver;
 import javax.xml.transform.sax.SAXResult;
@@ -47,6 +48,7 @@ import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
 import org.restlet.Context;
+import org.restlet.engine.util.LruCache;
 import org.restlet.ext.xml.internal.AbstractXmlReader;
 import org.restlet.ext.xml.internal.ContextResolver;
 import org.restlet.representation.Representation;
@@ -66,11 +68,28 @@ import org.xml.sax.XMLReader;
  * a transform sheet on a source representation when it is read or written out.
  * Therefore, it isn't intended to be reused on different sources. For this use
  * case, you should instead use the {@link org.restlet.routing.Transformer}
- * filter.
+ * filter.<br>
+ * <br>
+ * Transform sheets having a location reference and either a tag or a
+ * modification date are compiled once and cached, up to
+ * {@link #TEMPLATES_CACHE_SIZE} entries.
  * 
  * @author Jerome Louvel
  */
 public class TransformRepresentation extends WriterRepresentation {
+
+    /**
+     * The maximum number of compiled transform sheets cached. Default value
+     * provided by system property "org.restlet.ext.xml.templatesCacheSize",
+     * 100 by default.
+     */
+    public final static int TEMPLATES_CACHE_SIZE = Integer.getInteger(
+            "org.restlet.ext.xml.templatesCacheSize", 100);
+
+    /** The cache of compiled transform sheets. */
+    private static final LruCache<List<Object>, Templates> templatesCache = new LruCache<List<Object>, Templates>(
+            TEMPLATES_CACHE_SIZE);
+
     /**
      * Wraps a source representation into a {@link SAXSource}. This method can
      * detect other {@link XmlRepresentation} instances to use their
@@ -278,14 +297,13 @@ public class TransformRepresentation extends WriterRepresentation {
     }
 
     /**
-     * Returns the default SAX transformer factory.
+     * Returns the shared SAX transformer factory. Callers must synchronize on
+     * it while using it.
      * 
-     * @return The default SAX transformer factory.
+     * @return The shared SAX transformer factory.
      */
     private SAXTransformerFactory getSaxTransformerFactory() {
-        SAXTransformerFactory result = (SAXTransformerFactory) TransformerFactory
-                .newInstance();
-        return result;
+        return XmlRepresentation.getTransformerFactory();
     }
 
     /**
@@ -300,39 +318,77 @@ public class TransformRepresentation extends WriterRepresentation {
     /**
      * Returns the templates to be used and reused. If no one exists, it creates
      * a new one based on the transformSheet representation and on the URI
-     * resolver.
+     * resolver. When the transform sheet has a location reference and either a
+     * tag or a modification date, the compiled templates are cached and reused
+     * for transform sheets having the same properties and URI resolver
+     * instance.
      * 
      * @return The templates to be used and reused.
      */
     public Templates getTemplates() throws IOException {
         if (this.templates == null) {
-            if (getTransformSheet() != null) {
-                try {
-                    // Prepare the XSLT transformer documents
-                    final StreamSource transformSource = new StreamSource(
-                            getTransformSheet().getStream());
-
-                    if (getTransformSheet().getLocationRef() != null) {
-                        transformSource.setSystemId(getTransformSheet()
-                                .getLocationRef().getTargetRef().toString());
-                    }
-
-                    // Create the transformer factory
-                    final TransformerFactory transformerFactory = TransformerFactory
-                            .newInstance();
+            Representation transformSheet = getTransformSheet();
+
+            if (transformSheet != null) {
+                List<Object> key = null;
+
+                if ((transformSheet.getLocationRef() != null)
+                        && ((transformSheet.getTag() != null) || (transformSheet
+                                .getModificationDate() != null))) {
+                    key = Arrays.<Object> asList(transformSheet
+                            .getLocationRef().getTargetRef().toString(),
+                            transformSheet.getTag(), transformSheet
+                                    .getModificationDate(),
+                            getUriResolver());
+                    this.templates = templatesCache.get(key);
+                }
 
-                    // Set the URI resolver
-                    if (getUriResolver() != null) {
-                        transformerFactory.setURIResolver(getUriResolver());
+                if (this.templates != null) {
+                    // The transform sheet doesn't need to be read
+                    transformSheet.release();
+                } else {
+                    try {
+                        // Prepare the XSLT transformer documents
+                        final StreamSource transformSource = new StreamSource(
+                                transformSheet.getStream());
+
+                        if (transformSheet.getLocationRef() != null) {
+                            transformSource.setSystemId(transformSheet
+                                    .getLocationRef().getTargetRef()
+                                    .toString());
+                        }
+
+                        // Get the shared transformer factory
+                        final SAXTransformerFactory transformerFactory = getSaxTransformerFactory();
+
+                        synchronized (transformerFactory) {
+                            URIResolver defaultUriResolver = transformerFactory
+                                    .getURIResolver();
+
+                            try {
+                                // Set the URI resolver
+                                if (getUriResolver() != null) {
+                                    transformerFactory
+                                            .setURIResolver(getUriResolver());
+                                }
+
+                                // Create a new transformer
+                                this.templates = transformerFactory
+                                        .newTemplates(transformSource);
+                            } finally {
+                                transformerFactory
+                                        .setURIResolver(defaultUriResolver);
+                            }
+                        }
+
+                        if (key != null) {
+                            templatesCache.put(key, this.templates);
+                        }
+                    } catch (TransformerConfigurationException tce) {
+                        throw new IOException(
+                                "Transformer configuration exception. "
+                                        + tce.getMessage());
                     }
-
-                    // Create a new transformer
-                    this.templates = transformerFactory
-                            .newTemplates(transformSource);
-                } catch (TransformerConfigurationException tce) {
-                    throw new IOException(
-                            "Transformer configuration exception. "
-                                    + tce.getMessage());
                 }
             }
         }
@@ -396,8 +452,11 @@ public class TransformRepresentation extends WriterRepresentation {
 
         if (templates != null) {
             try {
-                result = getSaxTransformerFactory().newTransformerHandler(
-                        templates);
+                SAXTransformerFactory transformerFactory = getSaxTransformerFactory();
+
+                synchronized (transformerFactory) {
+                    result = transformerFactory.newTransformerHandler(templates);
+                }
             } catch (TransformerConfigurationException tce) {
                 throw new IOException("Transformer configuration exception. "
                         + tce.getMessage());
@@ -437,7 +496,11 @@ public class TransformRepresentation extends WriterRepresentation {
 
         if (templates != null) {
             try {
-                result = getSaxTransformerFactory().newXMLFilter(templates);
+                SAXTransformerFactory transformerFactory = getSaxTransformerFactory();
+
+                synchronized (transformerFactory) {
+                    result = transformerFactory.newXMLFilter(templates);
+                }
             } catch (TransformerConfigurationException tce) {
                 throw new IOException("Transformer configuration exception. "
                         + tce.getMessage());
@@ -43,11 +43,14 @@ import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathFactory;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Representation based on an XML document. It knows how to evaluate XPath
@@ -84,6 +87,16 @@ public abstract class XmlRepresentation extends WriterRepresentation
     public final static boolean XML_VALIDATING_DTD = Boolean
             .getBoolean("org.restlet.ext.xml.validatingDtd");
 
+    /**
+     * The shared document builder factories, per configuration. Factories
+     * configured with a schema aren't shared.
+     */
+    private static final ConcurrentMap<List<Object>, DocumentBuilderFactory> documentBuilderFactories = new ConcurrentHashMap<List<Object>, DocumentBuilderFactory>();
+
+    // [ifndef android] member
+    /** The shared transformer factory. */
+    private static volatile javax.xml.transform.sax.SAXTransformerFactory transformerFactory;
+
     // [ifdef android] method
     /**
      * Appends the text content of a given node and its descendants to the given
@@ -212,6 +225,31 @@ public abstract class XmlRepresentation extends WriterRepresentation
         return result;
     }
 
+    // [ifndef android] method
+    /**
+     * Returns the transformer factory shared by the XML representations. As
+     * JAXP factories aren't guaranteed to be thread-safe, callers must
+     * synchronize on it while using it.
+     * 
+     * @return The shared transformer factory.
+     */
+    static javax.xml.transform.sax.SAXTransformerFactory getTransformerFactory() {
+        javax.xml.transform.sax.SAXTransformerFactory result = transformerFactory;
+
+        if (result == null) {
+            synchronized (XmlRepresentation.class) {
+                result = transformerFactory;
+
+                if (result == null) {
+                    transformerFactory = result = (javax.xml.transform.sax.SAXTransformerFactory) javax.xml.transform.TransformerFactory
+                            .newInstance();
+                }
+            }
+        }
+
+        return result;
+    }
+
     // [ifdef android] method
     /**
      * Returns the text content of a given node and its descendants.
@@ -356,7 +394,9 @@ public abstract class XmlRepresentation extends WriterRepresentation
     }
 
     /**
-     * Returns a document builder properly configured.
+     * Returns a document builder properly configured. The underlying factory
+     * is shared with the representations having the same settings, unless a
+     * schema is set.
      * 
      * @return A document builder properly configured.
      */
@@ -364,29 +404,36 @@ public abstract class XmlRepresentation extends WriterRepresentation
         DocumentBuilder result = null;
 
         try {
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setNamespaceAware(isNamespaceAware());
-            dbf.setValidating(isValidatingDtd());
-            dbf.setCoalescing(isCoalescing());
-            dbf.setExpandEntityReferences(isExpandingEntityRefs());
-            dbf.setIgnoringComments(isIgnoringComments());
-            dbf.setIgnoringElementContentWhitespace(isIgnoringExtraWhitespaces());
-
-            try {
-                dbf.setXIncludeAware(isXIncludeAware());
-            } catch (UnsupportedOperationException uoe) {
-                Context.getCurrentLogger().debug("The JAXP parser doesn't support XInclude.", uoe);
+            Object xsd = null;
+            // [ifndef android] instruction
+            xsd = getSchema();
+            DocumentBuilderFactory dbf = null;
+
+            if (xsd == null) {
+                List<Object> key = Arrays.<Object> asList(isNamespaceAware(),
+                        isValidatingDtd(), isCoalescing(),
+                        isExpandingEntityRefs(), isIgnoringComments(),
+                        isIgnoringExtraWhitespaces(), isXIncludeAware());
+                dbf = documentBuilderFactories.get(key);
+
+                if (dbf == null) {
+                    dbf = newDocumentBuilderFactory(null);
+                    DocumentBuilderFactory prev = documentBuilderFactories
+                            .putIfAbsent(key, dbf);
+
+                    if (prev != null) {
+                        // Reuse the previous entry
+                        dbf = prev;
+                    }
+                }
+            } else {
+                dbf = newDocumentBuilderFactory(xsd);
             }
 
-            // [ifndef android]
-            javax.xml.validation.Schema xsd = getSchema();
-
-            if (xsd != null) {
-                dbf.setSchema(xsd);
+            synchronized (dbf) {
+                result = dbf.newDocumentBuilder();
             }
-            // [enddef]
 
-            result = dbf.newDocumentBuilder();
             result.setEntityResolver(getEntityResolver());
             result.setErrorHandler(getErrorHandler());
         } catch (ParserConfigurationException pce) {
@@ -707,6 +754,54 @@ public abstract class XmlRepresentation extends WriterRepresentation
         return xIncludeAware;
     }
 
+    /**
+     * Creates a document builder factory properly configured.
+     * 
+     * @param xsd
+     *            The schema to validate against or null.
+     * @return A document builder factory properly configured.
+     */
+    private DocumentBuilderFactory newDocumentBuilderFactory(Object xsd) {
+        DocumentBuilderFactory result = DocumentBuilderFactory.newInstance();
+        result.setNamespaceAware(isNamespaceAware());
+        result.setValidating(isValidatingDtd());
+        result.setCoalescing(isCoalescing());
+        result.setExpandEntityReferences(isExpandingEntityRefs());
+        result.setIgnoringComments(isIgnoringComments());
+        result.setIgnoringElementContentWhitespace(isIgnoringExtraWhitespaces());
+
+        try {
+            result.setXIncludeAware(isXIncludeAware());
+        } catch (UnsupportedOperationException uoe) {
+            Context.getCurrentLogger().debug("The JAXP parser doesn't support XInclude.", uoe);
+        }
+
+        // [ifndef android]
+        if (xsd != null) {
+            result.setSchema((javax.xml.validation.Schema) xsd);
+        }
+        // [enddef]
+
+        return result;
+    }
+
+    // [ifndef android] method
+    /**
+     * Returns a new identity transformer created by the shared transformer
+     * factory.
+     * 
+     * @return A new identity transformer.
+     * @throws javax.xml.transform.TransformerConfigurationException
+     */
+    static javax.xml.transform.Transformer newTransformer()
+            throws javax.xml.transform.TransformerConfigurationException {
+        javax.xml.transform.TransformerFactory factory = getTransformerFactory();
+
+        synchronized (factory) {
+            return factory.newTransformer();
+        }
+    }
+
     /**
      * Releases the namespaces map.
      */
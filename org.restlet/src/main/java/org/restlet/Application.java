@@ -36,6 +36,7 @@ import org.restlet.resource.ServerResource;
 import org.restlet.routing.Router;
 import org.restlet.routing.VirtualHost;
 import org.restlet.security.Role;
+import org.restlet.service.CacheService;
 import org.restlet.service.ConnectorService;
 import org.restlet.service.ConnegService;
 import org.restlet.service.ConverterService;
@@ -44,6 +45,7 @@ import org.restlet.service.EncoderService;
 import org.restlet.service.MetadataService;
 import org.restlet.service.RangeService;
 import org.restlet.service.StatusService;
+import org.restlet.service.TagService;
 import org.restlet.service.TunnelService;
 import org.restlet.util.ServiceList;
 
@@ -57,6 +59,8 @@ import org.restlet.util.ServiceList;
  * Applications also have many useful services associated. Most are enabled by
  * default and are available as properties that can be eventually overridden:
  * <ul>
+ * <li>"cacheService" to cache responses and answer conditional requests
+ * (disabled by default).</li>
  * <li>"connectorService" to declare necessary client and server connectors.</li>
  * <li>"converterService" to convert between regular objects and
  * representations.</li>
@@ -68,6 +72,8 @@ import org.restlet.util.ServiceList;
  * extension names.</li>
  * <li>"rangeService" to automatically exposes ranges of response entities.</li>
  * <li>"statusService" to provide common representations for exception status.</li>
+ * <li>"tagService" to automatically compute entity tags (disabled by
+ * default).</li>
  * <li>"taskService" to run tasks asynchronously (disabled by default).</li>
  * <li>"tunnelService" to tunnel method names or client preferences via query
  * parameters.</li>
@@ -167,6 +173,8 @@ public class Application extends Restlet {
         this.services.add(new DecoderService());
         this.services.add(new EncoderService(false));
         this.services.add(new RangeService());
+        this.services.add(new CacheService(false));
+        this.services.add(new TagService(false));
         this.services.add(new ConnectorService());
         this.services.add(connegService);
         this.services.add(converterService);
@@ -204,6 +212,15 @@ public class Application extends Restlet {
         return getHelper().getFirstOutboundFilter();
     }
 
+    /**
+     * Returns the cache service. The service is disabled by default.
+     * 
+     * @return The cache service.
+     */
+    public CacheService getCacheService() {
+        return getServices().get(CacheService.class);
+    }
+
     /**
      * Returns the connector service. The service is enabled by default.
      * 
@@ -355,6 +372,15 @@ public class Application extends Restlet {
         return getServices().get(StatusService.class);
     }
 
+    /**
+     * Returns the tag service. The service is disabled by default.
+     * 
+     * @return The tag service.
+     */
+    public TagService getTagService() {
+        return getServices().get(TagService.class);
+    }
+
     /**
      * Returns the tunnel service. The service is enabled by default.
      * 
@@ -382,6 +408,16 @@ public class Application extends Restlet {
         return debugging;
     }
 
+    /**
+     * Sets the cache service.
+     * 
+     * @param cacheService
+     *            The cache service.
+     */
+    public void setCacheService(CacheService cacheService) {
+        getServices().set(cacheService);
+    }
+
     /**
      * Sets the connector service.
      * 
@@ -548,6 +584,16 @@ public class Application extends Restlet {
         getServices().set(statusService);
     }
 
+    /**
+     * Sets the tag service.
+     * 
+     * @param tagService
+     *            The tag service.
+     */
+    public void setTagService(TagService tagService) {
+        getServices().set(tagService);
+    }
+
     /**
      * Sets the task service.
      * 
@@ -24,6 +24,7 @@
 
 package org.restlet;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -31,6 +32,9 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.restlet.engine.Engine;
+import org.restlet.message.Request;
+import org.restlet.message.Response;
+import org.restlet.util.FanOut;
 import org.restlet.util.Parameter;
 import org.restlet.util.Series;
 import org.slf4j.Logger;
@@ -281,6 +285,23 @@ public class Context {
         return this.serverDispatcher;
     }
 
+    /**
+     * Dispatches several requests concurrently via the client dispatcher and
+     * the executor service, then waits for all of them. The pending calls are
+     * cancelled as soon as one of them fails.
+     * 
+     * @param requests
+     *            The requests to dispatch.
+     * @param timeout
+     *            The timeout in milliseconds of each call, or 0 for no
+     *            timeout.
+     * @return The responses, in the order of the requests.
+     * @see FanOut
+     */
+    public List<Response> handleAll(List<Request> requests, long timeout) {
+        return new FanOut(this, timeout).handle(requests);
+    }
+
     /**
      * Sets the modifiable map of attributes. This method clears the current map
      * and puts all entries in the parameter map.
@@ -44,6 +44,30 @@ import java.io.IOException;
  */
 public class ClientAdapter extends Adapter {
 
+    /**
+     * Name of the request attribute set while the response of an asynchronous
+     * call is expected on the request's callback. Filters wrapping the
+     * callback can rely on it to detect calls completed without any callback.
+     * Asynchronous Restlets other than client connectors can also set it to
+     * true until they invoke the callback.
+     */
+    public static final String ATTRIBUTE_RESPONSE_PENDING = "org.restlet.engine.adapter.responsePending";
+
+    /**
+     * Indicates if the response of an asynchronous call will be received later
+     * on the request's callback. It isn't the case when the call completed
+     * synchronously, for example when it failed before reaching the network or
+     * when it was handled in-process.
+     * 
+     * @param request
+     *            The request handled.
+     * @return True if the response will be received later on the callback.
+     */
+    public static boolean isResponsePending(Request request) {
+        return Boolean.TRUE.equals(request.getAttributes().get(
+                ATTRIBUTE_RESPONSE_PENDING));
+    }
+
     /**
      * Constructor.
      * 
@@ -74,26 +98,36 @@ public class ClientAdapter extends Adapter {
             // Check if the call is asynchronous
             if (request.isAsynchronous()) {
                 final Uniform userCallback = request.getOnResponse();
+                request.getAttributes().put(ATTRIBUTE_RESPONSE_PENDING,
+                        Boolean.TRUE);
 
                 // Send the request to the client
-                httpCall.sendRequest(request, response, new Uniform() {
-                    public void handle(Request request, Response response) {
-                        try {
-                            updateResponse(response,
-                                    new Status(httpCall.getStatusCode(),
-                                            httpCall.getReasonPhrase()),
-                                    httpCall);
-
-                            if (userCallback != null) {
-                                userCallback.handle(request, response);
+                try {
+                    httpCall.sendRequest(request, response, new Uniform() {
+                        public void handle(Request request, Response response) {
+                            request.getAttributes().remove(
+                                    ATTRIBUTE_RESPONSE_PENDING);
+
+                            try {
+                                updateResponse(response,
+                                        new Status(httpCall.getStatusCode(),
+                                                httpCall.getReasonPhrase()),
+                                        httpCall);
+
+                                if (userCallback != null) {
+                                    userCallback.handle(request, response);
+                                }
+                            } catch (Throwable t) {
+                                getLogger()
+                                        .warn("Unexpected error or exception inside the user call back",
+                                                t);
                             }
-                        } catch (Throwable t) {
-                            getLogger()
-                                    .warn("Unexpected error or exception inside the user call back",
-                                            t);
                         }
-                    }
-                });
+                    });
+                } catch (Exception e) {
+                    request.getAttributes().remove(ATTRIBUTE_RESPONSE_PENDING);
+                    throw e;
+                }
             } else {
                 updateResponse(response, httpCall.sendRequest(request), httpCall);
             }
@@ -297,6 +297,9 @@ public abstract class ClientCall extends Call {
     public void sendRequest(Request request, Response response,
             org.restlet.Uniform callback) throws Exception {
         Context.getCurrentLogger().warn("Currently callbacks are not available for this connector.");
+
+        // The callback won't be invoked
+        request.getAttributes().remove(ClientAdapter.ATTRIBUTE_RESPONSE_PENDING);
     }
 
     /**
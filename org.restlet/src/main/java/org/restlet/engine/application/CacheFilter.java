@@ -0,0 +1,321 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.application;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.restlet.Context;
+import org.restlet.engine.cache.CacheStore;
+import org.restlet.engine.cache.CacheUtils;
+import org.restlet.engine.cache.CachedResponse;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.util.LruCache;
+import org.restlet.message.Conditions;
+import org.restlet.message.Method;
+import org.restlet.message.Request;
+import org.restlet.message.Response;
+import org.restlet.message.Status;
+import org.restlet.representation.Representation;
+import org.restlet.routing.Filter;
+import org.restlet.service.CacheService;
+
+/**
+ * Filter serving responses from the cache of the {@link CacheService} and
+ * storing the cacheable responses of the next Restlet. Concurrent misses for
+ * the same response are collapsed, unless a recent response proved that it
+ * can't be stored, in which case they pass through directly.
+ * 
+ * @author Jerome Louvel
+ */
+public class CacheFilter extends Filter {
+
+    /** The maximum number of pass markers kept. */
+    private static final int MAX_PASSES = 1024;
+
+    /** The parent cache service. */
+    private final CacheService cacheService;
+
+    /** The latches of the misses being handled, by negotiation key. */
+    private final ConcurrentMap<String, CountDownLatch> pendingMisses;
+
+    /**
+     * The expiration times of the pass markers, by negotiation key, for
+     * responses that couldn't be stored.
+     */
+    private final LruCache<String, Long> passes;
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The context.
+     * @param cacheService
+     *            The parent cache service.
+     */
+    public CacheFilter(Context context, CacheService cacheService) {
+        super(context);
+        this.cacheService = cacheService;
+        this.pendingMisses = new ConcurrentHashMap<String, CountDownLatch>();
+        this.passes = new LruCache<String, Long>(MAX_PASSES);
+    }
+
+    @Override
+    protected int doHandle(Request request, Response response) {
+        if (!getCacheService().isEnabled()) {
+            return super.doHandle(request, response);
+        }
+
+        if (!CacheUtils.isCacheable(request)) {
+            int result = super.doHandle(request, response);
+
+            if (!request.getMethod().isSafe()
+                    && (response.getStatus().isSuccess() || response
+                            .getStatus().isRedirection())) {
+                invalidate(request, response);
+            }
+
+            return result;
+        }
+
+        CacheStore store = getCacheService().getStore();
+        String key = CacheUtils.getKey(request);
+
+        String negotiationKey = CacheUtils.getNegotiationKey(request);
+
+        if (!CacheUtils.isCacheUsable(request)) {
+            return handleMiss(request, response, key, negotiationKey);
+        }
+
+        CachedResponse cached = store.get(key, request);
+
+        if ((cached != null) && cached.serve(request, response)) {
+            return CONTINUE;
+        }
+
+        if (CacheUtils.getDirective(request.getCacheDirectives(),
+                HeaderConstants.CACHE_ONLY_IF_CACHED) != null) {
+            response.setStatus(Status.SERVER_ERROR_GATEWAY_TIMEOUT);
+            return CONTINUE;
+        }
+
+        if (isPassing(negotiationKey)) {
+            // Recently uncacheable, don't queue behind concurrent misses
+            return handleMiss(request, response, key, negotiationKey);
+        }
+
+        CountDownLatch latch = new CountDownLatch(1);
+        CountDownLatch pending = this.pendingMisses.putIfAbsent(
+                negotiationKey, latch);
+
+        if (pending != null) {
+            // Wait for the concurrent handling of the same response
+            try {
+                pending.await(getCacheService().getCollapsingTimeout(),
+                        TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            cached = store.get(key, request);
+
+            if ((cached != null) && cached.serve(request, response)) {
+                return CONTINUE;
+            }
+
+            return handleMiss(request, response, key, negotiationKey);
+        }
+
+        try {
+            return handleMiss(request, response, key, negotiationKey);
+        } finally {
+            this.pendingMisses.remove(negotiationKey, latch);
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Returns the parent cache service.
+     * 
+     * @return The parent cache service.
+     */
+    public CacheService getCacheService() {
+        return cacheService;
+    }
+
+    /**
+     * Handles a request that the cache can't answer and stores the response if
+     * possible. The conditions of GET requests are evaluated by the filter so
+     * that a complete response can be stored, unless a recent response to the
+     * same request couldn't be stored. In this case, the conditions are left to
+     * the resource.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     * @param key
+     *            The cache key.
+     * @param negotiationKey
+     *            The negotiation key.
+     * @return The continuation status.
+     */
+    private int handleMiss(Request request, Response response, String key,
+            String negotiationKey) {
+        Conditions conditions = request.getConditions();
+        boolean get = Method.GET.equals(request.getMethod());
+        boolean conditional = get && conditions.hasSome()
+                && !isPassing(negotiationKey);
+
+        if (conditional) {
+            request.setConditions(new Conditions());
+        }
+
+        int result;
+
+        try {
+            result = super.doHandle(request, response);
+        } finally {
+            if (conditional) {
+                request.setConditions(conditions);
+            }
+        }
+
+        if (store(request, response, key)) {
+            this.passes.remove(negotiationKey);
+        } else if (get && (conditional || !conditions.hasSome())
+                && (getCacheService().getPassDuration() > 0)) {
+            // Only a complete response to a GET tells if it can be stored
+            this.passes.put(negotiationKey, System.currentTimeMillis()
+                    + getCacheService().getPassDuration());
+        }
+
+        if (conditional && response.getStatus().isSuccess()
+                && (response.getEntity() != null)) {
+            Status status = conditions.getStatus(request.getMethod(),
+                    response.getEntity());
+
+            if (status != null) {
+                response.setStatus(status);
+
+                if (!Status.REDIRECTION_NOT_MODIFIED.equals(status)) {
+                    response.setEntity(null);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Indicates if the misses for a given negotiation key should pass through
+     * without being collapsed, as a recent response couldn't be stored.
+     * 
+     * @param negotiationKey
+     *            The negotiation key.
+     * @return True if the misses should pass through.
+     */
+    private boolean isPassing(String negotiationKey) {
+        Long expiration = this.passes.get(negotiationKey);
+
+        if (expiration == null) {
+            return false;
+        } else if (expiration.longValue() < System.currentTimeMillis()) {
+            this.passes.remove(negotiationKey);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes the responses cached for the target of an unsafe request and for
+     * the location of its response.
+     * 
+     * @param request
+     *            The request.
+     * @param response
+     *            The response.
+     */
+    private void invalidate(Request request, Response response) {
+        CacheStore store = getCacheService().getStore();
+        store.remove(CacheUtils.getKey(request));
+
+        if (response.getLocationRef() != null) {
+            store.remove(response.getLocationRef().getTargetRef()
+                    .toString(true, false));
+        }
+    }
+
+    /**
+     * Stores a response if it is cacheable. Its entity is read in memory and
+     * replaced by an equivalent one.
+     * 
+     * @param request
+     *            The request.
+     * @param response
+     *            The response to store.
+     * @param key
+     *            The cache key.
+     * @return True if the response was stored.
+     */
+    private boolean store(Request request, Response response, String key) {
+        if (!CacheUtils.isStorable(request, response, true)) {
+            return false;
+        }
+
+        try {
+            Representation entity = response.getEntity();
+            byte[] content = null;
+
+            if ((entity != null) && entity.isAvailable()) {
+                content = CacheUtils.toByteArray(entity, getCacheService()
+                        .getMaxEntrySize());
+
+                if (content == null) {
+                    return false;
+                }
+            }
+
+            CachedResponse cached = new CachedResponse(request, response,
+                    content, CacheUtils.getFreshnessLifetime(response, true));
+
+            if (content != null) {
+                entity.release();
+                response.setEntity(cached.createEntity(true));
+            }
+
+            getCacheService().getStore().put(key, cached);
+            return true;
+        } catch (IOException e) {
+            getLogger().warn("Unable to store a response in the cache", e);
+            return false;
+        }
+    }
+
+}
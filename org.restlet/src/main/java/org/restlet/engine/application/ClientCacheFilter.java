@@ -0,0 +1,293 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.application;
+
+import java.io.IOException;
+
+import org.restlet.Context;
+import org.restlet.Restlet;
+import org.restlet.engine.cache.CacheStore;
+import org.restlet.engine.cache.CacheUtils;
+import org.restlet.engine.cache.CachedResponse;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.message.Conditions;
+import org.restlet.message.Method;
+import org.restlet.message.Request;
+import org.restlet.message.Response;
+import org.restlet.message.Status;
+import org.restlet.representation.Representation;
+import org.restlet.routing.Filter;
+
+/**
+ * Filter caching the responses received by a client, following the HTTP
+ * caching rules for private caches. Fresh responses answer the following GET
+ * and HEAD requests without contacting the server. Stale responses with an
+ * entity tag or a modification date are revalidated with a conditional request
+ * and "304 Not Modified" responses are merged with the stored entity.<br>
+ * <br>
+ * It can be set as the next Restlet of a {@link org.restlet.resource.ClientResource}
+ * or placed in front of a {@link org.restlet.Client}:
+ * 
+ * <pre>
+ * ClientCacheFilter cache = new ClientCacheFilter(context, client);
+ * clientResource.setNext(cache);
+ * </pre>
+ * 
+ * Concurrency note: instances of this class are thread-safe and should be
+ * shared between the client resources calling the same services.
+ * 
+ * @author Jerome Louvel
+ */
+public class ClientCacheFilter extends Filter {
+
+    /** The default maximum size in bytes of a cached entity. */
+    public static final long DEFAULT_MAX_ENTRY_SIZE = 1024 * 1024;
+
+    /** The maximum size in bytes of a cached entity. */
+    private volatile long maxEntrySize;
+
+    /** The store of cached responses. */
+    private final CacheStore store;
+
+    /**
+     * Constructor.
+     */
+    public ClientCacheFilter() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The context.
+     */
+    public ClientCacheFilter(Context context) {
+        this(context, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The context.
+     * @param next
+     *            The next Restlet, typically a client connector.
+     */
+    public ClientCacheFilter(Context context, Restlet next) {
+        super(context, next);
+        this.maxEntrySize = DEFAULT_MAX_ENTRY_SIZE;
+        this.store = new CacheStore();
+    }
+
+    @Override
+    protected int doHandle(Request request, Response response) {
+        if (!CacheUtils.isCacheable(request)) {
+            int result = super.doHandle(request, response);
+
+            if (!request.getMethod().isSafe()
+                    && (response.getStatus().isSuccess() || response
+                            .getStatus().isRedirection())) {
+                invalidate(request, response);
+            }
+
+            return result;
+        }
+
+        String key = CacheUtils.getKey(request);
+        CachedResponse cached = CacheUtils.isCacheUsable(request) ? getStore()
+                .get(key, request) : null;
+
+        if ((cached != null) && cached.serve(request, response)) {
+            return CONTINUE;
+        }
+
+        if ((cached == null)
+                && (CacheUtils.getDirective(request.getCacheDirectives(),
+                        HeaderConstants.CACHE_ONLY_IF_CACHED) != null)) {
+            response.setStatus(Status.SERVER_ERROR_GATEWAY_TIMEOUT);
+            return CONTINUE;
+        }
+
+        if ((cached != null) && cached.hasEntity()
+                && Method.GET.equals(request.getMethod())
+                && !request.getConditions().hasSome()) {
+            return revalidate(request, response, key, cached);
+        }
+
+        int result = super.doHandle(request, response);
+        store(request, response, key);
+        return result;
+    }
+
+    /**
+     * Returns the maximum size in bytes of a cached entity. Larger entities are
+     * never stored. -1 means no limit.
+     * 
+     * @return The maximum size in bytes of a cached entity.
+     */
+    public long getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    /**
+     * Returns the store of cached responses, giving access to its memory and
+     * overflow limits.
+     * 
+     * @return The store of cached responses.
+     */
+    public CacheStore getStore() {
+        return store;
+    }
+
+    /**
+     * Removes the responses cached for the target of an unsafe request and for
+     * the location of its response.
+     * 
+     * @param request
+     *            The request.
+     * @param response
+     *            The response.
+     */
+    private void invalidate(Request request, Response response) {
+        getStore().remove(CacheUtils.getKey(request));
+
+        if (response.getLocationRef() != null) {
+            getStore().remove(
+                    response.getLocationRef().getTargetRef()
+                            .toString(true, false));
+        }
+    }
+
+    /**
+     * Revalidates a stale cached response with a conditional request based on
+     * its entity tag and modification date.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     * @param key
+     *            The cache key.
+     * @param cached
+     *            The stale cached response.
+     * @return The continuation status.
+     */
+    private int revalidate(Request request, Response response, String key,
+            CachedResponse cached) {
+        Conditions conditions = request.getConditions();
+        Conditions validation = new Conditions();
+
+        if (cached.getTag() != null) {
+            validation.getNoneMatch().add(cached.getTag());
+        } else {
+            validation.setModifiedSince(cached.getModificationDate());
+        }
+
+        int result;
+        request.setConditions(validation);
+
+        try {
+            result = super.doHandle(request, response);
+        } finally {
+            request.setConditions(conditions);
+        }
+
+        if (Status.REDIRECTION_NOT_MODIFIED.equals(response.getStatus())) {
+            try {
+                CachedResponse updated = cached.update(request, response,
+                        false);
+                updated.applyTo(response, true);
+                getStore().put(key, updated);
+            } catch (IOException e) {
+                // The stored content is lost, send the request again
+                getLogger().debug("Unable to read a cached response", e);
+                getStore().remove(key);
+                response.setEntity(null);
+                response.getHeaders().clear();
+                result = super.doHandle(request, response);
+                store(request, response, key);
+            }
+        } else {
+            store(request, response, key);
+        }
+
+        return result;
+    }
+
+    /**
+     * Sets the maximum size in bytes of a cached entity. -1 means no limit.
+     * 
+     * @param maxEntrySize
+     *            The maximum size in bytes of a cached entity.
+     */
+    public void setMaxEntrySize(long maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    /**
+     * Stores a response if it is cacheable. Its entity is read in memory and
+     * replaced by an equivalent one.
+     * 
+     * @param request
+     *            The request.
+     * @param response
+     *            The response to store.
+     * @param key
+     *            The cache key.
+     */
+    private void store(Request request, Response response, String key) {
+        if (!CacheUtils.isStorable(request, response, false)) {
+            return;
+        }
+
+        try {
+            Representation entity = response.getEntity();
+            byte[] content = null;
+
+            if ((entity != null) && entity.isAvailable()) {
+                content = CacheUtils.toByteArray(entity, getMaxEntrySize());
+
+                if (content == null) {
+                    return;
+                }
+            }
+
+            CachedResponse cached = new CachedResponse(request, response,
+                    content, Math.max(0,
+                            CacheUtils.getFreshnessLifetime(response, false)));
+
+            if (content != null) {
+                entity.release();
+                response.setEntity(cached.createEntity(true));
+            }
+
+            getStore().put(key, cached);
+        } catch (IOException e) {
+            getLogger().warn("Unable to store a response in the cache", e);
+        }
+    }
+
+}
@@ -50,6 +50,12 @@ import org.restlet.routing.Filter;
  * corsFilter.setAllowedCredentials(true);
  * </pre>
  * 
+ * The settings are compiled for fast lookups on the first request, and
+ * compiled again when they change, including through the sets returned by the
+ * getters. When {@link #isSkippingResourceForCorsOptions()} is true,
+ * preflight requests are answered by the filter itself, and their outcomes are
+ * cached by origin, requested method and requested headers.
+ * 
  * @author Manuel Boillod
  */
 public class CorsFilter extends Filter {
@@ -76,7 +82,7 @@ public class CorsFilter extends Filter {
     private Set<String> allowedOrigins = SetUtils.newHashSet("*");
 
     /** Helper for generating CORS response. */
-    private CorsResponseHelper corsResponseHelper;
+    private volatile CorsResponseHelper corsResponseHelper;
 
     /**
      * The set of methods allowed by default, used when {@link #skippingResourceForCorsOptions} is turned on. By
@@ -142,7 +148,7 @@ public class CorsFilter extends Filter {
 
     /**
      * Skip the call to the server resource if the {@link #skippingResourceForCorsOptions} is true and if the current
-     * request use the OPTIONS method and is a CORS request.
+     * request use the OPTIONS method and is a CORS request. The preflight response is then fully built by the filter.
      * 
      * @param request
      *            The request to handle.
@@ -154,8 +160,9 @@ public class CorsFilter extends Filter {
         if (skippingResourceForCorsOptions
                 && Method.OPTIONS.equals(request.getMethod())
                 && getCorsResponseHelper().isCorsRequest(request)) {
-            response.setAllowedMethods(getDefaultAllowedMethods());
-            return Filter.SKIP;
+            getCorsResponseHelper().answerPreflight(request, response,
+                    getDefaultAllowedMethods());
+            return Filter.STOP;
         } else {
             return Filter.CONTINUE;
         }
@@ -190,17 +197,26 @@ public class CorsFilter extends Filter {
      * Returns a lazy-initialized instance of {@link org.restlet.engine.application.CorsResponseHelper}.
      */
     protected CorsResponseHelper getCorsResponseHelper() {
-        if (corsResponseHelper == null) {
-            corsResponseHelper = new CorsResponseHelper();
-            corsResponseHelper.setAllowedCredentials(allowedCredentials);
-            corsResponseHelper.setAllowedOrigins(allowedOrigins);
-            corsResponseHelper
-                    .setAllowAllRequestedHeaders(allowAllRequestedHeaders);
-            corsResponseHelper.setAllowedHeaders(allowedHeaders);
-            corsResponseHelper.setExposedHeaders(exposedHeaders);
-            corsResponseHelper.setMaxAge(maxAge);
+        CorsResponseHelper result = corsResponseHelper;
+
+        if ((result != null)
+                && (result.isAllowAllRequestedHeaders() != allowAllRequestedHeaders)) {
+            // The public field was directly updated
+            result = null;
         }
-        return corsResponseHelper;
+
+        if (result == null) {
+            result = new CorsResponseHelper();
+            result.setAllowedCredentials(allowedCredentials);
+            result.setAllowedOrigins(allowedOrigins);
+            result.setAllowAllRequestedHeaders(allowAllRequestedHeaders);
+            result.setAllowedHeaders(allowedHeaders);
+            result.setExposedHeaders(exposedHeaders);
+            result.setMaxAge(maxAge);
+            corsResponseHelper = result;
+        }
+
+        return result;
     }
 
     /**
@@ -276,6 +292,7 @@ public class CorsFilter extends Filter {
      */
     public CorsFilter setAllowedCredentials(boolean allowedCredentials) {
         this.allowedCredentials = allowedCredentials;
+        this.corsResponseHelper = null;
         return this;
     }
 
@@ -289,6 +306,7 @@ public class CorsFilter extends Filter {
      */
     public CorsFilter setAllowedHeaders(Set<String> allowedHeaders) {
         this.allowedHeaders = allowedHeaders;
+        this.corsResponseHelper = null;
         return this;
     }
 
@@ -301,6 +319,7 @@ public class CorsFilter extends Filter {
      */
     public CorsFilter setAllowedOrigins(Set<String> allowedOrigins) {
         this.allowedOrigins = allowedOrigins;
+        this.corsResponseHelper = null;
         return this;
     }
 
@@ -318,6 +337,7 @@ public class CorsFilter extends Filter {
     public CorsFilter setAllowingAllRequestedHeaders(
             boolean allowingAllRequestedHeaders) {
         this.allowAllRequestedHeaders = allowingAllRequestedHeaders;
+        this.corsResponseHelper = null;
         return this;
     }
 
@@ -330,6 +350,7 @@ public class CorsFilter extends Filter {
      */
     public CorsFilter setDefaultAllowedMethods(Set<Method> defaultAllowedMethods) {
         this.defaultAllowedMethods = defaultAllowedMethods;
+        this.corsResponseHelper = null;
         return this;
     }
 
@@ -342,6 +363,7 @@ public class CorsFilter extends Filter {
      */
     public CorsFilter setExposedHeaders(Set<String> exposedHeaders) {
         this.exposedHeaders = exposedHeaders;
+        this.corsResponseHelper = null;
         return this;
     }
 
@@ -354,6 +376,7 @@ public class CorsFilter extends Filter {
      */
     public CorsFilter setMaxAge(int maxAge) {
         this.maxAge = maxAge;
+        this.corsResponseHelper = null;
         return this;
     }
 
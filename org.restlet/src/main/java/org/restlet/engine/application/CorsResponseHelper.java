@@ -24,10 +24,17 @@
 
 package org.restlet.engine.application;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.restlet.Context;
+import org.restlet.engine.util.LruCache;
 import org.restlet.engine.util.SetUtils;
 import org.restlet.message.Method;
 import org.restlet.message.Request;
@@ -41,6 +48,13 @@ import org.slf4j.Logger;
  * GET and POST. Any other methods should send a preflight request with the
  * method OPTIONS.
  * 
+ * <br>
+ * The settings are compiled into immutable lookup structures the first time
+ * they are needed, and compiled again when the properties or the content of
+ * the sets they refer to change. Allowed origins containing
+ * a "*" wildcard, such as "https://*.example.com", are compiled into patterns
+ * matching any sequence of characters other than "/".
+ * 
  * @see <a href="http://www.w3.org/TR/cors">W3C CORS Specification</a>
  * @see <a href="http://www.w3.org/TR/cors/#simple-method">Simple methods</a>
  * 
@@ -48,6 +62,240 @@ import org.slf4j.Logger;
  */
 public class CorsResponseHelper {
 
+    /**
+     * Immutable outcome of a preflight request, replayed on the responses to
+     * identical preflight requests.
+     */
+    private static class Preflight {
+
+        /** The allowed credentials or null. */
+        private final Boolean allowCredentials;
+
+        /** The allowed headers. */
+        private final Set<String> allowHeaders;
+
+        /** The allowed methods. */
+        private final Set<Method> allowMethods;
+
+        /** The allowed origin or null. */
+        private final String allowOrigin;
+
+        /** The maximum age. */
+        private final int maxAge;
+
+        /** The response status. */
+        private final Status status;
+
+        /**
+         * Constructor.
+         * 
+         * @param response
+         *            The response to the preflight request.
+         */
+        public Preflight(Response response) {
+            this.allowCredentials = response.getAccessControlAllowCredentials();
+            this.allowHeaders = new HashSet<>(
+                    response.getAccessControlAllowHeaders());
+            this.allowMethods = new HashSet<>(
+                    response.getAccessControlAllowMethods());
+            this.allowOrigin = response.getAccessControlAllowOrigin();
+            this.maxAge = response.getAccessControlMaxAge();
+            this.status = response.getStatus();
+        }
+
+        /**
+         * Updates a response to a preflight request.
+         * 
+         * @param response
+         *            The response to update.
+         */
+        public void applyTo(Response response) {
+            response.setStatus(this.status);
+            response.getAllowedMethods().clear();
+
+            if (!this.allowMethods.isEmpty()) {
+                response.setAccessControlAllowMethods(this.allowMethods);
+            }
+
+            if (!this.allowHeaders.isEmpty()) {
+                response.setAccessControlAllowHeaders(this.allowHeaders);
+            }
+
+            if (this.maxAge > 0) {
+                response.setAccessControlMaxAge(this.maxAge);
+            }
+
+            if (this.allowCredentials != null) {
+                response.setAccessControlAllowCredentials(this.allowCredentials);
+            }
+
+            if (this.allowOrigin != null) {
+                response.setAccessControlAllowOrigin(this.allowOrigin);
+            }
+        }
+    }
+
+    /** Settings compiled into immutable lookup structures. */
+    private static class Settings {
+
+        /** Indicates if any origin is allowed. */
+        private final boolean anyOrigin;
+
+        /** The compiled value of {@link #allowAllRequestedHeaders}. */
+        private final boolean compiledAllowAllRequestedHeaders;
+
+        /** The compiled value of {@link #allowedCredentials}. */
+        private final boolean compiledAllowedCredentials;
+
+        /** A copy of the compiled {@link #allowedHeaders} or null. */
+        private final Set<String> compiledAllowedHeaders;
+
+        /** A copy of the compiled {@link #allowedOrigins} or null. */
+        private final Set<String> compiledAllowedOrigins;
+
+        /** A copy of the compiled {@link #exposedHeaders} or null. */
+        private final Set<String> compiledExposedHeaders;
+
+        /** The compiled value of {@link #maxAge}. */
+        private final int compiledMaxAge;
+
+        /** The lower-case allowed headers or null. */
+        private final Set<String> allowedHeaders;
+
+        /** The exposed headers or null if none. */
+        private final Set<String> exposedHeaders;
+
+        /** The patterns of allowed origins containing wildcards. */
+        private final Pattern[] originPatterns;
+
+        /** The allowed origins without wildcard. */
+        private final Set<String> origins;
+
+        /** The cached preflight outcomes. */
+        private final LruCache<String, Preflight> preflights;
+
+        /**
+         * Constructor.
+         * 
+         * @param helper
+         *            The helper to compile.
+         */
+        public Settings(CorsResponseHelper helper) {
+            this.compiledAllowAllRequestedHeaders = helper.allowAllRequestedHeaders;
+            this.compiledAllowedCredentials = helper.allowedCredentials;
+            this.compiledAllowedHeaders = copy(helper.allowedHeaders);
+            this.compiledAllowedOrigins = copy(helper.allowedOrigins);
+            this.compiledExposedHeaders = copy(helper.exposedHeaders);
+            this.compiledMaxAge = helper.maxAge;
+
+            Set<String> allowedOrigins = (helper.allowedOrigins == null) ? Collections
+                    .<String> emptySet() : helper.allowedOrigins;
+            List<Pattern> patterns = new ArrayList<>();
+            this.anyOrigin = allowedOrigins.contains("*");
+            this.origins = new HashSet<>();
+
+            for (String origin : allowedOrigins) {
+                if (origin.indexOf('*') == -1) {
+                    this.origins.add(origin);
+                } else if (!"*".equals(origin)) {
+                    patterns.add(Pattern.compile(Pattern.quote(origin)
+                            .replace("*", "\\E[^/]*\\Q")));
+                }
+            }
+
+            this.originPatterns = patterns.toArray(new Pattern[patterns.size()]);
+
+            if (helper.allowedHeaders == null) {
+                this.allowedHeaders = null;
+            } else {
+                this.allowedHeaders = new HashSet<>();
+
+                for (String header : helper.allowedHeaders) {
+                    this.allowedHeaders.add(header.toLowerCase(Locale.ROOT));
+                }
+            }
+
+            this.exposedHeaders = ((helper.exposedHeaders == null) || helper.exposedHeaders
+                    .isEmpty()) ? null : Collections
+                    .unmodifiableSet(new HashSet<>(helper.exposedHeaders));
+            this.preflights = new LruCache<>(DEFAULT_PREFLIGHT_CACHE_SIZE);
+        }
+
+        /**
+         * Returns a copy of a set.
+         * 
+         * @param set
+         *            The set to copy or null.
+         * @return The copy or null.
+         */
+        private static Set<String> copy(Set<String> set) {
+            return (set == null) ? null : new HashSet<>(set);
+        }
+
+        /**
+         * Indicates if all the requested headers are allowed
+         * (case-insensitive).
+         * 
+         * @param requestedHeaders
+         *            The requested headers.
+         * @return True if all the requested headers are allowed.
+         */
+        public boolean isAllHeadersAllowed(Set<String> requestedHeaders) {
+            for (String requestedHeader : requestedHeaders) {
+                if (!this.allowedHeaders.contains(requestedHeader
+                        .toLowerCase(Locale.ROOT))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Indicates if the settings were compiled from the current properties
+         * of a helper.
+         * 
+         * @param helper
+         *            The helper.
+         * @return True if the settings are still current.
+         */
+        public boolean isCurrent(CorsResponseHelper helper) {
+            return (this.compiledAllowAllRequestedHeaders == helper.allowAllRequestedHeaders)
+                    && (this.compiledAllowedCredentials == helper.allowedCredentials)
+                    && (this.compiledMaxAge == helper.maxAge)
+                    && Objects.equals(this.compiledAllowedOrigins,
+                            helper.allowedOrigins)
+                    && Objects.equals(this.compiledAllowedHeaders,
+                            helper.allowedHeaders)
+                    && Objects.equals(this.compiledExposedHeaders,
+                            helper.exposedHeaders);
+        }
+
+        /**
+         * Indicates if an origin is allowed.
+         * 
+         * @param origin
+         *            The origin.
+         * @return True if the origin is allowed.
+         */
+        public boolean isOriginAllowed(String origin) {
+            if (this.anyOrigin || this.origins.contains(origin)) {
+                return true;
+            }
+
+            for (Pattern pattern : this.originPatterns) {
+                if (pattern.matcher(origin).matches()) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    /** The maximum number of cached preflight outcomes. */
+    public static final int DEFAULT_PREFLIGHT_CACHE_SIZE = 256;
+
     private static Logger LOGGER = Context.getCurrentLogger();
 
     /**
@@ -77,6 +325,9 @@ public class CorsResponseHelper {
     /** The value of 'Access-Control-Max-Age' response header. Default is that the header is not set. */
     public int maxAge = -1;
 
+    /** The compiled settings, null when they must be compiled. */
+    private volatile Settings settings;
+
     /**
      * Adds CORS headers to the given response.
      * 
@@ -94,11 +345,12 @@ public class CorsResponseHelper {
             return;
         }
 
+        Settings settings = getSettings();
         Set<Method> allowedMethods = new HashSet<>(response.getAllowedMethods());
         // Header 'Allow' is not relevant in CORS request.
         response.getAllowedMethods().clear();
 
-        if (!allowedOrigins.contains("*") && !allowedOrigins.contains(origin)) {
+        if (!settings.isOriginAllowed(origin)) {
             // Origin not allowed
             LOGGER.debug("Origin " + origin + " not allowed for CORS request");
             return;
@@ -150,8 +402,8 @@ public class CorsResponseHelper {
             }
 
             if (!allowAllRequestedHeaders
-                    && (allowedHeaders == null || !isAllHeadersAllowed(
-                            allowedHeaders, requestedHeaders))) {
+                    && (settings.allowedHeaders == null || !settings
+                            .isAllHeadersAllowed(requestedHeaders))) {
                 // Headers not allowed
                 LOGGER.debug("The CORS preflight request ask for headers not allowed in header 'Access-Control-Request-Headers'");
                 return;
@@ -170,8 +422,8 @@ public class CorsResponseHelper {
             // simple request
 
             // Header 'Access-Control-Expose-Headers'
-            if (exposedHeaders != null && !exposedHeaders.isEmpty()) {
-                response.setAccessControlExposeHeaders(exposedHeaders);
+            if (settings.exposedHeaders != null) {
+                response.setAccessControlExposeHeaders(settings.exposedHeaders);
             }
         }
 
@@ -181,13 +433,45 @@ public class CorsResponseHelper {
         }
 
         // Header 'Access-Control-Allow-Origin'
-        if (!allowedCredentials && allowedOrigins.contains("*")) {
+        if (!allowedCredentials && settings.anyOrigin) {
             response.setAccessControlAllowOrigin("*");
         } else {
             response.setAccessControlAllowOrigin(origin);
         }
     }
 
+    /**
+     * Answers a CORS preflight request without invoking the target resource.
+     * The outcome is computed once for each origin, requested method and
+     * requested headers, then replayed until the settings change.
+     * 
+     * @param request
+     *            The preflight request.
+     * @param response
+     *            The response to update.
+     * @param allowedMethods
+     *            The methods allowed on all resources. Must not change while
+     *            the outcomes are cached.
+     */
+    public void answerPreflight(Request request, Response response,
+            Set<Method> allowedMethods) {
+        Settings settings = getSettings();
+        String key = request.getHeaders().getFirstValue("Origin", true) + '\n'
+                + request.getAccessControlRequestMethod() + '\n'
+                + request.getAccessControlRequestHeaders();
+        Preflight preflight = settings.preflights.get(key);
+
+        if (preflight == null) {
+            Response prototype = new Response(request);
+            prototype.setAllowedMethods(allowedMethods);
+            addCorsResponseHeaders(request, prototype);
+            preflight = new Preflight(prototype);
+            settings.preflights.put(key, preflight);
+        }
+
+        preflight.applyTo(response);
+    }
+
     /**
      * Returns the modifiable set of headers allowed by the actual request on
      * the current resource.<br>
@@ -238,29 +522,19 @@ public class CorsResponseHelper {
     }
 
     /**
-     * Returns true if all requested headers are allowed (case-insensitive).
+     * Returns the compiled settings, compiling them again if the properties
+     * changed since they were last compiled.
      * 
-     * @param allowHeaders
-     *            The allowed headers.
-     * @param requestedHeaders
-     *            The requested headers.
-     * @return True if all requested headers are allowed (case-insensitive).
+     * @return The compiled settings.
      */
-    private boolean isAllHeadersAllowed(Set<String> allowHeaders,
-            Set<String> requestedHeaders) {
-        for (String requestedHeader : requestedHeaders) {
-            boolean headerAllowed = false;
-            for (String allowHeader : allowHeaders) {
-                if (allowHeader.equalsIgnoreCase(requestedHeader)) {
-                    headerAllowed = true;
-                    break;
-                }
-            }
-            if (!headerAllowed) {
-                return false;
-            }
+    private Settings getSettings() {
+        Settings result = this.settings;
+
+        if ((result == null) || !result.isCurrent(this)) {
+            this.settings = result = new Settings(this);
         }
-        return true;
+
+        return result;
     }
 
     /**
@@ -306,6 +580,7 @@ public class CorsResponseHelper {
     public void setAllowAllRequestedHeaders(
             boolean allowAllRequestedHeaders) {
         this.allowAllRequestedHeaders = allowAllRequestedHeaders;
+        this.settings = null;
     }
 
     /**
@@ -316,6 +591,7 @@ public class CorsResponseHelper {
      */
     public void setAllowedCredentials(boolean allowedCredentials) {
         this.allowedCredentials = allowedCredentials;
+        this.settings = null;
     }
 
     /**
@@ -327,6 +603,7 @@ public class CorsResponseHelper {
      */
     public void setAllowedHeaders(Set<String> allowedHeaders) {
         this.allowedHeaders = allowedHeaders;
+        this.settings = null;
     }
 
     /**
@@ -337,6 +614,7 @@ public class CorsResponseHelper {
      */
     public void setAllowedOrigins(Set<String> allowedOrigins) {
         this.allowedOrigins = allowedOrigins;
+        this.settings = null;
     }
 
     /**
@@ -347,6 +625,7 @@ public class CorsResponseHelper {
      */
     public void setExposedHeaders(Set<String> exposedHeaders) {
         this.exposedHeaders = exposedHeaders;
+        this.settings = null;
     }
 
     /**
@@ -358,7 +637,7 @@ public class CorsResponseHelper {
      */
     public void setMaxAge(int maxAge) {
         this.maxAge = maxAge;
-
+        this.settings = null;
     }
 
 }
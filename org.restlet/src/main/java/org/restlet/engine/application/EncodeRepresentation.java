@@ -32,13 +32,17 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import org.restlet.engine.io.BufferPool;
 import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.util.Pool;
 import org.restlet.representation.Disposition;
 import org.restlet.representation.Encoding;
 import org.restlet.representation.Representation;
@@ -51,6 +55,39 @@ import org.restlet.util.WrapperRepresentation;
  * @author Jerome Louvel
  */
 public class EncodeRepresentation extends WrapperRepresentation {
+    /** The pool of deflaters producing zlib wrapped data. */
+    private static final Pool<Deflater> DEFLATERS = createDeflaterPool(false);
+
+    /** The pool of deflaters producing raw deflate data. */
+    private static final Pool<Deflater> NOWRAP_DEFLATERS = createDeflaterPool(true);
+
+    /**
+     * Creates a bounded pool of deflaters, reset when checked in.
+     * 
+     * @param nowrap
+     *            Indicates if the zlib header and checksum are omitted.
+     * @return A new pool of deflaters.
+     */
+    private static Pool<Deflater> createDeflaterPool(final boolean nowrap) {
+        return new Pool<Deflater>() {
+            @Override
+            protected void clear(Deflater object) {
+                object.reset();
+            }
+
+            @Override
+            protected Deflater createObject() {
+                return new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+            }
+
+            @Override
+            protected Queue<Deflater> createStore() {
+                return new ArrayBlockingQueue<Deflater>(Math.max(1,
+                        BufferPool.CAPACITY));
+            }
+        };
+    }
+
     /**
      * Returns the list of supported encodings.
      * 
@@ -242,14 +279,15 @@ public class EncodeRepresentation extends WrapperRepresentation {
     public void write(OutputStream outputStream) throws IOException {
         if (canEncode()) {
             DeflaterOutputStream encoderOutputStream = null;
+            Pool<Deflater> deflaters = null;
+            Deflater deflater = null;
 
             if (this.encoding.equals(Encoding.GZIP)) {
                 encoderOutputStream = new GZIPOutputStream(outputStream);
             } else if (this.encoding.equals(Encoding.DEFLATE)) {
-                encoderOutputStream = new DeflaterOutputStream(outputStream);
+                deflaters = DEFLATERS;
             } else if (this.encoding.equals(Encoding.DEFLATE_NOWRAP)) {
-                encoderOutputStream = new DeflaterOutputStream(outputStream,
-                        new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+                deflaters = NOWRAP_DEFLATERS;
             } else if (this.encoding.equals(Encoding.ZIP)) {
                 final ZipOutputStream stream = new ZipOutputStream(outputStream);
                 String name = "entry";
@@ -268,10 +306,30 @@ public class EncodeRepresentation extends WrapperRepresentation {
                 // Encoder unnecessary for identity encoding
             }
 
+            if (deflaters != null) {
+                deflater = deflaters.checkout();
+                encoderOutputStream = new DeflaterOutputStream(outputStream,
+                        deflater);
+            }
+
             if (encoderOutputStream != null) {
-                getWrappedRepresentation().write(encoderOutputStream);
-                encoderOutputStream.flush();
-                encoderOutputStream.finish();
+                boolean finished = false;
+
+                try {
+                    getWrappedRepresentation().write(encoderOutputStream);
+                    encoderOutputStream.flush();
+                    encoderOutputStream.finish();
+                    finished = true;
+                } finally {
+                    if (deflater != null) {
+                        if (finished) {
+                            deflaters.checkin(deflater);
+                        } else {
+                            // The deflater state is unknown, release it
+                            deflater.end();
+                        }
+                    }
+                }
             } else {
                 getWrappedRepresentation().write(outputStream);
             }
@@ -0,0 +1,203 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.application;
+
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+
+import org.restlet.Context;
+import org.restlet.engine.cache.CacheUtils;
+import org.restlet.engine.util.Base64;
+import org.restlet.message.Conditions;
+import org.restlet.message.Method;
+import org.restlet.message.Request;
+import org.restlet.message.Response;
+import org.restlet.message.Status;
+import org.restlet.representation.BufferingRepresentation;
+import org.restlet.representation.DigesterRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.routing.Filter;
+import org.restlet.service.TagService;
+import org.restlet.util.Tag;
+
+/**
+ * Filter adding computed entity tags to the responses of the next Restlet.
+ * 
+ * @author Jerome Louvel
+ */
+public class TagFilter extends Filter {
+
+    /**
+     * Representation whose content was already buffered while its digest was
+     * computed.
+     */
+    private static class DigestedRepresentation extends
+            BufferingRepresentation {
+
+        /**
+         * Constructor.
+         * 
+         * @param digestedRepresentation
+         *            The digested representation.
+         * @param content
+         *            The buffered content.
+         */
+        public DigestedRepresentation(Representation digestedRepresentation,
+                byte[] content) {
+            super(digestedRepresentation);
+            setBuffer(content);
+            setBuffered(true);
+        }
+
+    }
+
+    /** The parent tag service. */
+    private final TagService tagService;
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The context.
+     * @param tagService
+     *            The parent tag service.
+     */
+    public TagFilter(Context context, TagService tagService) {
+        super(context);
+        this.tagService = tagService;
+    }
+
+    /**
+     * Tags the response entity if needed and evaluates the request conditions
+     * against the tag.
+     */
+    @Override
+    protected void afterHandle(Request request, Response response) {
+        Method method = request.getMethod();
+        Representation entity = response.getEntity();
+
+        if (!getTagService().isEnabled()
+                || !(Method.GET.equals(method) || Method.HEAD.equals(method))
+                || !Status.SUCCESS_OK.equals(response.getStatus())
+                || (entity == null) || !entity.isAvailable()
+                || (entity.getTag() != null)) {
+            return;
+        }
+
+        String key = getKey(request, entity);
+        Tag tag = (key == null) ? null : getTagService().getCachedTag(key);
+
+        if (tag == null) {
+            tag = digest(response, entity);
+
+            if (tag == null) {
+                return;
+            }
+
+            if (key != null) {
+                getTagService().putCachedTag(key, tag);
+            }
+        }
+
+        entity.setTag(tag);
+        Conditions conditions = request.getConditions();
+
+        if (conditions.hasSome()) {
+            Status status = conditions.getStatus(method, response.getEntity());
+
+            if (status != null) {
+                response.setStatus(status);
+
+                if (!Status.REDIRECTION_NOT_MODIFIED.equals(status)) {
+                    response.setEntity(null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the tag of an entity by buffering its content. The response
+     * entity is replaced by a buffered one.
+     * 
+     * @param response
+     *            The response.
+     * @param entity
+     *            The entity to digest.
+     * @return The computed tag or null if the entity can't be buffered.
+     */
+    private Tag digest(Response response, Representation entity) {
+        try {
+            DigesterRepresentation digester = new DigesterRepresentation(
+                    entity, getTagService().getAlgorithm());
+            byte[] content = CacheUtils.toByteArray(digester, getTagService()
+                    .getMaxEntitySize());
+
+            if (content == null) {
+                return null;
+            }
+
+            response.setEntity(new DigestedRepresentation(entity, content));
+            return new Tag(Base64.encode(digester.getComputedDigest()
+                    .getValue(), false), false);
+        } catch (NoSuchAlgorithmException e) {
+            getLogger().warn("Unable to compute entity tags", e);
+        } catch (IOException e) {
+            getLogger().debug("Unable to compute an entity tag", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the key of an entity version in the tag cache or null if the
+     * entity has no modification date.
+     * 
+     * @param request
+     *            The request.
+     * @param entity
+     *            The entity.
+     * @return The key of the entity version or null.
+     */
+    private String getKey(Request request, Representation entity) {
+        if (entity.getModificationDate() == null) {
+            return null;
+        }
+
+        return CacheUtils.getKey(request) + '\n' + entity.getMediaType()
+                + '\n' + entity.getCharacterSet() + '\n'
+                + entity.getLanguages() + '\n' + entity.getEncodings() + '\n'
+                + entity.getModificationDate().getTime();
+    }
+
+    /**
+     * Returns the parent tag service.
+     * 
+     * @return The parent tag service.
+     */
+    public TagService getTagService() {
+        return tagService;
+    }
+
+}
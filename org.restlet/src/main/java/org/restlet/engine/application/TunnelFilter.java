@@ -55,6 +55,7 @@ import org.restlet.routing.Filter;
 import org.restlet.service.MetadataService;
 import org.restlet.service.TunnelService;
 import org.restlet.util.Form;
+import org.restlet.util.FormView;
 import org.restlet.util.Header;
 import org.restlet.util.Reference;
 import org.restlet.util.Series;
@@ -437,6 +438,36 @@ public class TunnelFilter extends Filter {
         }
     }
 
+    /**
+     * Indicates if the query contains at least one parameter tunnelling the
+     * request method or the client preferences, without copying it.
+     * 
+     * @param query
+     *            The query view.
+     * @return True if the query contains at least one tunnel parameter.
+     */
+    private boolean isTunnelled(FormView query) {
+        TunnelService tunnelService = getTunnelService();
+        boolean result = false;
+
+        if (tunnelService.isMethodTunnel()) {
+            result = query.indexOf(tunnelService.getMethodParameter(), false) != -1;
+        }
+
+        if (!result && tunnelService.isPreferencesTunnel()) {
+            result = (query.indexOf(tunnelService.getCharacterSetParameter(),
+                    false) != -1)
+                    || (query.indexOf(tunnelService.getEncodingParameter(),
+                            false) != -1)
+                    || (query.indexOf(tunnelService.getLanguageParameter(),
+                            false) != -1)
+                    || (query.indexOf(tunnelService.getMediaTypeParameter(),
+                            false) != -1);
+        }
+
+        return result;
+    }
+
     /**
      * Updates the request method and client preferences based on query
      * parameters. The matched parameters are removed from the query.
@@ -450,7 +481,8 @@ public class TunnelFilter extends Filter {
         boolean queryModified = false;
         Reference resourceRef = request.getResourceRef();
 
-        if (resourceRef.hasQuery()) {
+        if (resourceRef.hasQuery()
+                && isTunnelled(resourceRef.getQueryView(CharacterSet.UTF_8))) {
             Form query = resourceRef.getQueryAsForm(CharacterSet.UTF_8);
 
             // Tunnel the request method
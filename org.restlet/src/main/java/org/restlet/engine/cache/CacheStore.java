@@ -0,0 +1,457 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.cache;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.message.Request;
+
+/**
+ * Bounded store of cached responses. Responses are grouped by cache key, each
+ * key holding the variants negotiated for different client preferences. The
+ * least recently used keys are evicted when the maximum number of keys or the
+ * maximum memory size is exceeded. If an overflow directory is set, evicted
+ * responses are moved to files, from which they are loaded back on the next
+ * hit.
+ * 
+ * @author Jerome Louvel
+ */
+public class CacheStore {
+
+    /** The default maximum number of cache keys held in memory. */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /** The default maximum size in bytes of the content held in memory. */
+    public static final long DEFAULT_MAX_MEMORY_SIZE = 32L * 1024 * 1024;
+
+    /** The default maximum number of cache keys held in overflow files. */
+    public static final int DEFAULT_MAX_OVERFLOW_ENTRIES = 10000;
+
+    /** The access-ordered map of cache keys held in memory. */
+    private final LinkedHashMap<String, CachedResponse[]> entries;
+
+    /** The maximum number of cache keys held in memory. */
+    private volatile int maxEntries;
+
+    /** The maximum size in bytes of the content held in memory. */
+    private volatile long maxMemorySize;
+
+    /** The maximum number of cache keys held in overflow files. */
+    private volatile int maxOverflowEntries;
+
+    /** The size in bytes of the content held in memory. */
+    private long memorySize;
+
+    /** The overflow directory or null. */
+    private volatile File overflowDirectory;
+
+    /** The access-ordered map of cache keys held in overflow files. */
+    private final LinkedHashMap<String, CachedResponse[]> overflowEntries;
+
+    /**
+     * Constructor.
+     */
+    public CacheStore() {
+        this.entries = new LinkedHashMap<String, CachedResponse[]>(16, 0.75f,
+                true);
+        this.overflowEntries = new LinkedHashMap<String, CachedResponse[]>(
+                16, 0.75f, true);
+        this.maxEntries = DEFAULT_MAX_ENTRIES;
+        this.maxMemorySize = DEFAULT_MAX_MEMORY_SIZE;
+        this.maxOverflowEntries = DEFAULT_MAX_OVERFLOW_ENTRIES;
+    }
+
+    /**
+     * Removes all the cached responses and deletes the overflow files.
+     */
+    public void clear() {
+        List<CachedResponse[]> removed;
+
+        synchronized (this) {
+            removed = new ArrayList<CachedResponse[]>(this.entries.values());
+            removed.addAll(this.overflowEntries.values());
+            this.entries.clear();
+            this.overflowEntries.clear();
+            this.memorySize = 0;
+        }
+
+        for (CachedResponse[] variants : removed) {
+            discard(variants);
+        }
+    }
+
+    /**
+     * Deletes the overflow files of a group of variants.
+     * 
+     * @param variants
+     *            The variants to discard.
+     */
+    private void discard(CachedResponse[] variants) {
+        for (CachedResponse variant : variants) {
+            variant.discard();
+        }
+    }
+
+    /**
+     * Evicts the least recently used keys held in memory until the limits are
+     * respected. Must be called while holding the store lock.
+     * 
+     * @return The evicted keys and variants.
+     */
+    private List<Map.Entry<String, CachedResponse[]>> evict() {
+        List<Map.Entry<String, CachedResponse[]>> result = null;
+
+        for (Iterator<Map.Entry<String, CachedResponse[]>> iter = this.entries
+                .entrySet().iterator(); iter.hasNext()
+                && ((this.entries.size() > getMaxEntries()) || (this.memorySize > getMaxMemorySize()));) {
+            Map.Entry<String, CachedResponse[]> eldest = iter.next();
+            iter.remove();
+            this.memorySize -= getMemorySize(eldest.getValue());
+
+            if (result == null) {
+                result = new ArrayList<Map.Entry<String, CachedResponse[]>>();
+            }
+
+            result.add(eldest);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the cached response matching a request, whether it is fresh or
+     * not.
+     * 
+     * @param key
+     *            The cache key.
+     * @param request
+     *            The request.
+     * @return The matching cached response or null.
+     */
+    public CachedResponse get(String key, Request request) {
+        CachedResponse[] variants;
+
+        synchronized (this) {
+            variants = this.entries.get(key);
+
+            if (variants == null) {
+                variants = this.overflowEntries.remove(key);
+
+                if (variants != null) {
+                    // Reserve the key while loading the overflow files
+                    this.entries.put(key, new CachedResponse[0]);
+                }
+            } else {
+                return match(variants, request);
+            }
+        }
+
+        if (variants == null) {
+            return null;
+        }
+
+        List<CachedResponse> loaded = new ArrayList<CachedResponse>();
+
+        for (CachedResponse variant : variants) {
+            if (variant.load()) {
+                loaded.add(variant);
+            }
+        }
+
+        variants = loaded.toArray(new CachedResponse[loaded.size()]);
+        List<Map.Entry<String, CachedResponse[]>> evicted;
+
+        synchronized (this) {
+            CachedResponse[] reserved = this.entries.get(key);
+
+            if ((reserved != null) && (reserved.length == 0)) {
+                this.entries.put(key, variants);
+                this.memorySize += getMemorySize(variants);
+            } else {
+                // Updated in the meantime, the loaded variants are stale
+                discard(variants);
+                variants = (reserved == null) ? new CachedResponse[0]
+                        : reserved;
+            }
+
+            evicted = evict();
+        }
+
+        overflow(evicted);
+        return match(variants, request);
+    }
+
+    /**
+     * Returns the maximum number of cache keys held in memory.
+     * 
+     * @return The maximum number of cache keys held in memory.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Returns the maximum size in bytes of the content held in memory.
+     * 
+     * @return The maximum size in bytes of the content held in memory.
+     */
+    public long getMaxMemorySize() {
+        return maxMemorySize;
+    }
+
+    /**
+     * Returns the maximum number of cache keys held in overflow files.
+     * 
+     * @return The maximum number of cache keys held in overflow files.
+     */
+    public int getMaxOverflowEntries() {
+        return maxOverflowEntries;
+    }
+
+    /**
+     * Returns the size of the content held in memory by a group of variants.
+     * 
+     * @param variants
+     *            The variants.
+     * @return The size of the content held in memory.
+     */
+    private long getMemorySize(CachedResponse[] variants) {
+        long result = 0;
+
+        for (CachedResponse variant : variants) {
+            result += variant.getMemorySize();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the overflow directory. Evicted responses are dropped if it is
+     * null, which is the default.
+     * 
+     * @return The overflow directory or null.
+     */
+    public File getOverflowDirectory() {
+        return overflowDirectory;
+    }
+
+    /**
+     * Returns the variant matching a request.
+     * 
+     * @param variants
+     *            The variants.
+     * @param request
+     *            The request.
+     * @return The matching variant or null.
+     */
+    private CachedResponse match(CachedResponse[] variants, Request request) {
+        for (CachedResponse variant : variants) {
+            if (variant.matches(request)) {
+                return variant;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Moves evicted entries to overflow files or drops them.
+     * 
+     * @param evicted
+     *            The evicted keys and variants or null.
+     */
+    private void overflow(List<Map.Entry<String, CachedResponse[]>> evicted) {
+        if (evicted == null) {
+            return;
+        }
+
+        File directory = getOverflowDirectory();
+        List<CachedResponse[]> dropped = new ArrayList<CachedResponse[]>();
+
+        for (Map.Entry<String, CachedResponse[]> entry : evicted) {
+            boolean spilled = (directory != null)
+                    && (entry.getValue().length > 0);
+
+            for (CachedResponse variant : entry.getValue()) {
+                spilled = spilled && variant.spill(directory);
+            }
+
+            if (spilled) {
+                synchronized (this) {
+                    if (this.entries.containsKey(entry.getKey())) {
+                        // Stored again in the meantime
+                        dropped.add(entry.getValue());
+                    } else {
+                        CachedResponse[] previous = this.overflowEntries.put(
+                                entry.getKey(), entry.getValue());
+
+                        if (previous != null) {
+                            dropped.add(previous);
+                        }
+
+                        for (Iterator<CachedResponse[]> iter = this.overflowEntries
+                                .values().iterator(); iter.hasNext()
+                                && (this.overflowEntries.size() > getMaxOverflowEntries());) {
+                            dropped.add(iter.next());
+                            iter.remove();
+                        }
+                    }
+                }
+            } else {
+                dropped.add(entry.getValue());
+            }
+        }
+
+        for (CachedResponse[] variants : dropped) {
+            discard(variants);
+        }
+    }
+
+    /**
+     * Stores a response, replacing the variant negotiated for the same client
+     * preferences if any.
+     * 
+     * @param key
+     *            The cache key.
+     * @param response
+     *            The response to store.
+     */
+    public void put(String key, CachedResponse response) {
+        List<Map.Entry<String, CachedResponse[]>> evicted;
+        CachedResponse[] overflowed;
+
+        synchronized (this) {
+            overflowed = this.overflowEntries.remove(key);
+            CachedResponse[] previous = this.entries.get(key);
+            List<CachedResponse> variants = new ArrayList<CachedResponse>();
+            variants.add(response);
+
+            if (previous != null) {
+                this.memorySize -= getMemorySize(previous);
+
+                for (CachedResponse variant : previous) {
+                    if (!variant.matches(response)) {
+                        variants.add(variant);
+                    }
+                }
+            }
+
+            CachedResponse[] current = variants
+                    .toArray(new CachedResponse[variants.size()]);
+            this.entries.put(key, current);
+            this.memorySize += getMemorySize(current);
+            evicted = evict();
+        }
+
+        if (overflowed != null) {
+            discard(overflowed);
+        }
+
+        overflow(evicted);
+    }
+
+    /**
+     * Removes all the responses cached for a key.
+     * 
+     * @param key
+     *            The cache key.
+     */
+    public void remove(String key) {
+        CachedResponse[] removed;
+        CachedResponse[] overflowed;
+
+        synchronized (this) {
+            removed = this.entries.remove(key);
+            overflowed = this.overflowEntries.remove(key);
+
+            if (removed != null) {
+                this.memorySize -= getMemorySize(removed);
+            }
+        }
+
+        if (removed != null) {
+            discard(removed);
+        }
+
+        if (overflowed != null) {
+            discard(overflowed);
+        }
+    }
+
+    /**
+     * Sets the maximum number of cache keys held in memory.
+     * 
+     * @param maxEntries
+     *            The maximum number of cache keys held in memory.
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Sets the maximum size in bytes of the content held in memory.
+     * 
+     * @param maxMemorySize
+     *            The maximum size in bytes of the content held in memory.
+     */
+    public void setMaxMemorySize(long maxMemorySize) {
+        this.maxMemorySize = maxMemorySize;
+    }
+
+    /**
+     * Sets the maximum number of cache keys held in overflow files.
+     * 
+     * @param maxOverflowEntries
+     *            The maximum number of cache keys held in overflow files.
+     */
+    public void setMaxOverflowEntries(int maxOverflowEntries) {
+        this.maxOverflowEntries = maxOverflowEntries;
+    }
+
+    /**
+     * Sets the overflow directory. Evicted responses are dropped if it is null.
+     * 
+     * @param overflowDirectory
+     *            The overflow directory or null.
+     */
+    public void setOverflowDirectory(File overflowDirectory) {
+        this.overflowDirectory = overflowDirectory;
+    }
+
+    /**
+     * Returns the number of cache keys held in memory or in overflow files.
+     * 
+     * @return The number of cache keys.
+     */
+    public synchronized int size() {
+        return this.entries.size() + this.overflowEntries.size();
+    }
+
+}
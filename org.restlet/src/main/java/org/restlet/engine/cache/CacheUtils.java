@@ -0,0 +1,382 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.message.CacheDirective;
+import org.restlet.message.ClientInfo;
+import org.restlet.message.Dimension;
+import org.restlet.message.Method;
+import org.restlet.message.Request;
+import org.restlet.message.Response;
+import org.restlet.message.Status;
+import org.restlet.representation.Representation;
+
+/**
+ * Cache manipulation utilities, following the HTTP caching rules of RFC 7234.
+ * 
+ * @author Jerome Louvel
+ */
+public class CacheUtils {
+
+    /** Thrown when an entity exceeds the maximum size while being read. */
+    @SuppressWarnings("serial")
+    private static class SizeLimitException extends RuntimeException {
+        /** Constructor. */
+        public SizeLimitException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Returns the cache directive with the given name.
+     * 
+     * @param directives
+     *            The cache directives.
+     * @param name
+     *            The directive name.
+     * @return The cache directive or null.
+     */
+    public static CacheDirective getDirective(
+            List<CacheDirective> directives, String name) {
+        if (directives != null) {
+            for (CacheDirective directive : directives) {
+                if (name.equalsIgnoreCase(directive.getName())) {
+                    return directive;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the number of seconds of a cache directive.
+     * 
+     * @param directives
+     *            The cache directives.
+     * @param name
+     *            The directive name.
+     * @return The number of seconds or -1 if the directive is missing or
+     *         invalid.
+     */
+    public static int getDirectiveSeconds(List<CacheDirective> directives,
+            String name) {
+        CacheDirective directive = getDirective(directives, name);
+
+        if ((directive != null) && (directive.getValue() != null)) {
+            try {
+                return Math.max(0, Integer.parseInt(directive.getValue()));
+            } catch (NumberFormatException e) {
+                // Invalid directives are ignored
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the freshness lifetime of a response, based on the "s-maxage"
+     * directive for shared caches, the "max-age" directive or the expiration
+     * date of the response entity. Responses with a "no-cache" directive are
+     * immediately stale.
+     * 
+     * @param response
+     *            The response.
+     * @param shared
+     *            Indicates if the cache is shared between several users.
+     * @return The freshness lifetime in milliseconds or -1 if the response
+     *         gives no explicit freshness information.
+     */
+    public static long getFreshnessLifetime(Response response, boolean shared) {
+        List<CacheDirective> directives = response.getCacheDirectives();
+
+        if (getDirective(directives, HeaderConstants.CACHE_NO_CACHE) != null) {
+            return 0;
+        }
+
+        int seconds = shared ? getDirectiveSeconds(directives,
+                HeaderConstants.CACHE_SHARED_MAX_AGE) : -1;
+
+        if (seconds == -1) {
+            seconds = getDirectiveSeconds(directives,
+                    HeaderConstants.CACHE_MAX_AGE);
+        }
+
+        if (seconds != -1) {
+            return seconds * 1000L;
+        }
+
+        Representation entity = response.getEntity();
+
+        if ((entity != null) && (entity.getExpirationDate() != null)) {
+            Date date = response.getDate();
+            long now = (date == null) ? System.currentTimeMillis() : date
+                    .getTime();
+            return Math.max(0, entity.getExpirationDate().getTime() - now);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the key identifying the cached responses of a request, its
+     * target URI without fragment.
+     * 
+     * @param request
+     *            The request.
+     * @return The cache key.
+     */
+    public static String getKey(Request request) {
+        return request.getResourceRef().getTargetRef().toString(true, false);
+    }
+
+    /**
+     * Returns the key of a request for the collapsing of concurrent misses. In
+     * addition to the cache key, it covers all the client preferences that
+     * content negotiation may depend on.
+     * 
+     * @param request
+     *            The request.
+     * @return The collapsing key.
+     */
+    public static String getNegotiationKey(Request request) {
+        ClientInfo clientInfo = request.getClientInfo();
+        return getKey(request) + '\n' + clientInfo.getAcceptedMediaTypes()
+                + '\n' + clientInfo.getAcceptedLanguages() + '\n'
+                + clientInfo.getAcceptedCharacterSets() + '\n'
+                + clientInfo.getAcceptedEncodings();
+    }
+
+    /**
+     * Returns the value of the request that a response varying on the given
+     * dimension depends on.
+     * 
+     * @param request
+     *            The request.
+     * @param dimension
+     *            The dimension.
+     * @return The request value for this dimension.
+     */
+    public static String getVaryValue(Request request, Dimension dimension) {
+        ClientInfo clientInfo = request.getClientInfo();
+
+        switch (dimension) {
+        case CHARACTER_SET:
+            return clientInfo.getAcceptedCharacterSets().toString();
+        case CLIENT_AGENT:
+            return clientInfo.getAgent();
+        case ENCODING:
+            return clientInfo.getAcceptedEncodings().toString();
+        case LANGUAGE:
+            return clientInfo.getAcceptedLanguages().toString();
+        case MEDIA_TYPE:
+            return clientInfo.getAcceptedMediaTypes().toString();
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Indicates if a response entity has a tag or a modification date that
+     * allow its revalidation with a conditional request.
+     * 
+     * @param response
+     *            The response.
+     * @return True if the response can be revalidated.
+     */
+    public static boolean hasValidator(Response response) {
+        Representation entity = response.getEntity();
+        return (entity != null)
+                && ((entity.getTag() != null) || (entity.getModificationDate() != null));
+    }
+
+    /**
+     * Indicates if a request accepts a cached response, that is if it doesn't
+     * contain a "no-cache" directive or a "max-age" directive of zero.
+     * 
+     * @param request
+     *            The request.
+     * @return True if a cached response can be used.
+     */
+    public static boolean isCacheUsable(Request request) {
+        List<CacheDirective> directives = request.getCacheDirectives();
+        return (getDirective(directives, HeaderConstants.CACHE_NO_CACHE) == null)
+                && (getDirectiveSeconds(directives,
+                        HeaderConstants.CACHE_MAX_AGE) != 0);
+    }
+
+    /**
+     * Indicates if a request can be answered by a cache. Only GET and HEAD
+     * requests without "no-store" directive are.
+     * 
+     * @param request
+     *            The request.
+     * @return True if the request can be answered by a cache.
+     */
+    public static boolean isCacheable(Request request) {
+        Method method = request.getMethod();
+        return (Method.GET.equals(method) || Method.HEAD.equals(method))
+                && (getDirective(request.getCacheDirectives(),
+                        HeaderConstants.CACHE_NO_STORE) == null);
+    }
+
+    /**
+     * Indicates if a response can be stored. It must answer a GET request, have
+     * a cacheable status, explicit freshness information and no "no-store" or
+     * "no-cache" directive. Shared caches also refuse "private" responses,
+     * responses setting cookies and responses to authenticated requests that
+     * aren't explicitly public. Private caches also store stale and "no-cache"
+     * responses that can be revalidated.
+     * 
+     * @param request
+     *            The request.
+     * @param response
+     *            The response.
+     * @param shared
+     *            Indicates if the cache is shared between several users.
+     * @return True if the response can be stored.
+     */
+    public static boolean isStorable(Request request, Response response,
+            boolean shared) {
+        List<CacheDirective> directives = response.getCacheDirectives();
+        Status status = response.getStatus();
+        boolean revalidable = !shared && hasValidator(response);
+        boolean result = Method.GET.equals(request.getMethod())
+                && isCacheable(request)
+                && (Status.SUCCESS_OK.equals(status)
+                        || Status.SUCCESS_NON_AUTHORITATIVE.equals(status)
+                        || Status.REDIRECTION_PERMANENT.equals(status)
+                        || Status.CLIENT_ERROR_NOT_FOUND.equals(status) || Status.CLIENT_ERROR_GONE
+                            .equals(status))
+                && (getDirective(directives, HeaderConstants.CACHE_NO_STORE) == null)
+                && (revalidable || (getDirective(directives,
+                        HeaderConstants.CACHE_NO_CACHE) == null))
+                && isVaryStorable(response.getDimensions());
+
+        if (result && shared) {
+            result = (getDirective(directives, HeaderConstants.CACHE_PRIVATE) == null)
+                    && response.getCookieSettings().isEmpty()
+                    && ((request.getChallengeResponse() == null)
+                            || (getDirective(directives,
+                                    HeaderConstants.CACHE_PUBLIC) != null) || (getDirective(
+                            directives, HeaderConstants.CACHE_SHARED_MAX_AGE) != null));
+        }
+
+        return result
+                && (revalidable || (getFreshnessLifetime(response, shared) > 0));
+    }
+
+    /**
+     * Indicates if responses varying on the given dimensions can be stored,
+     * that is if the values they depend on are known from the request.
+     * 
+     * @param dimensions
+     *            The dimensions.
+     * @return True if such responses can be stored.
+     */
+    public static boolean isVaryStorable(Set<Dimension> dimensions) {
+        for (Dimension dimension : dimensions) {
+            switch (dimension) {
+            case CHARACTER_SET:
+            case CLIENT_AGENT:
+            case ENCODING:
+            case LANGUAGE:
+            case MEDIA_TYPE:
+                break;
+            default:
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads the content of an entity into memory, up to a maximum size. Entities
+     * whose size is unknown can only be read if they aren't transient, as they
+     * must stay usable when the maximum size is exceeded.
+     * 
+     * @param entity
+     *            The entity to read.
+     * @param maxSize
+     *            The maximum size in bytes or -1 for no limit.
+     * @return The content or null if it is too large or can't be read safely.
+     * @throws IOException
+     */
+    public static byte[] toByteArray(Representation entity, final long maxSize)
+            throws IOException {
+        if ((maxSize != -1) && (entity.getSize() > maxSize)) {
+            return null;
+        }
+
+        if (!entity.hasKnownSize() && entity.isTransient()) {
+            return null;
+        }
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream(
+                entity.hasKnownSize() ? (int) entity.getSize() : 1024) {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                if ((maxSize != -1) && (count + len > maxSize)) {
+                    throw new SizeLimitException();
+                }
+
+                super.write(b, off, len);
+            }
+
+            @Override
+            public synchronized void write(int b) {
+                if ((maxSize != -1) && (count + 1 > maxSize)) {
+                    throw new SizeLimitException();
+                }
+
+                super.write(b);
+            }
+        };
+
+        try {
+            entity.write(result);
+        } catch (SizeLimitException e) {
+            return null;
+        }
+
+        return result.toByteArray();
+    }
+
+    /**
+     * Private constructor to ensure that the class acts as a true utility class
+     * i.e. it isn't instantiable and extensible.
+     */
+    private CacheUtils() {
+    }
+
+}
@@ -0,0 +1,557 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.restlet.Context;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.message.CacheDirective;
+import org.restlet.message.Conditions;
+import org.restlet.message.Dimension;
+import org.restlet.message.Method;
+import org.restlet.message.Request;
+import org.restlet.message.Response;
+import org.restlet.message.Status;
+import org.restlet.representation.ByteArrayRepresentation;
+import org.restlet.representation.CharacterSet;
+import org.restlet.representation.Disposition;
+import org.restlet.representation.EmptyRepresentation;
+import org.restlet.representation.Encoding;
+import org.restlet.representation.Language;
+import org.restlet.representation.MediaType;
+import org.restlet.representation.Representation;
+import org.restlet.util.Header;
+import org.restlet.util.Reference;
+import org.restlet.util.Tag;
+
+/**
+ * Immutable snapshot of a response stored in a cache. The entity content is
+ * kept in memory and can be moved to an overflow file by the
+ * {@link CacheStore}.
+ * 
+ * @author Jerome Louvel
+ */
+public class CachedResponse {
+
+    /** The response cache directives. */
+    private final List<CacheDirective> cacheDirectives;
+
+    /** The entity character set. */
+    private final CharacterSet characterSet;
+
+    /** The entity content or null if moved to a file or without entity. */
+    private volatile byte[] content;
+
+    /** The dimensions the response varies on. */
+    private final Set<Dimension> dimensions;
+
+    /** The entity disposition. */
+    private final Disposition disposition;
+
+    /** The entity encodings. */
+    private final List<Encoding> encodings;
+
+    /** Indicates if the response has an entity. */
+    private final boolean entity;
+
+    /** The entity location. */
+    private final Reference entityLocationRef;
+
+    /** The entity expiration date. */
+    private final Date expirationDate;
+
+    /** The overflow file holding the content or null. */
+    private volatile File file;
+
+    /** The time in milliseconds after which the response is stale. */
+    private final long freshUntil;
+
+    /** The extension headers of the response. */
+    private final List<Header> headers;
+
+    /** The age of the response in seconds when stored. */
+    private final int initialAge;
+
+    /** The entity languages. */
+    private final List<Language> languages;
+
+    /** The response location, for redirections. */
+    private final Reference locationRef;
+
+    /** The entity media type. */
+    private final MediaType mediaType;
+
+    /** The entity modification date. */
+    private final Date modificationDate;
+
+    /** The size of the content. */
+    private final int size;
+
+    /** The response status. */
+    private final Status status;
+
+    /** The time in milliseconds when the response was stored. */
+    private final long storedAt;
+
+    /** The entity tag. */
+    private final Tag tag;
+
+    /** The request values for each dimension the response varies on. */
+    private final Map<Dimension, String> varyValues;
+
+    /**
+     * Constructor.
+     * 
+     * @param request
+     *            The request.
+     * @param response
+     *            The response to store.
+     * @param content
+     *            The content of the response entity, already read.
+     * @param lifetime
+     *            The freshness lifetime in milliseconds.
+     */
+    public CachedResponse(Request request, Response response, byte[] content,
+            long lifetime) {
+        Representation entity = response.getEntity();
+        this.storedAt = System.currentTimeMillis();
+        this.initialAge = Math.max(0, response.getAge());
+        this.freshUntil = this.storedAt + lifetime - this.initialAge * 1000L;
+        this.status = response.getStatus();
+        this.locationRef = response.getLocationRef();
+        this.cacheDirectives = Collections
+                .unmodifiableList(new ArrayList<CacheDirective>(response
+                        .getCacheDirectives()));
+        this.headers = new ArrayList<Header>();
+
+        for (Header header : response.getHeaders()) {
+            this.headers.add(new Header(header.getName(), header.getValue()));
+        }
+
+        this.dimensions = response.getDimensions().isEmpty() ? EnumSet
+                .noneOf(Dimension.class) : EnumSet.copyOf(response
+                .getDimensions());
+        this.varyValues = new EnumMap<Dimension, String>(Dimension.class);
+
+        for (Dimension dimension : this.dimensions) {
+            this.varyValues.put(dimension,
+                    CacheUtils.getVaryValue(request, dimension));
+        }
+
+        this.entity = (entity != null) && (content != null);
+        this.content = this.entity ? content : null;
+        this.size = this.entity ? content.length : 0;
+
+        if (this.entity) {
+            this.mediaType = entity.getMediaType();
+            this.characterSet = entity.getCharacterSet();
+            this.languages = new ArrayList<Language>(entity.getLanguages());
+            this.encodings = new ArrayList<Encoding>(entity.getEncodings());
+            this.entityLocationRef = entity.getLocationRef();
+            this.disposition = entity.getDisposition();
+            this.expirationDate = entity.getExpirationDate();
+            this.modificationDate = entity.getModificationDate();
+            this.tag = entity.getTag();
+        } else {
+            this.mediaType = null;
+            this.characterSet = null;
+            this.languages = null;
+            this.encodings = null;
+            this.entityLocationRef = null;
+            this.disposition = null;
+            this.expirationDate = null;
+            this.modificationDate = null;
+            this.tag = null;
+        }
+    }
+
+    /**
+     * Updates a response with the cached status, metadata and entity.
+     * 
+     * @param response
+     *            The response to update.
+     * @param withContent
+     *            Indicates if the entity content is needed or only its
+     *            metadata.
+     * @throws IOException
+     *             If the overflow file can't be read.
+     */
+    public void applyTo(Response response, boolean withContent)
+            throws IOException {
+        // Read the content first to leave the response untouched on failure
+        Representation entity = this.entity ? createEntity(withContent)
+                : null;
+        response.setStatus(this.status);
+        response.setLocationRef(this.locationRef);
+        response.setCacheDirectives(new ArrayList<CacheDirective>(
+                this.cacheDirectives));
+        response.getDimensions().addAll(this.dimensions);
+        response.setAge(getAge(System.currentTimeMillis()));
+
+        for (Header header : this.headers) {
+            response.getHeaders().add(header.getName(), header.getValue());
+        }
+
+        response.setEntity(entity);
+    }
+
+    /**
+     * Creates a new entity with the cached content and metadata.
+     * 
+     * @param withContent
+     *            Indicates if the entity content is needed or only its
+     *            metadata.
+     * @return The new entity.
+     * @throws IOException
+     *             If the overflow file can't be read.
+     */
+    public Representation createEntity(boolean withContent)
+            throws IOException {
+        Representation result;
+
+        if (withContent) {
+            byte[] bytes = getContent();
+            result = new ByteArrayRepresentation(bytes, this.mediaType,
+                    bytes.length);
+        } else {
+            result = new EmptyRepresentation();
+            result.setMediaType(this.mediaType);
+            result.setSize(this.size);
+        }
+
+        result.setCharacterSet(this.characterSet);
+        result.setLanguages(new ArrayList<Language>(this.languages));
+        result.setEncodings(new ArrayList<Encoding>(this.encodings));
+        result.setLocationRef(this.entityLocationRef);
+        result.setDisposition(this.disposition);
+        result.setExpirationDate(this.expirationDate);
+        result.setModificationDate(this.modificationDate);
+        result.setTag(this.tag);
+        return result;
+    }
+
+    /**
+     * Deletes the overflow file if any.
+     */
+    void discard() {
+        File file = this.file;
+
+        if (file != null) {
+            this.file = null;
+            file.delete();
+        }
+    }
+
+    /**
+     * Returns the age of the response in seconds.
+     * 
+     * @param now
+     *            The current time in milliseconds.
+     * @return The age of the response in seconds.
+     */
+    public int getAge(long now) {
+        return this.initialAge + (int) ((now - this.storedAt) / 1000L);
+    }
+
+    /**
+     * Returns the entity content, reading the overflow file if needed.
+     * 
+     * @return The entity content.
+     * @throws IOException
+     *             If the overflow file can't be read.
+     */
+    private byte[] getContent() throws IOException {
+        byte[] result = this.content;
+
+        if (result == null) {
+            File file = this.file;
+
+            if (file == null) {
+                throw new IOException("The cached content was discarded");
+            }
+
+            result = Files.readAllBytes(file.toPath());
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the size of the content held in memory.
+     * 
+     * @return The size of the content held in memory.
+     */
+    long getMemorySize() {
+        return (this.content == null) ? 0 : this.size;
+    }
+
+    /**
+     * Returns the modification date of the entity.
+     * 
+     * @return The modification date of the entity.
+     */
+    public Date getModificationDate() {
+        return this.modificationDate;
+    }
+
+    /**
+     * Returns the response status.
+     * 
+     * @return The response status.
+     */
+    public Status getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Returns the entity tag.
+     * 
+     * @return The entity tag.
+     */
+    public Tag getTag() {
+        return this.tag;
+    }
+
+    /**
+     * Indicates if the response has an entity.
+     * 
+     * @return True if the response has an entity.
+     */
+    public boolean hasEntity() {
+        return this.entity;
+    }
+
+    /**
+     * Indicates if the response is still fresh.
+     * 
+     * @param now
+     *            The current time in milliseconds.
+     * @return True if the response is still fresh.
+     */
+    public boolean isFresh(long now) {
+        return now < this.freshUntil;
+    }
+
+    /**
+     * Moves the content back from the overflow file into memory.
+     * 
+     * @return True if the content is available in memory.
+     */
+    boolean load() {
+        if ((this.content == null) && this.entity) {
+            try {
+                this.content = getContent();
+            } catch (IOException e) {
+                return false;
+            } finally {
+                discard();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Indicates if the response was negotiated for the same client
+     * preferences as the given request.
+     * 
+     * @param request
+     *            The request to test.
+     * @return True if the response can be used for the request.
+     */
+    public boolean matches(Request request) {
+        for (Map.Entry<Dimension, String> entry : this.varyValues.entrySet()) {
+            if (!Objects.equals(entry.getValue(),
+                    CacheUtils.getVaryValue(request, entry.getKey()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Indicates if the response was negotiated for the same client preferences
+     * as another cached response.
+     * 
+     * @param other
+     *            The other cached response.
+     * @return True if both responses are variants for the same preferences.
+     */
+    boolean matches(CachedResponse other) {
+        return this.varyValues.equals(other.varyValues);
+    }
+
+    /**
+     * Answers a request if the cached response is fresh enough for it. The
+     * conditions of the request are evaluated against the cached entity.
+     * 
+     * @param request
+     *            The request to answer.
+     * @param response
+     *            The response to update.
+     * @return True if the request was answered.
+     */
+    public boolean serve(Request request, Response response) {
+        long now = System.currentTimeMillis();
+
+        if (!isFresh(now)) {
+            return false;
+        }
+
+        int maxAge = CacheUtils.getDirectiveSeconds(
+                request.getCacheDirectives(), HeaderConstants.CACHE_MAX_AGE);
+
+        if ((maxAge != -1) && (getAge(now) > maxAge)) {
+            return false;
+        }
+
+        Conditions conditions = request.getConditions();
+        Status status = (this.entity && conditions.hasSome()) ? conditions
+                .getStatus(request.getMethod(), true, this.tag,
+                        this.modificationDate) : null;
+
+        try {
+            applyTo(response, (status == null)
+                    && !Method.HEAD.equals(request.getMethod()));
+        } catch (IOException e) {
+            Context.getCurrentLogger().debug(
+                    "Unable to read a cached response", e);
+            return false;
+        }
+
+        if (status != null) {
+            response.setStatus(status);
+
+            if (!Status.REDIRECTION_NOT_MODIFIED.equals(status)) {
+                response.setEntity(null);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Moves the content from memory into an overflow file.
+     * 
+     * @param directory
+     *            The overflow directory.
+     * @return True if the content was moved or there was nothing to move.
+     */
+    boolean spill(File directory) {
+        byte[] content = this.content;
+
+        if (content != null) {
+            try {
+                File file = File.createTempFile("restlet-cache-", ".bin",
+                        directory);
+                Files.write(file.toPath(), content);
+                this.file = file;
+                this.content = null;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns a copy of the cached response refreshed by a
+     * "304 Not Modified" response to a revalidation request. The cache
+     * directives, extension headers and entity metadata of the 304 response
+     * replace the stored ones while the content is kept.
+     * 
+     * @param request
+     *            The revalidation request.
+     * @param notModified
+     *            The "304 Not Modified" response.
+     * @param shared
+     *            Indicates if the cache is shared between several users.
+     * @return The refreshed cached response.
+     * @throws IOException
+     *             If the overflow file can't be read.
+     */
+    public CachedResponse update(Request request, Response notModified,
+            boolean shared) throws IOException {
+        Response merged = new Response(request);
+        applyTo(merged, true);
+        merged.setStatus(this.status);
+        merged.setAge(Math.max(0, notModified.getAge()));
+        merged.setDate(notModified.getDate());
+
+        if (!notModified.getCacheDirectives().isEmpty()) {
+            merged.setCacheDirectives(new ArrayList<CacheDirective>(
+                    notModified.getCacheDirectives()));
+        }
+
+        for (Header header : notModified.getHeaders()) {
+            if (!HeaderConstants.HEADER_CONTENT_LENGTH.equalsIgnoreCase(header
+                    .getName())) {
+                merged.getHeaders().removeAll(header.getName(), true);
+            }
+        }
+
+        for (Header header : notModified.getHeaders()) {
+            if (!HeaderConstants.HEADER_CONTENT_LENGTH.equalsIgnoreCase(header
+                    .getName())) {
+                merged.getHeaders().add(header.getName(), header.getValue());
+            }
+        }
+
+        Representation fresh = notModified.getEntity();
+        Representation entity = merged.getEntity();
+
+        if ((fresh != null) && (entity != null)) {
+            if (fresh.getExpirationDate() != null) {
+                entity.setExpirationDate(fresh.getExpirationDate());
+            }
+
+            if (fresh.getModificationDate() != null) {
+                entity.setModificationDate(fresh.getModificationDate());
+            }
+
+            if (fresh.getTag() != null) {
+                entity.setTag(fresh.getTag());
+            }
+        }
+
+        return new CachedResponse(request, merged, this.entity ? getContent()
+                : null, CacheUtils.getFreshnessLifetime(merged, shared));
+    }
+
+}
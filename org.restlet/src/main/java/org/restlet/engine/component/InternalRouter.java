@@ -26,22 +26,78 @@ package org.restlet.engine.component;
 
 import org.restlet.Context;
 import org.restlet.Restlet;
+import org.restlet.engine.util.LruCache;
 import org.restlet.message.Request;
 import org.restlet.message.Response;
 import org.restlet.resource.Finder;
 import org.restlet.resource.ServerResource;
+import org.restlet.routing.Route;
 import org.restlet.routing.Router;
 import org.restlet.routing.Template;
 import org.restlet.routing.TemplateRoute;
+import org.restlet.util.RouteList;
 
 /**
  * Provides the behavior of the internal router of a Component. It overrides the
- * default behavior of a classic Router.
+ * default behavior of a classic Router.<br>
+ * <br>
+ * As the same RIAP targets tend to be called over and over, the route selected
+ * for each remaining part of the target URI is cached. The cached decision is
+ * dropped as soon as the list of routes is replaced or changes in size.
  * 
  * @author Thierry Boileau
  */
 public class InternalRouter extends Router {
 
+    /**
+     * Routing decision cached for a given remaining part.
+     */
+    private static final class CachedRoute {
+
+        /** The selected route. */
+        private final Route route;
+
+        /** The list of routes the route was selected from. */
+        private final RouteList routes;
+
+        /** The size of the list of routes when the route was selected. */
+        private final int size;
+
+        /**
+         * Constructor.
+         * 
+         * @param route
+         *            The selected route.
+         * @param routes
+         *            The list of routes the route was selected from.
+         */
+        private CachedRoute(Route route, RouteList routes) {
+            this.route = route;
+            this.routes = routes;
+            this.size = routes.size();
+        }
+
+        /**
+         * Indicates if the cached decision is still valid for the given list
+         * of routes.
+         * 
+         * @param routes
+         *            The current list of routes.
+         * @return True if the cached decision is still valid.
+         */
+        private boolean isValid(RouteList routes) {
+            return (this.routes == routes) && (this.size == routes.size())
+                    && routes.contains(this.route);
+        }
+
+    }
+
+    /** The default maximum number of cached routing decisions. */
+    public static final int DEFAULT_ROUTE_CACHE_SIZE = 256;
+
+    /** The cache of routing decisions, keyed by remaining part. */
+    private final LruCache<String, CachedRoute> routeCache;
+
     /**
      * Constructor.
      * 
@@ -49,6 +105,8 @@ public class InternalRouter extends Router {
      */
     public InternalRouter(Context context) {
         super(context);
+        this.routeCache = new LruCache<String, CachedRoute>(
+                DEFAULT_ROUTE_CACHE_SIZE);
         // Override Router's default modes
         setDefaultMatchingMode(Template.MODE_STARTS_WITH);
         setRoutingMode(Router.MODE_BEST_MATCH);
@@ -102,6 +160,14 @@ public class InternalRouter extends Router {
         return super.attachDefault(defaultTarget);
     }
 
+    /**
+     * Clears the cache of routing decisions. Should be called when routes are
+     * modified in place.
+     */
+    public void clearRouteCache() {
+        this.routeCache.clear();
+    }
+
     @Override
     public Finder createFinder(Class<? extends ServerResource> targetClass) {
         Finder result = super.createFinder(targetClass);
@@ -109,4 +175,72 @@ public class InternalRouter extends Router {
         return result;
     }
 
+    /**
+     * Returns the next Restlet, reusing the routing decision previously made
+     * for the same remaining part when the routing mode is deterministic.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     * @return The next Restlet if available or null.
+     */
+    @Override
+    public Restlet getNext(Request request, Response response) {
+        int mode = getRoutingMode();
+
+        if ((mode != MODE_BEST_MATCH) && (mode != MODE_FIRST_MATCH)
+                && (mode != MODE_LAST_MATCH)) {
+            return super.getNext(request, response);
+        }
+
+        String key = (request.getResourceRef() == null) ? null : request
+                .getResourceRef().getRemainingPart(false,
+                        getDefaultMatchingQuery());
+        RouteList routes = getRoutes();
+
+        if (key != null) {
+            CachedRoute cached = this.routeCache.get(key);
+
+            if ((cached != null) && cached.isValid(routes)) {
+                if (request.isLoggable()) {
+                    logRoute(cached.route);
+                }
+
+                return cached.route;
+            }
+        }
+
+        Restlet result = super.getNext(request, response);
+
+        // Routes matching the query differently can't share the decision
+        if ((key != null) && (result instanceof Route)
+                && (result != getDefaultRoute())
+                && !((result instanceof TemplateRoute) && (((TemplateRoute) result)
+                        .isMatchingQuery() != getDefaultMatchingQuery()))) {
+            this.routeCache.put(key, new CachedRoute((Route) result, routes));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the maximum number of cached routing decisions.
+     * 
+     * @return The maximum number of cached routing decisions.
+     */
+    public int getRouteCacheSize() {
+        return this.routeCache.getMaxSize();
+    }
+
+    /**
+     * Sets the maximum number of cached routing decisions.
+     * 
+     * @param routeCacheSize
+     *            The maximum number of cached routing decisions.
+     */
+    public void setRouteCacheSize(int routeCacheSize) {
+        this.routeCache.setMaxSize(routeCacheSize);
+    }
+
 }
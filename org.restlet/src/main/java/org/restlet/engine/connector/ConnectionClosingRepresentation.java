@@ -24,6 +24,8 @@
 
 package org.restlet.engine.connector;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 
 import org.restlet.representation.Representation;
@@ -31,7 +33,9 @@ import org.restlet.util.WrapperRepresentation;
 
 /**
  * Representation that wraps another representation and closes the parent
- * {@link HttpURLConnection} when the representation is released.
+ * {@link HttpURLConnection} when the representation is released. For
+ * persistent connections, only the response stream is closed so that the JDK
+ * can return the underlying socket to its keep-alive cache.
  * 
  * @author Kevin Conaway
  */
@@ -40,6 +44,9 @@ class ConnectionClosingRepresentation extends WrapperRepresentation {
     /** The parent connection. */
     private final HttpURLConnection connection;
 
+    /** Indicates if the connection should be kept alive for reuse. */
+    private final boolean persistent;
+
     /**
      * Default constructor.
      * 
@@ -50,13 +57,49 @@ class ConnectionClosingRepresentation extends WrapperRepresentation {
      */
     public ConnectionClosingRepresentation(
             Representation wrappedRepresentation, HttpURLConnection connection) {
+        this(wrappedRepresentation, connection, false);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param wrappedRepresentation
+     *            The wrapped representation.
+     * @param connection
+     *            The parent connection.
+     * @param persistent
+     *            Indicates if the connection should be kept alive for reuse.
+     */
+    public ConnectionClosingRepresentation(
+            Representation wrappedRepresentation, HttpURLConnection connection,
+            boolean persistent) {
         super(wrappedRepresentation);
         this.connection = connection;
+        this.persistent = persistent;
     }
 
     @Override
     public void release() {
-        this.connection.disconnect();
+        if (this.persistent) {
+            try {
+                // Closing the stream hands the socket back to the keep-alive
+                // cache once the remaining content has been drained
+                InputStream stream = this.connection.getErrorStream();
+
+                if (stream == null) {
+                    stream = this.connection.getInputStream();
+                }
+
+                if (stream != null) {
+                    stream.close();
+                }
+            } catch (IOException ioe) {
+                this.connection.disconnect();
+            }
+        } else {
+            this.connection.disconnect();
+        }
+
         super.release();
     }
 
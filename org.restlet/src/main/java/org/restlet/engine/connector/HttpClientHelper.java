@@ -68,6 +68,15 @@ import java.net.HttpURLConnection;
  * protocol will not automatically follow redirects.</td>
  * </tr>
  * <tr>
+ * <td>persistingConnections</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>If true, releasing a response entity only closes its stream so that the
+ * underlying connection can be reused by the JDK's keep-alive cache. If false,
+ * the connection is disconnected, unless the request has the
+ * {@link #ATTRIBUTE_PERSISTING_CONNECTION} attribute set to true.</td>
+ * </tr>
+ * <tr>
  * <td>readTimeout</td>
  * <td>int</td>
  * <td>60000</td>
@@ -117,6 +126,14 @@ import java.net.HttpURLConnection;
 public class HttpClientHelper extends
         org.restlet.engine.adapter.HttpClientHelper {
 
+    /**
+     * The name of the request attribute indicating if the connection should be
+     * kept alive for reuse once the response entity is released, whatever the
+     * value of the "persistingConnections" parameter. Set by the
+     * {@link org.restlet.routing.Redirector} in reverse proxy mode.
+     */
+    public static final String ATTRIBUTE_PERSISTING_CONNECTION = "org.restlet.engine.connector.persistingConnection";
+
     /**
      * Constructor.
      * 
@@ -209,6 +226,16 @@ public class HttpClientHelper extends
                 "followRedirects", "false"));
     }
 
+    /**
+     * Indicates if released connections should be kept alive for reuse.
+     * 
+     * @return True if released connections should be kept alive for reuse.
+     */
+    public boolean isPersistingConnections() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "persistingConnections", "false"));
+    }
+
     /**
      * Indicates if the protocol is allowed to use caching whenever it can.
      * 
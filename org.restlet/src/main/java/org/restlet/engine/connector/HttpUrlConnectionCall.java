@@ -53,6 +53,9 @@ public class HttpUrlConnectionCall extends ClientCall {
     /** The wrapped HTTP URL connection. */
     private final HttpURLConnection connection;
 
+    /** Indicates if the connection should be kept alive for reuse. */
+    private volatile boolean persistingConnection;
+
     /** Indicates if the response headers were added. */
     private volatile boolean responseHeadersAdded;
 
@@ -163,7 +166,8 @@ public class HttpUrlConnectionCall extends ClientCall {
     @Override
     protected Representation getRepresentation(InputStream stream) {
         Representation r = super.getRepresentation(stream);
-        return new ConnectionClosingRepresentation(r, getConnection());
+        return new ConnectionClosingRepresentation(r, getConnection(),
+                this.persistingConnection);
     }
 
     @Override
@@ -285,6 +289,9 @@ public class HttpUrlConnectionCall extends ClientCall {
     @Override
     public Status sendRequest(Request request) {
         Status result = null;
+        this.persistingConnection = getHelper().isPersistingConnections()
+                || Boolean.TRUE.equals(request.getAttributes().get(
+                        HttpClientHelper.ATTRIBUTE_PERSISTING_CONNECTION));
 
         try {
             if (request.isEntityAvailable()) {
@@ -26,21 +26,95 @@ package org.restlet.engine.converter;
 
 import org.restlet.Context;
 import org.restlet.engine.Engine;
+import org.restlet.engine.util.LruCache;
 import org.restlet.engine.resource.VariantInfo;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Resource;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * Utilities for the converter service.
+ * Utilities for the converter service.<br>
+ * <br>
+ * The selected converter helpers and the convertible variants are cached by
+ * source and target classes and metadata, except for media types with
+ * parameters. The cache is bounded and automatically reset when the list of
+ * registered converters changes. As a consequence, the scores returned by
+ * converter helpers should only depend on those classes and metadata.
  * 
  * @author Jerome Louvel
  */
 public class ConverterUtils {
 
+    /**
+     * Cached selections matching a given list of registered converter helpers.
+     */
+    private static final class Selections {
+
+        /** The cache of best converter helpers. */
+        private final LruCache<List<Object>, Object> helpers;
+
+        /** The registered converter helpers. */
+        private final List<ConverterHelper> converters;
+
+        /** The cache of variants that can be converted. */
+        private final LruCache<List<Object>, List<VariantInfo>> variants;
+
+        /**
+         * Constructor.
+         * 
+         * @param converters
+         *            The registered converter helpers.
+         */
+        private Selections(List<ConverterHelper> converters) {
+            this.converters = new ArrayList<ConverterHelper>(converters);
+            this.helpers = new LruCache<List<Object>, Object>(MAX_ENTRIES);
+            this.variants = new LruCache<List<Object>, List<VariantInfo>>(
+                    MAX_ENTRIES);
+        }
+    }
+
+    /** The maximum number of entries of each cache. */
+    private static final int MAX_ENTRIES = 1024;
+
+    /** Marker of a cached absence of converter helper. */
+    private static final Object NO_HELPER = new Object();
+
+    /** Marker of a cached absence of variants. */
+    private static final List<VariantInfo> NO_VARIANTS = Collections
+            .unmodifiableList(new ArrayList<VariantInfo>());
+
+    /** The current cached selections. */
+    private static volatile Selections selections;
+
+    /**
+     * Clears the cached converter selections. This is automatically done when
+     * the list of registered converter helpers changes.
+     */
+    public static void clearCache() {
+        selections = null;
+    }
+
+    /**
+     * Returns the description of a variant, used as part of cache keys.
+     * 
+     * @param variant
+     *            The variant to describe.
+     * @return The variant description.
+     */
+    private static List<Object> describe(Variant variant) {
+        return (variant == null) ? null : Arrays.<Object> asList(
+                variant.getClass(), variant.getMediaType(),
+                variant.getCharacterSet(), new ArrayList<Object>(
+                        variant.getLanguages()), new ArrayList<Object>(
+                        variant.getEncodings()));
+    }
+
     /**
      * Returns the best converter helper matching the given parameters.
      * 
@@ -54,12 +128,171 @@ public class ConverterUtils {
      */
     public static ConverterHelper getBestHelper(Object source, Variant target,
             Resource resource) {
+        Selections selections = getSelections();
+        List<Object> key = isCacheable(target) ? Arrays.<Object> asList(
+                (source == null) ? null : source.getClass(), describe(target))
+                : null;
+        Object cached = (key == null) ? null : selections.helpers.get(key);
+
+        if (cached == null) {
+            ConverterHelper helper = selectHelper(selections.converters,
+                    source, target, resource);
+            cached = (helper == null) ? NO_HELPER : helper;
+
+            if (key != null) {
+                selections.helpers.put(key, cached);
+            }
+        }
+
+        return (cached == NO_HELPER) ? null : (ConverterHelper) cached;
+    }
+
+    /**
+     * Returns the best converter helper matching the given parameters.
+     * 
+     * @param <T>
+     *            The target class.
+     * @param source
+     *            The source representation variant.
+     * @param target
+     *            The target class.
+     * @param resource
+     *            The parent resource.
+     * @return The matched converter helper or null.
+     */
+    public static <T> ConverterHelper getBestHelper(Representation source,
+            Class<T> target, Resource resource) {
+        Selections selections = getSelections();
+        List<Object> key = isCacheable(source) ? Arrays.<Object> asList(
+                describe(source), target) : null;
+        Object cached = (key == null) ? null : selections.helpers.get(key);
+
+        if (cached == null) {
+            ConverterHelper helper = selectHelper(selections.converters,
+                    source, target, resource);
+            cached = (helper == null) ? NO_HELPER : helper;
+
+            if (key != null) {
+                selections.helpers.put(key, cached);
+            }
+        }
+
+        return (cached == NO_HELPER) ? null : (ConverterHelper) cached;
+    }
+
+    /**
+     * Returns the cached selections, resetting them if the registered
+     * converter helpers have changed.
+     * 
+     * @return The cached selections.
+     */
+    private static Selections getSelections() {
+        List<ConverterHelper> converters = Engine.getInstance()
+                .getRegisteredConverters();
+        Selections result = selections;
+
+        if ((result == null) || !result.converters.equals(converters)) {
+            result = new Selections(converters);
+            selections = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the list of variants that can be converted from a given object
+     * class.
+     * 
+     * @param sourceClass
+     *            The source class.
+     * @param targetVariant
+     *            The expected representation metadata.
+     * @return The list of variants that can be converted.
+     */
+    public static List<VariantInfo> getVariants(Class<?> sourceClass,
+            Variant targetVariant) {
+        Selections selections = getSelections();
+        List<Object> key = isCacheable(targetVariant) ? Arrays.<Object> asList(
+                sourceClass, describe(targetVariant)) : null;
+        List<VariantInfo> cached = (key == null) ? null : selections.variants
+                .get(key);
+
+        if (cached == null) {
+            List<VariantInfo> variants = selectVariants(
+                    selections.converters, sourceClass, targetVariant);
+            cached = (variants == null) ? NO_VARIANTS : variants;
+
+            if (key != null) {
+                selections.variants.put(key, cached);
+            }
+        }
+
+        return (cached == NO_VARIANTS) ? null : new ArrayList<VariantInfo>(
+                cached);
+    }
+
+    /**
+     * Returns the list of variants that can be converted from a given object
+     * class by a specific converter helper.
+     * 
+     * @param helper
+     *            The converter helper.
+     * @param sourceClass
+     *            The source class.
+     * @return The list of variants that can be converted.
+     * @throws IOException
+     */
+    public static List<VariantInfo> getVariants(ConverterHelper helper,
+            Class<?> sourceClass) throws IOException {
+        Selections selections = getSelections();
+        List<Object> key = Arrays.<Object> asList(helper, sourceClass);
+        List<VariantInfo> cached = selections.variants.get(key);
+
+        if (cached == null) {
+            List<VariantInfo> variants = helper.getVariants(sourceClass);
+            cached = (variants == null) ? NO_VARIANTS : variants;
+            selections.variants.put(key, cached);
+        }
+
+        return (cached == NO_VARIANTS) ? null : new ArrayList<VariantInfo>(
+                cached);
+    }
+
+    /**
+     * Indicates if selections for a variant can be cached. Media type
+     * parameters come from client headers and can take any value, so variants
+     * having some aren't cached.
+     * 
+     * @param variant
+     *            The variant.
+     * @return True if selections for the variant can be cached.
+     */
+    private static boolean isCacheable(Variant variant) {
+        return (variant == null) || (variant.getMediaType() == null)
+                || variant.getMediaType().getParameters().isEmpty();
+    }
+
+    /**
+     * Scores the given converter helpers and returns the best one.
+     * 
+     * @param converters
+     *            The converter helpers to score.
+     * @param source
+     *            The object to convert to a representation.
+     * @param target
+     *            The target representation variant.
+     * @param resource
+     *            The optional parent resource.
+     * @return The matched converter helper or null.
+     */
+    private static ConverterHelper selectHelper(
+            List<ConverterHelper> converters, Object source, Variant target,
+            Resource resource) {
         ConverterHelper result = null;
         float bestScore = -1.0F;
         float currentScore;
 
-        for (ConverterHelper ch : Engine.getInstance()
-                .getRegisteredConverters()) {
+        for (ConverterHelper ch : converters) {
             if (ch != null) {
                 try {
                     currentScore = ch.score(source, target, resource);
@@ -79,10 +312,12 @@ public class ConverterUtils {
     }
 
     /**
-     * Returns the best converter helper matching the given parameters.
+     * Scores the given converter helpers and returns the best one.
      * 
      * @param <T>
      *            The target class.
+     * @param converters
+     *            The converter helpers to score.
      * @param source
      *            The source representation variant.
      * @param target
@@ -91,14 +326,14 @@ public class ConverterUtils {
      *            The parent resource.
      * @return The matched converter helper or null.
      */
-    public static <T> ConverterHelper getBestHelper(Representation source,
+    private static <T> ConverterHelper selectHelper(
+            List<ConverterHelper> converters, Representation source,
             Class<T> target, Resource resource) {
         ConverterHelper result = null;
         float bestScore = -1.0F;
         float currentScore;
 
-        for (ConverterHelper ch : Engine.getInstance()
-                .getRegisteredConverters()) {
+        for (ConverterHelper ch : converters) {
             if (ch != null) {
                 currentScore = ch.score(source, target, resource);
 
@@ -113,21 +348,23 @@ public class ConverterUtils {
     }
 
     /**
-     * Returns the list of variants that can be converted from a given object
-     * class.
+     * Collects the list of variants that can be converted from a given object
+     * class by the given converter helpers.
      * 
+     * @param converters
+     *            The converter helpers to query.
      * @param sourceClass
      *            The source class.
      * @param targetVariant
      *            The expected representation metadata.
      * @return The list of variants that can be converted.
      */
-    public static List<VariantInfo> getVariants(Class<?> sourceClass,
+    private static List<VariantInfo> selectVariants(
+            List<ConverterHelper> converters, Class<?> sourceClass,
             Variant targetVariant) {
         List<VariantInfo> result = null;
 
-        for (ConverterHelper ch : Engine.getInstance()
-                .getRegisteredConverters()) {
+        for (ConverterHelper ch : converters) {
             if (ch != null) {
                 try {
                     result = ch.addVariants(sourceClass, targetVariant, result);
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.io;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import org.restlet.engine.util.Pool;
+
+/**
+ * Pools of reusable I/O buffers of {@link IoUtils#BUFFER_SIZE} elements. Each
+ * pool is bounded so that bursts of concurrent copies don't retain memory
+ * forever, extra buffers being simply left to the garbage collector when
+ * checked in.
+ * 
+ * @author Jerome Louvel
+ */
+public final class BufferPool {
+
+    /** Bounded pool of buffers. */
+    private static abstract class BoundedPool<T> extends Pool<T> {
+        @Override
+        protected Queue<T> createStore() {
+            return new ArrayBlockingQueue<T>(Math.max(1, CAPACITY));
+        }
+    }
+
+    /**
+     * The maximum number of idle buffers kept by each pool. It looks for the
+     * System property "org.restlet.engine.io.bufferPoolCapacity" and if not
+     * defined, uses the "64" default value.
+     */
+    public static final int CAPACITY = Integer.getInteger(
+            "org.restlet.engine.io.bufferPoolCapacity", 64);
+
+    /** The pool of byte arrays. */
+    private static final Pool<byte[]> BYTES = new BoundedPool<byte[]>() {
+        @Override
+        protected byte[] createObject() {
+            return new byte[IoUtils.BUFFER_SIZE];
+        }
+    };
+
+    /** The pool of char arrays. */
+    private static final Pool<char[]> CHARS = new BoundedPool<char[]>() {
+        @Override
+        protected char[] createObject() {
+            return new char[IoUtils.BUFFER_SIZE];
+        }
+    };
+
+    /**
+     * Checks in a byte array previously checked out. Arrays of another size
+     * are ignored.
+     * 
+     * @param buffer
+     *            The byte array to check in.
+     */
+    public static void checkin(byte[] buffer) {
+        if ((buffer != null) && (buffer.length == IoUtils.BUFFER_SIZE)) {
+            BYTES.checkin(buffer);
+        }
+    }
+
+    /**
+     * Checks in a char array previously checked out. Arrays of another size
+     * are ignored.
+     * 
+     * @param buffer
+     *            The char array to check in.
+     */
+    public static void checkin(char[] buffer) {
+        if ((buffer != null) && (buffer.length == IoUtils.BUFFER_SIZE)) {
+            CHARS.checkin(buffer);
+        }
+    }
+
+    /**
+     * Checks out a byte array. Its content is undefined.
+     * 
+     * @return A byte array of {@link IoUtils#BUFFER_SIZE} bytes.
+     */
+    public static byte[] checkoutBytes() {
+        return BYTES.checkout();
+    }
+
+    /**
+     * Checks out a char array. Its content is undefined.
+     * 
+     * @return A char array of {@link IoUtils#BUFFER_SIZE} chars.
+     */
+    public static char[] checkoutChars() {
+        return CHARS.checkout();
+    }
+
+    /**
+     * Private constructor to ensure that the class acts as a true utility class
+     * i.e. it isn't instantiable and extensible.
+     */
+    private BufferPool() {
+    }
+
+}
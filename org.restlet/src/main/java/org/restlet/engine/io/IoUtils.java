@@ -84,10 +84,14 @@ public class IoUtils {
         if (inputStream != null) {
             if (outputStream != null) {
                 int bytesRead;
-                byte[] buffer = new byte[2048];
+                byte[] buffer = BufferPool.checkoutBytes();
 
-                while ((bytesRead = inputStream.read(buffer)) > 0) {
-                    outputStream.write(buffer, 0, bytesRead);
+                try {
+                    while ((bytesRead = inputStream.read(buffer)) > 0) {
+                        outputStream.write(buffer, 0, bytesRead);
+                    }
+                } finally {
+                    BufferPool.checkin(buffer);
                 }
 
                 outputStream.flush();
@@ -115,10 +119,14 @@ public class IoUtils {
     public static void copy(InputStream inputStream,
             java.io.RandomAccessFile randomAccessFile) throws IOException {
         int bytesRead;
-        byte[] buffer = new byte[2048];
+        byte[] buffer = BufferPool.checkoutBytes();
 
-        while ((bytesRead = inputStream.read(buffer)) > 0) {
-            randomAccessFile.write(buffer, 0, bytesRead);
+        try {
+            while ((bytesRead = inputStream.read(buffer)) > 0) {
+                randomAccessFile.write(buffer, 0, bytesRead);
+            }
+        } finally {
+            BufferPool.checkin(buffer);
         }
 
         inputStream.close();
@@ -137,10 +145,14 @@ public class IoUtils {
     public static void copy(Reader reader, java.io.Writer writer)
             throws IOException {
         int charsRead;
-        char[] buffer = new char[2048];
+        char[] buffer = BufferPool.checkoutChars();
 
-        while ((charsRead = reader.read(buffer)) > 0) {
-            writer.write(buffer, 0, charsRead);
+        try {
+            while ((charsRead = reader.read(buffer)) > 0) {
+                writer.write(buffer, 0, charsRead);
+            }
+        } finally {
+            BufferPool.checkin(buffer);
         }
 
         writer.flush();
@@ -241,13 +253,18 @@ public class IoUtils {
         long result = -1L;
 
         if (input != null) {
-            byte[] buf = new byte[2048];
-            int read = input.read(buf);
-            result = (read == -1) ? -1 : 0;
+            byte[] buf = BufferPool.checkoutBytes();
+
+            try {
+                int read = input.read(buf);
+                result = (read == -1) ? -1 : 0;
 
-            while (read != -1) {
-                result += read;
-                read = input.read(buf);
+                while (read != -1) {
+                    result += read;
+                    read = input.read(buf);
+                }
+            } finally {
+                BufferPool.checkin(buf);
             }
         }
 
@@ -654,17 +671,22 @@ public class IoUtils {
         if (reader != null) {
             try {
                 StringBuilder sb = new StringBuilder();
-                BufferedReader br = (reader instanceof BufferedReader) ? (BufferedReader) reader
-                        : new BufferedReader(reader, BUFFER_SIZE);
-                char[] buffer = new char[2048];
-                int charsRead = br.read(buffer);
-
-                while (charsRead != -1) {
-                    sb.append(buffer, 0, charsRead);
-                    charsRead = br.read(buffer);
+
+                // The pooled buffer is as large as a BufferedReader's one
+                char[] buffer = BufferPool.checkoutChars();
+
+                try {
+                    int charsRead = reader.read(buffer);
+
+                    while (charsRead != -1) {
+                        sb.append(buffer, 0, charsRead);
+                        charsRead = reader.read(buffer);
+                    }
+                } finally {
+                    BufferPool.checkin(buffer);
                 }
 
-                br.close();
+                reader.close();
                 result = sb.toString();
             } catch (Exception e) {
                 // Returns an empty string
@@ -26,28 +26,134 @@ package org.restlet.engine.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Pipe stream that pipes output streams into input streams. Implementation
- * based on a shared synchronized queue.
+ * based on a bounded ring buffer of bytes shared by a single writer thread and
+ * a single reader thread. Bulk reads and writes copy whole chunks in and out of
+ * the buffer and the threads only signal each other when the buffer switches
+ * between empty and full.
  * 
  * @author Jerome Louvel
  */
 public class PipeStream {
 
-    /** The queue timeout. */
-    private static final long QUEUE_TIMEOUT = 5;
+    /**
+     * The default capacity of the ring buffer. It looks for the System
+     * property "org.restlet.engine.io.pipeCapacity" and if not defined, uses
+     * the {@link IoUtils#BUFFER_SIZE} value.
+     */
+    public static final int DEFAULT_CAPACITY = Integer.getInteger(
+            "org.restlet.engine.io.pipeCapacity", IoUtils.BUFFER_SIZE);
+
+    /** The default timeout in milliseconds waiting for the other side. */
+    public static final long DEFAULT_TIMEOUT_MS = 5000;
+
+    /** The ring buffer. */
+    private final byte[] buffer;
+
+    /** Indicates if the input side was closed. */
+    private boolean inputClosed;
+
+    /** Indicates if the output side was closed. */
+    private boolean outputClosed;
 
-    /** The supporting synchronized queue. */
-    private final BlockingQueue<Integer> queue;
+    /** The index of the next byte to read. */
+    private int readIndex;
+
+    /** The number of bytes available for reading. */
+    private int size;
+
+    /** The maximum time in milliseconds waiting for the other side. */
+    private final long timeoutMs;
 
     /** Constructor. */
     public PipeStream() {
-        this.queue = new ArrayBlockingQueue<Integer>(1024);
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity
+     *            The capacity of the ring buffer in bytes.
+     */
+    public PipeStream(int capacity) {
+        this(capacity, DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity
+     *            The capacity of the ring buffer in bytes.
+     * @param timeoutMs
+     *            The maximum time in milliseconds one side waits for the other
+     *            one to make progress.
+     */
+    public PipeStream(int capacity, long timeoutMs) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "The pipe capacity must be strictly positive");
+        }
+
+        this.buffer = new byte[capacity];
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Returns the number of bytes that can be read without blocking.
+     * 
+     * @return The number of bytes that can be read without blocking.
+     */
+    private synchronized int available() {
+        return this.size;
+    }
+
+    /**
+     * Waits to be notified by the other side of the pipe.
+     * 
+     * @param deadline
+     *            The time after which waiting fails.
+     * @param timeoutMessage
+     *            The message of the exception thrown on timeout.
+     * @throws IOException
+     */
+    private void await(long deadline, String timeoutMessage)
+            throws IOException {
+        long remaining = deadline - System.currentTimeMillis();
+
+        if (remaining <= 0) {
+            throw new IOException(timeoutMessage);
+        }
+
+        try {
+            wait(remaining);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(
+                    "Interruption occurred while waiting on the pipe");
+        }
+    }
+
+    /**
+     * Closes the input side of the pipe. Pending and future writes fail.
+     */
+    private synchronized void closeInput() {
+        this.inputClosed = true;
+        this.size = 0;
+        notifyAll();
+    }
+
+    /**
+     * Closes the output side of the pipe. The reader receives the remaining
+     * bytes then reaches the end of the stream.
+     */
+    private synchronized void closeOutput() {
+        this.outputClosed = true;
+        notifyAll();
     }
 
     /**
@@ -57,29 +163,32 @@ public class PipeStream {
      */
     public InputStream getInputStream() {
         return new InputStream() {
-            private boolean endReached = false;
+            /** Scratch array for single byte reads. */
+            private final byte[] single = new byte[1];
+
+            @Override
+            public int available() throws IOException {
+                return PipeStream.this.available();
+            }
+
+            @Override
+            public void close() throws IOException {
+                closeInput();
+            }
 
             @Override
             public int read() throws IOException {
-                try {
-                    if (this.endReached) {
-                        return -1;
-                    }
-
-                    final Integer value = queue.poll(QUEUE_TIMEOUT,
-                            TimeUnit.SECONDS);
-                    this.endReached = (value == -1);
-
-                    if (value == null) {
-                        throw new IOException(
-                                "Timeout while reading from the queue-based input stream");
-                    } else {
-                        return value.intValue();
-                    }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
+                int result = read(this.single, 0, 1);
+                return (result == -1) ? -1 : (this.single[0] & 0xff);
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if ((off < 0) || (len < 0) || (len > b.length - off)) {
+                    throw new IndexOutOfBoundsException();
                 }
+
+                return (len == 0) ? 0 : PipeStream.this.read(b, off, len);
             }
         };
     }
@@ -91,32 +200,125 @@ public class PipeStream {
      */
     public OutputStream getOutputStream() {
         return new OutputStream() {
+            /** Scratch array for single byte writes. */
+            private final byte[] single = new byte[1];
+
             @Override
-            public void write(int b) throws IOException {
-                try {
-                    if (!queue.offer(b & 0xff, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
-                        throw new IOException(
-                                "Timeout while writing to the queue-based output stream");
-                    }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
-                }
+            public void close() throws IOException {
+                closeOutput();
             }
 
             @Override
-            public void close() throws IOException {
-                try {
-                    if (!queue.offer(-1, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
-                        throw new IOException(
-                                "Timeout while writing to the queue-based output stream");
-                    }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
+            public void write(byte[] b, int off, int len) throws IOException {
+                if ((off < 0) || (len < 0) || (len > b.length - off)) {
+                    throw new IndexOutOfBoundsException();
                 }
+
+                PipeStream.this.write(b, off, len);
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                this.single[0] = (byte) b;
+                write(this.single, 0, 1);
             }
         };
     }
 
+    /**
+     * Reads up to len bytes from the pipe, waiting until at least one byte is
+     * available or the output side is closed.
+     * 
+     * @param b
+     *            The target array.
+     * @param off
+     *            The start offset in the target array.
+     * @param len
+     *            The maximum number of bytes to read.
+     * @return The number of bytes read or -1 if the end was reached.
+     * @throws IOException
+     */
+    private synchronized int read(byte[] b, int off, int len)
+            throws IOException {
+        if (this.inputClosed) {
+            throw new IOException("The pipe input stream is closed");
+        }
+
+        long deadline = System.currentTimeMillis() + this.timeoutMs;
+
+        while (this.size == 0) {
+            if (this.outputClosed) {
+                return -1;
+            }
+
+            await(deadline,
+                    "Timeout while reading from the pipe-based input stream");
+        }
+
+        boolean wasFull = (this.size == this.buffer.length);
+        int count = Math.min(len, this.size);
+        int first = Math.min(count, this.buffer.length - this.readIndex);
+        System.arraycopy(this.buffer, this.readIndex, b, off, first);
+        System.arraycopy(this.buffer, 0, b, off + first, count - first);
+        this.readIndex = (this.readIndex + count) % this.buffer.length;
+        this.size -= count;
+
+        if (wasFull) {
+            notifyAll();
+        }
+
+        return count;
+    }
+
+    /**
+     * Writes len bytes into the pipe, waiting for free space as needed.
+     * 
+     * @param b
+     *            The source array.
+     * @param off
+     *            The start offset in the source array.
+     * @param len
+     *            The number of bytes to write.
+     * @throws IOException
+     */
+    private synchronized void write(byte[] b, int off, int len)
+            throws IOException {
+        if (this.outputClosed) {
+            throw new IOException("The pipe output stream is closed");
+        }
+
+        long deadline = System.currentTimeMillis() + this.timeoutMs;
+
+        while (len > 0) {
+            if (this.inputClosed) {
+                throw new IOException("The pipe input stream is closed");
+            }
+
+            int free = this.buffer.length - this.size;
+
+            if (free == 0) {
+                await(deadline,
+                        "Timeout while writing to the pipe-based output stream");
+                continue;
+            }
+
+            boolean wasEmpty = (this.size == 0);
+            int count = Math.min(len, free);
+            int writeIndex = (this.readIndex + this.size) % this.buffer.length;
+            int first = Math.min(count, this.buffer.length - writeIndex);
+            System.arraycopy(b, off, this.buffer, writeIndex, first);
+            System.arraycopy(b, off + first, this.buffer, 0, count - first);
+            this.size += count;
+            off += count;
+            len -= count;
+
+            // Progress was made, restart the timeout
+            deadline = System.currentTimeMillis() + this.timeoutMs;
+
+            if (wasEmpty) {
+                notifyAll();
+            }
+        }
+    }
+
 }
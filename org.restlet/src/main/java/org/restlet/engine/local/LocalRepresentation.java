@@ -0,0 +1,70 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.local;
+
+import org.restlet.representation.Representation;
+import org.restlet.util.WrapperRepresentation;
+
+/**
+ * Representation converted from a Java object and exchanged over an
+ * in-process RIAP call. It behaves like the wrapped representation, which is
+ * only serialized if the entity is actually read, but also remembers the
+ * original object so that the receiving resource can get it back without
+ * parsing.<br>
+ * <br>
+ * Note that the same object instance is shared by both sides of the call.
+ * 
+ * @author Jerome Louvel
+ * @see org.restlet.service.ConverterService#isObjectPassing()
+ */
+public class LocalRepresentation extends WrapperRepresentation {
+
+    /** The original Java object. */
+    private final Object object;
+
+    /**
+     * Constructor.
+     * 
+     * @param wrappedRepresentation
+     *            The representation converted from the object.
+     * @param object
+     *            The original Java object.
+     */
+    public LocalRepresentation(Representation wrappedRepresentation,
+            Object object) {
+        super(wrappedRepresentation);
+        this.object = object;
+    }
+
+    /**
+     * Returns the original Java object.
+     * 
+     * @return The original Java object.
+     */
+    public Object getObject() {
+        return object;
+    }
+
+}
@@ -39,7 +39,6 @@ import org.restlet.engine.header.CookieReader;
 import org.restlet.engine.header.ExpectationReader;
 import org.restlet.engine.header.HeaderConstants;
 import org.restlet.engine.header.HeaderReader;
-import org.restlet.engine.header.PreferenceReader;
 import org.restlet.engine.header.RangeReader;
 import org.restlet.engine.header.RecipientInfoReader;
 import org.restlet.engine.header.StringReader;
@@ -350,40 +349,12 @@ public class HttpServerRequest extends Request {
             String acceptPatch = getHeaders().getValues(HeaderConstants.HEADER_ACCEPT_PATCH);
             String expect = getHeaders().getValues(HeaderConstants.HEADER_EXPECT);
 
-            // Parse the headers and update the call preferences
-
-            // Parse the Accept* headers. If an error occurs during the parsing
-            // of each header, the error is traced and we keep on with the other
-            // headers.
-            try {
-                PreferenceReader.addCharacterSets(acceptCharset, result);
-            } catch (Exception e) {
-                this.context.getLogger().info(e.getMessage());
-            }
-
-            try {
-                PreferenceReader.addEncodings(acceptEncoding, result);
-            } catch (Exception e) {
-                this.context.getLogger().info(e.getMessage());
-            }
-
-            try {
-                PreferenceReader.addLanguages(acceptLanguage, result);
-            } catch (Exception e) {
-                this.context.getLogger().info(e.getMessage());
-            }
-
-            try {
-                PreferenceReader.addMediaTypes(acceptMediaType, result);
-            } catch (Exception e) {
-                this.context.getLogger().info(e.getMessage());
-            }
-
-            try {
-                PreferenceReader.addPatches(acceptPatch, result);
-            } catch (Exception e) {
-                this.context.getLogger().info(e.getMessage());
-            }
+            // The Accept* headers are only parsed when the matching call
+            // preferences are accessed. If an error occurs during the parsing
+            // of each header, the error is traced and we keep on with the
+            // other headers.
+            result.setPreferenceHeaders(acceptCharset, acceptEncoding,
+                    acceptLanguage, acceptMediaType, acceptPatch);
 
             try {
                 ExpectationReader.addValues(expect, result);
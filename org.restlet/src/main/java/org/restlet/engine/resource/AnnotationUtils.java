@@ -26,6 +26,10 @@ package org.restlet.engine.resource;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -48,6 +52,16 @@ public class AnnotationUtils {
     /** Annotation info cache. */
     private static final ConcurrentMap<Class<?>, List<AnnotationInfo>> cache = new ConcurrentHashMap<Class<?>, List<AnnotationInfo>>();
 
+    /** Generic type of the cached method invokers. */
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(
+            Object.class, Object.class, Object[].class);
+
+    /** Method invoker cache, keyed by annotation descriptor. */
+    private static final ConcurrentMap<MethodAnnotationInfo, MethodHandle> invokers = new ConcurrentHashMap<MethodAnnotationInfo, MethodHandle>();
+
+    /** Method annotation dispatch table cache. */
+    private static final ConcurrentMap<Class<?>, MethodAnnotationTable> tables = new ConcurrentHashMap<Class<?>, MethodAnnotationTable>();
+
     /** Current instance. */
     private static AnnotationUtils instance = new AnnotationUtils();
 
@@ -223,6 +237,41 @@ public class AnnotationUtils {
      */
     public void clearCache() {
         cache.clear();
+        invokers.clear();
+        tables.clear();
+    }
+
+    /**
+     * Creates a method handle invoking the annotated Java method. The handle
+     * takes the target object and an array of parameters, and returns the
+     * boxed result or null for void methods. If the method can't be looked up
+     * as a public member, the handle falls back to reflective invocation.
+     * 
+     * @param annotationInfo
+     *            The annotation descriptor.
+     * @return The method invoker.
+     */
+    private MethodHandle createInvoker(MethodAnnotationInfo annotationInfo) {
+        java.lang.reflect.Method javaMethod = annotationInfo.getJavaMethod();
+        MethodHandle result;
+
+        try {
+            result = MethodHandles.publicLookup().unreflect(javaMethod)
+                    .asSpreader(Object[].class,
+                            javaMethod.getParameterTypes().length);
+        } catch (IllegalAccessException e) {
+            try {
+                result = MethodHandles
+                        .publicLookup()
+                        .findVirtual(java.lang.reflect.Method.class, "invoke",
+                                INVOKER_TYPE).bindTo(javaMethod);
+            } catch (ReflectiveOperationException roe) {
+                throw new IllegalStateException(
+                        "Unable to create an invoker for " + javaMethod, roe);
+            }
+        }
+
+        return result.asType(INVOKER_TYPE);
     }
 
     /**
@@ -232,7 +281,7 @@ public class AnnotationUtils {
      *            The resource class to introspect.
      * @return The list of annotation descriptors.
      */
-    public synchronized List<AnnotationInfo> getAnnotations(Class<?> clazz) {
+    public List<AnnotationInfo> getAnnotations(Class<?> clazz) {
         List<AnnotationInfo> result = cache.get(clazz);
 
         if (result == null) {
@@ -326,6 +375,58 @@ public class AnnotationUtils {
         return null;
     }
 
+    /**
+     * Returns the cached invoker of the annotated Java method, creating it on
+     * first use.
+     * 
+     * @param annotationInfo
+     *            The annotation descriptor.
+     * @return The method invoker.
+     */
+    private MethodHandle getInvoker(MethodAnnotationInfo annotationInfo) {
+        MethodHandle result = invokers.get(annotationInfo);
+
+        if (result == null) {
+            result = createInvoker(annotationInfo);
+
+            // Put the invoker in the cache if no one was previously present
+            MethodHandle prev = invokers.putIfAbsent(annotationInfo, result);
+
+            if (prev != null) {
+                // Reuse the previous entry
+                result = prev;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the method annotation dispatch table for the given resource
+     * class. The table is built once on first use.
+     * 
+     * @param clazz
+     *            The resource class to introspect.
+     * @return The method annotation dispatch table.
+     */
+    public MethodAnnotationTable getMethodAnnotationTable(Class<?> clazz) {
+        MethodAnnotationTable result = tables.get(clazz);
+
+        if (result == null) {
+            result = new MethodAnnotationTable(getAnnotations(clazz));
+
+            // Put the table in the cache if no one was previously present
+            MethodAnnotationTable prev = tables.putIfAbsent(clazz, result);
+
+            if (prev != null) {
+                // Reuse the previous entry
+                result = prev;
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns an instance of {@link Method} according to the given annotations.
      *
@@ -409,4 +510,37 @@ public class AnnotationUtils {
         return null;
     }
 
+    /**
+     * Invokes the annotated Java method on the given target object. Relies on
+     * a cached method handle instead of reflection so that the call can be
+     * inlined by the JIT compiler. As with
+     * {@link java.lang.reflect.Method#invoke(Object, Object...)}, exceptions
+     * thrown by the annotated method are wrapped into an
+     * {@link InvocationTargetException}.
+     * 
+     * @param annotationInfo
+     *            The annotation descriptor.
+     * @param target
+     *            The object hosting the annotated method.
+     * @param parameters
+     *            The method parameters.
+     * @return The method result or null for void methods.
+     * @throws IllegalAccessException
+     * @throws InvocationTargetException
+     */
+    public Object invoke(MethodAnnotationInfo annotationInfo, Object target,
+            Object... parameters) throws IllegalAccessException,
+            InvocationTargetException {
+        try {
+            return (Object) getInvoker(annotationInfo).invokeExact(target,
+                    parameters);
+        } catch (IllegalAccessException e) {
+            throw e;
+        } catch (InvocationTargetException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
 }
@@ -26,6 +26,7 @@ package org.restlet.engine.resource;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
@@ -52,6 +53,80 @@ import org.restlet.util.Parameter;
  */
 public class MethodAnnotationInfo extends AnnotationInfo {
 
+    /**
+     * Variants resolved for a given pair of metadata and converter services.
+     */
+    private static final class ResolvedVariants {
+
+        /** The converter service used for the resolution. */
+        private final org.restlet.service.ConverterService converterService;
+
+        /** The media types declared by the input part of the annotation. */
+        private final List<MediaType> inputMediaTypes;
+
+        /** The metadata service used for the resolution. */
+        private final MetadataService metadataService;
+
+        /** The request variants. */
+        private final List<Variant> requestVariants;
+
+        /** The response variants. */
+        private final List<Variant> responseVariants;
+
+        /**
+         * Constructor.
+         * 
+         * @param metadataService
+         *            The metadata service used for the resolution.
+         * @param converterService
+         *            The converter service used for the resolution.
+         * @param inputMediaTypes
+         *            The media types declared by the input part of the
+         *            annotation.
+         * @param requestVariants
+         *            The request variants.
+         * @param responseVariants
+         *            The response variants.
+         */
+        private ResolvedVariants(MetadataService metadataService,
+                org.restlet.service.ConverterService converterService,
+                List<MediaType> inputMediaTypes,
+                List<Variant> requestVariants, List<Variant> responseVariants) {
+            this.metadataService = metadataService;
+            this.converterService = converterService;
+            this.inputMediaTypes = unmodifiable(inputMediaTypes);
+            this.requestVariants = unmodifiable(requestVariants);
+            this.responseVariants = unmodifiable(responseVariants);
+        }
+
+        /**
+         * Indicates if the variants were resolved with the given services.
+         * 
+         * @param metadataService
+         *            The metadata service.
+         * @param converterService
+         *            The converter service.
+         * @return True if the variants were resolved with the given services.
+         */
+        private boolean isResolvedWith(MetadataService metadataService,
+                org.restlet.service.ConverterService converterService) {
+            return (this.metadataService == metadataService)
+                    && (this.converterService == converterService);
+        }
+
+        /**
+         * Returns an unmodifiable copy of the given list or null.
+         * 
+         * @param list
+         *            The list to copy.
+         * @return An unmodifiable copy of the given list or null.
+         */
+        private static <T> List<T> unmodifiable(List<? extends T> list) {
+            return (list == null) ? null : Collections
+                    .unmodifiableList(new ArrayList<T>(list));
+        }
+    }
+
     /** The input part of the annotation value. */
     private final String input;
 
@@ -61,6 +136,15 @@ public class MethodAnnotationInfo extends AnnotationInfo {
     /** The optional query part of the annotation value. */
     private final String query;
 
+    /** The query parameters required by the annotation value. */
+    private final Form queryParameters;
+
+    /** The resolved actual input types of the Java method. */
+    private volatile Class<?>[] javaInputTypes;
+
+    /** The variants resolved for the last services used. */
+    private volatile ResolvedVariants resolvedVariants;
+
     /** The matching Restlet method. */
     private final Method restletMethod;
 
@@ -107,6 +191,9 @@ public class MethodAnnotationInfo extends AnnotationInfo {
             this.input = null;
             this.output = null;
         }
+
+        this.queryParameters = (this.query == null) ? null : new Form(
+                this.query);
     }
 
     /**
@@ -154,19 +241,43 @@ public class MethodAnnotationInfo extends AnnotationInfo {
     }
 
     /**
-     * Returns the input types of the Java method.
+     * Returns the input types of the Java method. The array is computed once
+     * and shared, so it must not be modified.
      * 
      * @return The input types of the Java method.
      */
     public Class<?>[] getJavaInputTypes() {
-        int count = getJavaMethod().getParameterTypes().length;
-        Class<?>[] classes = new Class[count];
+        Class<?>[] result = this.javaInputTypes;
 
-        for (int i = 0; i < count; i++) {
-            classes[i] = getJavaInputType(i);
+        if (result == null) {
+            int count = getJavaMethod().getParameterTypes().length;
+            result = new Class[count];
+
+            for (int i = 0; i < count; i++) {
+                result[i] = getJavaInputType(i);
+            }
+
+            this.javaInputTypes = result;
         }
 
-        return classes;
+        return result;
+    }
+
+    /**
+     * Returns the media types declared by the input part of the annotation
+     * value.
+     * 
+     * @param metadataService
+     *            The metadata service to use.
+     * @param converterService
+     *            The converter service to use.
+     * @return The unmodifiable list of input media types or null.
+     * @throws IOException
+     */
+    public List<MediaType> getInputMediaTypes(MetadataService metadataService,
+            org.restlet.service.ConverterService converterService)
+            throws IOException {
+        return getResolvedVariants(metadataService, converterService).inputMediaTypes;
     }
 
     /**
@@ -198,64 +309,67 @@ public class MethodAnnotationInfo extends AnnotationInfo {
     }
 
     /**
-     * Returns a list of request variants based on the annotation value.
+     * Returns a list of request variants based on the annotation value. The
+     * list is resolved once for a given pair of services.
      * 
      * @param metadataService
      *            The metadata service to use.
-     * @return A list of request variants.
+     * @param converterService
+     *            The converter service to use.
+     * @return An unmodifiable list of request variants.
      * @throws IOException
      */
-    @SuppressWarnings("unchecked")
     public List<Variant> getRequestVariants(MetadataService metadataService,
             org.restlet.service.ConverterService converterService)
             throws IOException {
-        List<Variant> result = null;
-        Class<?>[] classes = getJavaInputTypes();
-
-        if (classes != null && classes.length >= 1) {
-            result = getVariants(metadataService, getInput());
-
-            if (result == null) {
-                Class<?> inputClass = classes[0];
+        return getResolvedVariants(metadataService, converterService).requestVariants;
+    }
 
-                if (inputClass != null) {
-                    result = (List<Variant>) converterService.getVariants(
-                            inputClass, null);
-                }
-            }
+    /**
+     * Returns the variants resolved for the given services, resolving them if
+     * needed.
+     * 
+     * @param metadataService
+     *            The metadata service to use.
+     * @param converterService
+     *            The converter service to use.
+     * @return The resolved variants.
+     * @throws IOException
+     */
+    private ResolvedVariants getResolvedVariants(
+            MetadataService metadataService,
+            org.restlet.service.ConverterService converterService)
+            throws IOException {
+        ResolvedVariants result = this.resolvedVariants;
+
+        if ((result == null)
+                || !result.isResolvedWith(metadataService, converterService)) {
+            result = new ResolvedVariants(metadataService, converterService,
+                    (getInput() == null) ? null
+                            : metadataService.getAllMediaTypes(getInput()),
+                    resolveRequestVariants(metadataService, converterService),
+                    resolveResponseVariants(metadataService, converterService));
+            this.resolvedVariants = result;
         }
 
         return result;
     }
 
     /**
-     * Returns a list of response variants based on the annotation value.
+     * Returns a list of response variants based on the annotation value. The
+     * list is resolved once for a given pair of services.
      * 
      * @param metadataService
      *            The metadata service to use.
      * @param converterService
      *            The converter service to use.
-     * @return A list of response variants.
+     * @return An unmodifiable list of response variants.
      * @throws IOException
      */
-    @SuppressWarnings("unchecked")
     public List<Variant> getResponseVariants(MetadataService metadataService,
             org.restlet.service.ConverterService converterService)
             throws IOException {
-        List<Variant> result = null;
-
-        if ((getJavaOutputType() != null)
-                && (getJavaOutputType() != void.class)
-                && (getJavaOutputType() != Void.class)) {
-            result = getVariants(metadataService, getOutput());
-
-            if (result == null) {
-                result = (List<Variant>) converterService.getVariants(
-                        getJavaOutputType(), null);
-            }
-        }
-
-        return result;
+        return getResolvedVariants(metadataService, converterService).responseVariants;
     }
 
     /**
@@ -386,10 +500,8 @@ public class MethodAnnotationInfo extends AnnotationInfo {
         boolean result = true;
 
         // Verify query parameters
-        if (getQuery() != null) {
-            Form requiredParams = new Form(getQuery());
-
-            for (Iterator<Parameter> iter = requiredParams.iterator(); iter
+        if (this.queryParameters != null) {
+            for (Iterator<Parameter> iter = this.queryParameters.iterator(); iter
                     .hasNext() && result;) {
                 result = queryParams.contains(iter.next());
             }
@@ -450,6 +562,69 @@ public class MethodAnnotationInfo extends AnnotationInfo {
         return result;
     }
 
+    /**
+     * Resolves the list of request variants based on the annotation value.
+     * 
+     * @param metadataService
+     *            The metadata service to use.
+     * @param converterService
+     *            The converter service to use.
+     * @return A list of request variants.
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    private List<Variant> resolveRequestVariants(MetadataService metadataService,
+            org.restlet.service.ConverterService converterService)
+            throws IOException {
+        List<Variant> result = null;
+        Class<?>[] classes = getJavaInputTypes();
+
+        if (classes != null && classes.length >= 1) {
+            result = getVariants(metadataService, getInput());
+
+            if (result == null) {
+                Class<?> inputClass = classes[0];
+
+                if (inputClass != null) {
+                    result = (List<Variant>) converterService.getVariants(
+                            inputClass, null);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Resolves the list of response variants based on the annotation value.
+     * 
+     * @param metadataService
+     *            The metadata service to use.
+     * @param converterService
+     *            The converter service to use.
+     * @return A list of response variants.
+     * @throws IOException
+     */
+    @SuppressWarnings("unchecked")
+    private List<Variant> resolveResponseVariants(MetadataService metadataService,
+            org.restlet.service.ConverterService converterService)
+            throws IOException {
+        List<Variant> result = null;
+
+        if ((getJavaOutputType() != null)
+                && (getJavaOutputType() != void.class)
+                && (getJavaOutputType() != Void.class)) {
+            result = getVariants(metadataService, getOutput());
+
+            if (result == null) {
+                result = (List<Variant>) converterService.getVariants(
+                        getJavaOutputType(), null);
+            }
+        }
+
+        return result;
+    }
+
     @Override
     public String toString() {
         return "MethodAnnotationInfo [javaMethod: " + javaMethod
@@ -0,0 +1,154 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.resource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.restlet.message.Method;
+import org.restlet.representation.Representation;
+import org.restlet.service.ConverterService;
+import org.restlet.service.MetadataService;
+import org.restlet.util.Form;
+
+/**
+ * Dispatch table of the method annotations declared by a resource class. The
+ * descriptors are grouped by Restlet method once, so that dispatching a call
+ * only walks the candidates for the request method. Each descriptor caches its
+ * resolved request and response variants.<br>
+ * <br>
+ * Instances are immutable and can be shared by several threads.
+ * 
+ * @author Jerome Louvel
+ */
+public class MethodAnnotationTable {
+
+    /** The method annotation descriptors grouped by Restlet method. */
+    private final Map<Method, List<MethodAnnotationInfo>> annotations;
+
+    /**
+     * Constructor.
+     * 
+     * @param annotations
+     *            The annotation descriptors of the resource class.
+     */
+    public MethodAnnotationTable(List<AnnotationInfo> annotations) {
+        Map<Method, List<MethodAnnotationInfo>> map = new LinkedHashMap<Method, List<MethodAnnotationInfo>>();
+
+        if (annotations != null) {
+            for (AnnotationInfo annotationInfo : annotations) {
+                if (annotationInfo instanceof MethodAnnotationInfo) {
+                    MethodAnnotationInfo methodAnnotationInfo = (MethodAnnotationInfo) annotationInfo;
+                    List<MethodAnnotationInfo> candidates = map
+                            .get(methodAnnotationInfo.getRestletMethod());
+
+                    if (candidates == null) {
+                        candidates = new ArrayList<MethodAnnotationInfo>();
+                        map.put(methodAnnotationInfo.getRestletMethod(),
+                                candidates);
+                    }
+
+                    candidates.add(methodAnnotationInfo);
+                }
+            }
+        }
+
+        for (Map.Entry<Method, List<MethodAnnotationInfo>> entry : map
+                .entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+
+        this.annotations = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Returns the method annotation descriptors declared for the given Restlet
+     * method, in declaration order.
+     * 
+     * @param restletMethod
+     *            The Restlet method.
+     * @return The unmodifiable list of candidate descriptors, never null.
+     */
+    public List<MethodAnnotationInfo> getAnnotations(Method restletMethod) {
+        List<MethodAnnotationInfo> result = this.annotations.get(restletMethod);
+        return (result == null) ? Collections
+                .<MethodAnnotationInfo> emptyList() : result;
+    }
+
+    /**
+     * Returns the first annotation descriptor matching the given Restlet
+     * method.
+     * 
+     * @param restletMethod
+     *            The method to match.
+     * @param query
+     *            The query parameters.
+     * @param entity
+     *            The request entity to match or null if no entity is provided.
+     * @param metadataService
+     *            The metadata service to use.
+     * @param converterService
+     *            The converter service to use.
+     * @return The annotation descriptor.
+     * @throws IOException
+     */
+    public MethodAnnotationInfo getMethodAnnotation(Method restletMethod,
+            Form query, Representation entity,
+            MetadataService metadataService, ConverterService converterService)
+            throws IOException {
+        for (MethodAnnotationInfo annotationInfo : getAnnotations(restletMethod)) {
+            if (annotationInfo.isCompatible(restletMethod, query, entity,
+                    metadataService, converterService)) {
+                return annotationInfo;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the set of annotated Restlet methods.
+     * 
+     * @return The unmodifiable set of annotated Restlet methods.
+     */
+    public Set<Method> getMethods() {
+        return this.annotations.keySet();
+    }
+
+    /**
+     * Indicates if no method annotation was declared.
+     * 
+     * @return True if no method annotation was declared.
+     */
+    public boolean isEmpty() {
+        return this.annotations.isEmpty();
+    }
+
+}
@@ -25,26 +25,31 @@
 package org.restlet.engine.util;
 
 import org.restlet.Context;
+import org.restlet.engine.io.IoUtils;
 import org.restlet.representation.CharacterSet;
 import org.restlet.representation.Representation;
 import org.restlet.util.Form;
 import org.restlet.util.Parameter;
 import org.restlet.util.Series;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
- * Form reader.
+ * Form reader. Parameters can be read all at once or pulled one at a time via
+ * {@link #iterator()}, which keeps huge forms out of memory.
  * 
  * @author Jerome Louvel
  */
-public class FormReader {
+public class FormReader implements Iterable<Parameter> {
     /** The encoding to use, decoding is enabled, see {@link #decode}. */
     private volatile CharacterSet characterSet;
 
@@ -90,6 +95,14 @@ public class FormReader {
         this.stream = representation.getStream();
         this.separator = '&';
 
+        if ((this.stream != null)
+                && !(this.stream instanceof BufferedInputStream)
+                && !(this.stream instanceof ByteArrayInputStream)) {
+            // Parameters are read byte per byte
+            this.stream = new BufferedInputStream(this.stream,
+                    IoUtils.BUFFER_SIZE);
+        }
+
         if (representation.getCharacterSet() != null) {
             this.characterSet = representation.getCharacterSet();
         } else {
@@ -184,6 +197,73 @@ public class FormReader {
         }
     }
 
+    /**
+     * Closes the form stream.
+     */
+    private void close() {
+        if (this.stream != null) {
+            try {
+                this.stream.close();
+            } catch (IOException ioe) {
+                Context.getCurrentLogger().warn("Unable to close the form input stream", ioe);
+            }
+        }
+    }
+
+    /**
+     * Returns a pull-based iterator reading the parameters one at a time. The
+     * form stream is closed once the last parameter is read. As the parameters
+     * are read from the form stream, the iteration can only be done once.
+     * 
+     * @return A pull-based iterator over the parameters.
+     */
+    @Override
+    public Iterator<Parameter> iterator() {
+        return new Iterator<Parameter>() {
+
+            /** The next parameter. */
+            private Parameter next;
+
+            /** Indicates if the end of the form has been reached. */
+            private boolean ended;
+
+            @Override
+            public boolean hasNext() {
+                if ((this.next == null) && !this.ended) {
+                    try {
+                        this.next = readNextParameter();
+                    } catch (IOException ioe) {
+                        Context.getCurrentLogger()
+                                .warn("Unable to parse a form parameter. Skipping the remaining parameters.", ioe);
+                    }
+
+                    if (this.next == null) {
+                        this.ended = true;
+                        close();
+                    }
+                }
+
+                return this.next != null;
+            }
+
+            @Override
+            public Parameter next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                Parameter result = this.next;
+                this.next = null;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
     /**
      * Reads all the parameters.
      * 
@@ -29,6 +29,7 @@ import org.restlet.representation.CharacterSet;
 import org.restlet.representation.MediaType;
 import org.restlet.representation.Representation;
 import org.restlet.util.Form;
+import org.restlet.util.FormView;
 import org.restlet.util.Parameter;
 import org.restlet.util.Reference;
 
@@ -294,10 +295,8 @@ public class FormUtils {
     public static void parse(Form form, String parametersString,
             CharacterSet characterSet, boolean decode, char separator) {
         if ((parametersString != null) && !parametersString.equals("")) {
-            FormReader fr = null;
-            fr = new FormReader(parametersString, characterSet, separator,
-                    decode);
-            fr.addParameters(form);
+            new FormView(parametersString, decode ? characterSet : null,
+                    separator).addTo(form);
         }
     }
 
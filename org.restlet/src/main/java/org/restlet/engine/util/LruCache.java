@@ -0,0 +1,237 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe cache bounded in number of entries. When the maximum size is
+ * exceeded, the least recently used entries are evicted.<br>
+ * <br>
+ * Lookups don't lock nor reorder entries, they only stamp the entry with its
+ * access time. Evictions are done in batches by a single thread at a time,
+ * removing a few more entries than needed so that they don't happen on every
+ * insertion. Keys and values can't be null.
+ * 
+ * @author Jerome Louvel
+ * 
+ * @param <K>
+ *            The key type.
+ * @param <V>
+ *            The value type.
+ */
+public class LruCache<K, V> {
+
+    /**
+     * Cached value stamped with its last access time.
+     * 
+     * @param <V>
+     *            The value type.
+     */
+    private static final class Entry<V> {
+
+        /** The last access time in nanoseconds. */
+        private volatile long access;
+
+        /** The cached value. */
+        private final V value;
+
+        /**
+         * Constructor.
+         * 
+         * @param value
+         *            The cached value.
+         */
+        private Entry(V value) {
+            this.value = value;
+            this.access = System.nanoTime();
+        }
+    }
+
+    /** The entries. */
+    private final ConcurrentHashMap<K, Entry<V>> entries;
+
+    /** The lock of evictions. */
+    private final ReentrantLock evictionLock;
+
+    /** The maximum number of entries. */
+    private volatile int maxSize;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            The maximum number of entries.
+     */
+    public LruCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<K, Entry<V>>();
+        this.evictionLock = new ReentrantLock();
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Evicts the least recently used entries if the maximum size is exceeded.
+     * If another thread is already evicting entries, returns immediately.
+     */
+    private void evict() {
+        if (this.evictionLock.tryLock()) {
+            try {
+                int maxSize = getMaxSize();
+                int size = this.entries.size();
+
+                if (size > maxSize) {
+                    // Leave some room to batch the next evictions
+                    int count = size - Math.max(0, maxSize - (maxSize >> 4));
+                    long[] accesses = new long[size];
+                    int length = 0;
+
+                    for (Entry<V> entry : this.entries.values()) {
+                        if (length == accesses.length) {
+                            break;
+                        }
+
+                        accesses[length++] = entry.access;
+                    }
+
+                    count = Math.min(count, length);
+
+                    if (count > 0) {
+                        Arrays.sort(accesses, 0, length);
+                        long threshold = accesses[count - 1];
+
+                        for (Iterator<Map.Entry<K, Entry<V>>> iter = this.entries
+                                .entrySet().iterator(); iter.hasNext()
+                                && (count > 0);) {
+                            Map.Entry<K, Entry<V>> entry = iter.next();
+
+                            if ((entry.getValue().access <= threshold)
+                                    && this.entries.remove(entry.getKey(),
+                                            entry.getValue())) {
+                                count--;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                this.evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the value cached for the given key.
+     * 
+     * @param key
+     *            The key.
+     * @return The cached value or null.
+     */
+    public V get(K key) {
+        Entry<V> entry = this.entries.get(key);
+
+        if (entry == null) {
+            return null;
+        }
+
+        entry.access = System.nanoTime();
+        return entry.value;
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     * 
+     * @return The maximum number of entries.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Caches a value, evicting the least recently used entries if needed. A
+     * null value removes the entry.
+     * 
+     * @param key
+     *            The key.
+     * @param value
+     *            The value to cache.
+     * @return The previous value or null.
+     */
+    public V put(K key, V value) {
+        if (value == null) {
+            return remove(key);
+        }
+
+        Entry<V> previous = this.entries.put(key, new Entry<V>(value));
+
+        if (this.entries.size() > getMaxSize()) {
+            evict();
+        }
+
+        return (previous == null) ? null : previous.value;
+    }
+
+    /**
+     * Removes the value cached for the given key.
+     * 
+     * @param key
+     *            The key.
+     * @return The removed value or null.
+     */
+    public V remove(K key) {
+        Entry<V> previous = this.entries.remove(key);
+        return (previous == null) ? null : previous.value;
+    }
+
+    /**
+     * Sets the maximum number of entries. Extra entries are evicted on the
+     * next insertion.
+     * 
+     * @param maxSize
+     *            The maximum number of entries.
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the current number of entries.
+     * 
+     * @return The current number of entries.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+}
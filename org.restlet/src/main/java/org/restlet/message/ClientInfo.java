@@ -27,6 +27,7 @@ package org.restlet.message;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -34,6 +35,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.restlet.Context;
 import org.restlet.engine.Engine;
+import org.restlet.engine.header.PreferenceReader;
 import org.restlet.engine.io.IoUtils;
 import org.restlet.representation.CharacterSet;
 import org.restlet.representation.Encoding;
@@ -236,9 +238,27 @@ public final class ClientInfo {
     /** The patch preferences. */
     private volatile List<Preference<MediaType>> acceptedPatches;
 
+    /** The raw "Accept-Charset" header value to parse on first access. */
+    private volatile String acceptCharsetHeader;
+
+    /** The raw "Accept-Encoding" header value to parse on first access. */
+    private volatile String acceptEncodingHeader;
+
+    /** The raw "Accept-Language" header value to parse on first access. */
+    private volatile String acceptLanguageHeader;
+
+    /** The raw "Accept" header value to parse on first access. */
+    private volatile String acceptMediaTypeHeader;
+
+    /** The raw "Accept-Patch" header value to parse on first access. */
+    private volatile String acceptPatchHeader;
+
     /** The immediate IP addresses. */
     private volatile String address;
 
+    /** Indicates if the preferences are parsed from the raw headers. */
+    private volatile boolean preferenceHeaders;
+
     /** The agent name. */
     private volatile String agent;
 
@@ -391,6 +411,11 @@ public final class ClientInfo {
                 a = this.acceptedCharacterSets;
                 if (a == null) {
                     this.acceptedCharacterSets = a = new CopyOnWriteArrayList<Preference<CharacterSet>>();
+
+                    if (this.preferenceHeaders) {
+                        parsePreferences(PreferenceReader.TYPE_CHARACTER_SET,
+                                this.acceptCharsetHeader);
+                    }
                 }
             }
         }
@@ -414,6 +439,11 @@ public final class ClientInfo {
                 a = this.acceptedEncodings;
                 if (a == null) {
                     this.acceptedEncodings = a = new CopyOnWriteArrayList<Preference<Encoding>>();
+
+                    if (this.preferenceHeaders) {
+                        parsePreferences(PreferenceReader.TYPE_ENCODING,
+                                this.acceptEncodingHeader);
+                    }
                 }
             }
         }
@@ -437,6 +467,11 @@ public final class ClientInfo {
                 a = this.acceptedLanguages;
                 if (a == null) {
                     this.acceptedLanguages = a = new CopyOnWriteArrayList<Preference<Language>>();
+
+                    if (this.preferenceHeaders) {
+                        parsePreferences(PreferenceReader.TYPE_LANGUAGE,
+                                this.acceptLanguageHeader);
+                    }
                 }
             }
         }
@@ -460,6 +495,11 @@ public final class ClientInfo {
                 a = this.acceptedMediaTypes;
                 if (a == null) {
                     this.acceptedMediaTypes = a = new CopyOnWriteArrayList<Preference<MediaType>>();
+
+                    if (this.preferenceHeaders) {
+                        parsePreferences(PreferenceReader.TYPE_MEDIA_TYPE,
+                                this.acceptMediaTypeHeader);
+                    }
                 }
             }
         }
@@ -483,6 +523,11 @@ public final class ClientInfo {
                 a = this.acceptedPatches;
                 if (a == null) {
                     this.acceptedPatches = a = new CopyOnWriteArrayList<Preference<MediaType>>();
+
+                    if (this.preferenceHeaders) {
+                        parsePreferences(PreferenceReader.TYPE_PATCH,
+                                this.acceptPatchHeader);
+                    }
                 }
             }
         }
@@ -743,6 +788,29 @@ public final class ClientInfo {
         return this.port;
     }
 
+    /**
+     * Returns the raw "Accept-Charset", "Accept-Encoding", "Accept-Language"
+     * and "Accept" header values, in this order, as long as none of the
+     * matching preferences has been accessed. In this case, those values fully
+     * describe the client preferences for content negotiation. Returns null
+     * otherwise or if no raw header values were set.
+     * 
+     * @return The raw preference header values or null.
+     * @see #setPreferenceHeaders(String, String, String, String, String)
+     */
+    public List<String> getPreferenceHeaders() {
+        if (this.preferenceHeaders && (this.acceptedCharacterSets == null)
+                && (this.acceptedEncodings == null)
+                && (this.acceptedLanguages == null)
+                && (this.acceptedMediaTypes == null)) {
+            return Arrays.asList(this.acceptCharsetHeader,
+                    this.acceptEncodingHeader, this.acceptLanguageHeader,
+                    this.acceptMediaTypeHeader);
+        }
+
+        return null;
+    }
+
     /**
      * Returns the preferred character set among a list of supported ones, based
      * on the client preferences.
@@ -888,6 +956,34 @@ public final class ClientInfo {
         return this.authenticated;
     }
 
+    /**
+     * Parses the given raw header value and adds the resulting preferences.
+     * If an error occurs during the parsing, the error is traced and the
+     * preferences are left unchanged.
+     * 
+     * @param type
+     *            The type of preferences, see {@link PreferenceReader}.
+     * @param header
+     *            The raw header value or null.
+     */
+    private void parsePreferences(int type, String header) {
+        try {
+            if (type == PreferenceReader.TYPE_CHARACTER_SET) {
+                PreferenceReader.addCharacterSets(header, this);
+            } else if (type == PreferenceReader.TYPE_ENCODING) {
+                PreferenceReader.addEncodings(header, this);
+            } else if (type == PreferenceReader.TYPE_LANGUAGE) {
+                PreferenceReader.addLanguages(header, this);
+            } else if (type == PreferenceReader.TYPE_MEDIA_TYPE) {
+                PreferenceReader.addMediaTypes(header, this);
+            } else if (type == PreferenceReader.TYPE_PATCH) {
+                PreferenceReader.addPatches(header, this);
+            }
+        } catch (Exception e) {
+            Context.getCurrentLogger().info(e.getMessage());
+        }
+    }
+
     /**
      * Sets the character set preferences. Note that when used with HTTP
      * connectors, this property maps to the "Accept-Charset" header.
@@ -1104,6 +1200,36 @@ public final class ClientInfo {
         this.port = port;
     }
 
+    /**
+     * Sets the raw "Accept*" header values. Each of them is only parsed when
+     * the matching preferences are accessed for the first time, so
+     * preferences never used are never parsed. A null value is parsed as an
+     * absent header. Preferences already accessed are left unchanged.
+     * 
+     * @param acceptCharset
+     *            The raw "Accept-Charset" header value.
+     * @param acceptEncoding
+     *            The raw "Accept-Encoding" header value.
+     * @param acceptLanguage
+     *            The raw "Accept-Language" header value.
+     * @param acceptMediaType
+     *            The raw "Accept" header value.
+     * @param acceptPatch
+     *            The raw "Accept-Patch" header value.
+     */
+    public void setPreferenceHeaders(String acceptCharset,
+            String acceptEncoding, String acceptLanguage,
+            String acceptMediaType, String acceptPatch) {
+        synchronized (this) {
+            this.acceptCharsetHeader = acceptCharset;
+            this.acceptEncodingHeader = acceptEncoding;
+            this.acceptLanguageHeader = acceptLanguage;
+            this.acceptMediaTypeHeader = acceptMediaType;
+            this.acceptPatchHeader = acceptPatch;
+            this.preferenceHeaders = true;
+        }
+    }
+
     /**
      * Sets the additional client principals.
      * 
@@ -27,6 +27,8 @@ package org.restlet.resource;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.restlet.Client;
 import org.restlet.Context;
@@ -50,6 +52,7 @@ import org.restlet.util.Parameter;
 import org.restlet.util.Protocol;
 import org.restlet.util.Range;
 import org.restlet.util.Reference;
+import org.restlet.util.RetryPolicy;
 import org.restlet.util.Series;
 
 /**
@@ -160,6 +163,9 @@ public class ClientResource extends Resource {
     /** Indicates if idempotent requests should be retried on error. */
     private volatile boolean retryOnError;
 
+    /** The retry policy replacing the fixed retry delay and attempts. */
+    private volatile RetryPolicy retryPolicy;
+
     /**
      * Empty constructor.
      */
@@ -180,6 +186,7 @@ public class ClientResource extends Resource {
         this.retryOnError = resource.isRetryOnError();
         this.retryDelay = resource.getRetryDelay();
         this.retryAttempts = resource.getRetryAttempts();
+        this.retryPolicy = resource.getRetryPolicy();
 
         this.followingRedirects = resource.isFollowingRedirects();
         this.requestEntityBuffering = resource.isRequestEntityBuffering();
@@ -900,6 +907,19 @@ public class ClientResource extends Resource {
         return retryDelay;
     }
 
+    /**
+     * Returns the retry policy replacing the fixed retry delay and attempts.
+     * When set, retries are delayed with exponential backoff and jitter, and
+     * limited by the policy budget. Asynchronous calls are then retried by
+     * tasks scheduled on the executor service of the policy or of the context
+     * instead of parking a thread. Null by default.
+     * 
+     * @return The retry policy or null.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
     /**
      * Handles the call by invoking the next handler. The prototype request is
      * retrieved via {@link #getRequest()} and cloned and the response is set as
@@ -1088,15 +1108,25 @@ public class ClientResource extends Resource {
                 request.bufferEntity();
             }
 
+            RetryPolicy retryPolicy = getRetryPolicy();
+            boolean scheduled = false;
+
+            if (retryPolicy != null) {
+                if (retryAttempt == 0) {
+                    retryPolicy.recordCall();
+                }
+
+                if (isRetryOnError() && request.isAsynchronous()) {
+                    scheduled = scheduleRetry(request, references,
+                            retryAttempt, next);
+                }
+            }
+
             // Actually handle the call
             next.handle(request, response);
 
-            if (isRetryOnError()
-                    && response.getStatus().isRecoverableError()
-                    && request.getMethod().isIdempotent()
-                    && (retryAttempt < getRetryAttempts())
-                    && ((request.getEntity() == null) || request.getEntity()
-                            .isAvailable())) {
+            if (!scheduled && isRetryOnError()
+                    && isRetryable(request, response, retryAttempt)) {
                 retry(request, response, references, retryAttempt, next);
             } else if (isFollowingRedirects()
                     && response.getStatus().isRedirection()
@@ -1272,6 +1302,34 @@ public class ClientResource extends Resource {
         return responseEntityBuffering;
     }
 
+    /**
+     * Indicates if a failed call should be retried. With a retry policy, this
+     * also spends a token of the retry budget.
+     * 
+     * @param request
+     *            The request sent.
+     * @param response
+     *            The response received.
+     * @param retryAttempt
+     *            The number of retries already done.
+     * @return True if the call should be retried.
+     */
+    private boolean isRetryable(Request request, Response response,
+            int retryAttempt) {
+        RetryPolicy retryPolicy = getRetryPolicy();
+
+        if (retryPolicy != null) {
+            return retryPolicy.isRetryable(request, response, retryAttempt)
+                    && retryPolicy.tryAcquire();
+        }
+
+        return response.getStatus().isRecoverableError()
+                && request.getMethod().isIdempotent()
+                && (retryAttempt < getRetryAttempts())
+                && ((request.getEntity() == null) || request.getEntity()
+                        .isAvailable());
+    }
+
     /**
      * Indicates if idempotent requests should be retried on error. Default
      * value is true.
@@ -1605,8 +1663,8 @@ public class ClientResource extends Resource {
     }
 
     /**
-     * Effectively retries a failed client call. By default, it sleeps before
-     * the retry attempt and increments the number of retries.
+     * Effectively retries a failed synchronous client call. By default, it
+     * sleeps before the retry attempt and increments the number of retries.
      * 
      * @param request
      *            The request to send.
@@ -1622,14 +1680,16 @@ public class ClientResource extends Resource {
      */
     protected void retry(Request request, Response response,
             List<Reference> references, int retryAttempt, Uniform next) {
+        long delay = (getRetryPolicy() == null) ? getRetryDelay()
+                : getRetryPolicy().getDelay(retryAttempt);
         getLogger().info("A recoverable error was detected ("
                         + response.getStatus().getCode()
-                        + "), attempting again in " + getRetryDelay() + " ms.");
+                        + "), attempting again in " + delay + " ms.");
 
         // Wait before attempting again
-        if (getRetryDelay() > 0) {
+        if (delay > 0) {
             try {
-                Thread.sleep(getRetryDelay());
+                Thread.sleep(delay);
             } catch (InterruptedException e) {
                 getLogger().debug("Retry delay sleep was interrupted", e);
                 // MITRE, CWE-391 - Unchecked Error Condition
@@ -1641,6 +1701,62 @@ public class ClientResource extends Resource {
         handle(request, response, references, ++retryAttempt, next);
     }
 
+    /**
+     * Wraps the response callback of an asynchronous call so that a failed
+     * call is retried by a task scheduled after the policy delay.
+     * 
+     * @param request
+     *            The asynchronous request to send.
+     * @param references
+     *            The references that caused a redirection to prevent infinite
+     *            loops.
+     * @param retryAttempt
+     *            The number of retries already done.
+     * @param next
+     *            The next handler handling the call.
+     * @return True if retries will be scheduled, false if no executor service
+     *         is available.
+     */
+    private boolean scheduleRetry(Request request,
+            final List<Reference> references, final int retryAttempt,
+            final Uniform next) {
+        ScheduledExecutorService executorService = getRetryPolicy()
+                .getExecutorService();
+
+        if ((executorService == null) && (getContext() != null)) {
+            executorService = getContext().getExecutorService();
+        }
+
+        if (executorService == null) {
+            return false;
+        }
+
+        final ScheduledExecutorService executor = executorService;
+        final Uniform onResponse = request.getOnResponse();
+        request.setOnResponse(new Uniform() {
+            public void handle(final Request request, final Response response) {
+                request.setOnResponse(onResponse);
+
+                if (isRetryable(request, response, retryAttempt)) {
+                    long delay = getRetryPolicy().getDelay(retryAttempt);
+                    getLogger().info("A recoverable error was detected ("
+                                    + response.getStatus().getCode()
+                                    + "), attempting again in " + delay
+                                    + " ms.");
+                    executor.schedule(new Runnable() {
+                        public void run() {
+                            ClientResource.this.handle(request, response,
+                                    references, retryAttempt + 1, next);
+                        }
+                    }, delay, TimeUnit.MILLISECONDS);
+                } else {
+                    onResponse.handle(request, response);
+                }
+            }
+        });
+        return true;
+    }
+
     /**
      * Sets the request attribute value.
      * 
@@ -1997,6 +2113,16 @@ public class ClientResource extends Resource {
         this.retryDelay = retryDelay;
     }
 
+    /**
+     * Sets the retry policy replacing the fixed retry delay and attempts.
+     * 
+     * @param retryPolicy
+     *            The retry policy or null.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
     /**
      * Indicates if idempotent requests should be retried on error.
      * 
@@ -24,6 +24,9 @@
 
 package org.restlet.resource;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 
 import org.restlet.Context;
@@ -90,9 +93,41 @@ public class Finder extends Restlet {
         return result;
     }
 
+    /**
+     * Returns a method handle invoking the default constructor of the given
+     * {@link ServerResource} subclass or null if it isn't accessible.
+     * 
+     * @param targetClass
+     *            The target {@link ServerResource} subclass.
+     * @return The constructor handle or null.
+     */
+    private static MethodHandle createConstructor(
+            Class<? extends ServerResource> targetClass) {
+        MethodHandle result = null;
+
+        if (targetClass != null) {
+            try {
+                result = MethodHandles.lookup().findConstructor(targetClass,
+                        MethodType.methodType(void.class));
+            } catch (NoSuchMethodException e) {
+                // Let the default instantiation report the error
+            } catch (IllegalAccessException e) {
+                // Let the default instantiation report the error
+            }
+        }
+
+        return result;
+    }
+
     /** Target {@link ServerResource} subclass. */
     private volatile Class<? extends ServerResource> targetClass;
 
+    /**
+     * Handle on the default constructor of the target class, pre-bound to
+     * avoid reflective instantiation on each call.
+     */
+    private volatile MethodHandle targetConstructor;
+
     /**
      * Constructor.
      */
@@ -122,6 +157,7 @@ public class Finder extends Restlet {
     public Finder(Context context, Class<? extends ServerResource> targetClass) {
         super(context);
         this.targetClass = targetClass;
+        this.targetConstructor = createConstructor(targetClass);
     }
 
     /**
@@ -140,11 +176,21 @@ public class Finder extends Restlet {
         ServerResource result = null;
 
         if (targetClass != null) {
+            MethodHandle constructor = this.targetConstructor;
+
             try {
-                // Invoke the default constructor
-                result = targetClass.newInstance();
-            } catch (Exception e) {
-                getLogger().warn("Exception while instantiating the target server resource.", e);
+                if ((constructor != null)
+                        && (constructor.type().returnType() == targetClass)) {
+                    // Invoke the pre-bound default constructor
+                    result = (ServerResource) constructor.invoke();
+                } else {
+                    // Invoke the default constructor
+                    result = targetClass.newInstance();
+                }
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable t) {
+                getLogger().warn("Exception while instantiating the target server resource.", t);
             }
         }
 
@@ -247,6 +293,7 @@ public class Finder extends Restlet {
      */
     public void setTargetClass(Class<? extends ServerResource> targetClass) {
         this.targetClass = targetClass;
+        this.targetConstructor = createConstructor(targetClass);
     }
 
     @Override
@@ -30,6 +30,7 @@ import org.restlet.Uniform;
 import org.restlet.engine.resource.AnnotationInfo;
 import org.restlet.engine.resource.AnnotationUtils;
 import org.restlet.engine.resource.MethodAnnotationInfo;
+import org.restlet.engine.resource.MethodAnnotationTable;
 import org.restlet.engine.resource.VariantInfo;
 import org.restlet.message.ChallengeRequest;
 import org.restlet.message.CookieSetting;
@@ -514,10 +515,11 @@ public abstract class ServerResource extends Resource {
                     }
                 }
 
-                resultObject = annotationInfo.getJavaMethod().invoke(this,
-                        parameters.toArray());
+                resultObject = AnnotationUtils.getInstance().invoke(
+                        annotationInfo, this, parameters.toArray());
             } else {
-                resultObject = annotationInfo.getJavaMethod().invoke(this);
+                resultObject = AnnotationUtils.getInstance().invoke(
+                        annotationInfo, this);
             }
 
             if (resultObject != null) {
@@ -773,9 +775,8 @@ public abstract class ServerResource extends Resource {
     private MethodAnnotationInfo getAnnotation(Method method, Form query,
             Representation entity) throws IOException {
         if (isAnnotated()) {
-            return AnnotationUtils.getInstance().getMethodAnnotation(
-                    getAnnotations(), method, query, entity,
-                    getMetadataService(), getConverterService());
+            return getMethodAnnotationTable().getMethodAnnotation(method,
+                    query, entity, getMetadataService(), getConverterService());
         }
 
         return null;
@@ -873,6 +874,16 @@ public abstract class ServerResource extends Resource {
         return getResponse().getOnSent();
     }
 
+    /**
+     * Returns the method annotation dispatch table of this resource class.
+     * 
+     * @return The method annotation dispatch table.
+     */
+    private MethodAnnotationTable getMethodAnnotationTable() {
+        return AnnotationUtils.getInstance().getMethodAnnotationTable(
+                getClass());
+    }
+
     /**
      * Returns the preferred variant among a list of available variants. The
      * selection is based on the client preferences using the
@@ -942,56 +953,49 @@ public abstract class ServerResource extends Resource {
                 List<Variant> annoVariants = null;
                 method = (Method.HEAD.equals(method)) ? Method.GET : method;
 
-                for (AnnotationInfo annotationInfo : getAnnotations()) {
+                for (MethodAnnotationInfo methodAnnotationInfo : getMethodAnnotationTable()
+                        .getAnnotations(method)) {
                     try {
-                        if (annotationInfo instanceof MethodAnnotationInfo) {
-                            MethodAnnotationInfo methodAnnotationInfo = (MethodAnnotationInfo) annotationInfo;
-
-                            if (methodAnnotationInfo
-                                    .isCompatible(method, getQuery(),
-                                            getRequestEntity(),
-                                            getMetadataService(),
-                                            getConverterService())) {
-                                annoVariants = methodAnnotationInfo
-                                        .getResponseVariants(
-                                                getMetadataService(),
-                                                getConverterService());
-
-                                if (annoVariants != null) {
-                                    // Compute an affinity score between this
-                                    // annotation and the input entity.
-                                    float score = 0.5f;
-                                    if ((getRequest().getEntity() != null)
-                                            && getRequest().getEntity()
-                                                    .isAvailable()) {
-                                        MediaType emt = getRequest()
-                                                .getEntity().getMediaType();
-                                        List<MediaType> amts = getMetadataService()
-                                                .getAllMediaTypes(
-                                                        methodAnnotationInfo
-                                                                .getInput());
-                                        if (amts != null) {
-                                            for (MediaType amt : amts) {
-                                                if (amt.equals(emt)) {
-                                                    score = 1.0f;
-                                                } else if (amt.includes(emt)) {
-                                                    score = Math.max(0.8f,
-                                                            score);
-                                                } else if (amt
-                                                        .isCompatible(emt)) {
-                                                    score = Math.max(0.6f,
-                                                            score);
-                                                }
+                        if (methodAnnotationInfo
+                                .isCompatible(method, getQuery(),
+                                        getRequestEntity(),
+                                        getMetadataService(),
+                                        getConverterService())) {
+                            annoVariants = methodAnnotationInfo
+                                    .getResponseVariants(getMetadataService(),
+                                            getConverterService());
+
+                            if (annoVariants != null) {
+                                // Compute an affinity score between this
+                                // annotation and the input entity.
+                                float score = 0.5f;
+                                if ((getRequest().getEntity() != null)
+                                        && getRequest().getEntity()
+                                                .isAvailable()) {
+                                    MediaType emt = getRequest().getEntity()
+                                            .getMediaType();
+                                    List<MediaType> amts = methodAnnotationInfo
+                                            .getInputMediaTypes(
+                                                    getMetadataService(),
+                                                    getConverterService());
+                                    if (amts != null) {
+                                        for (MediaType amt : amts) {
+                                            if (amt.equals(emt)) {
+                                                score = 1.0f;
+                                            } else if (amt.includes(emt)) {
+                                                score = Math.max(0.8f, score);
+                                            } else if (amt.isCompatible(emt)) {
+                                                score = Math.max(0.6f, score);
                                             }
                                         }
                                     }
+                                }
 
-                                    for (Variant v : annoVariants) {
-                                        VariantInfo vi = new VariantInfo(v,
-                                                methodAnnotationInfo);
-                                        vi.setInputScore(score);
-                                        result.add(vi);
-                                    }
+                                for (Variant v : annoVariants) {
+                                    VariantInfo vi = new VariantInfo(v,
+                                            methodAnnotationInfo);
+                                    vi.setInputScore(score);
+                                    result.add(vi);
                                 }
                             }
                         }
@@ -1824,20 +1828,9 @@ public abstract class ServerResource extends Resource {
      */
     public void updateAllowedMethods() {
         getAllowedMethods().clear();
-        List<AnnotationInfo> annotations = getAnnotations();
-
-        if (annotations != null) {
-            for (AnnotationInfo annotationInfo : annotations) {
-                if (annotationInfo instanceof MethodAnnotationInfo) {
-                    MethodAnnotationInfo methodAnnotationInfo = (MethodAnnotationInfo) annotationInfo;
 
-                    if (!getAllowedMethods().contains(
-                            methodAnnotationInfo.getRestletMethod())) {
-                        getAllowedMethods().add(
-                                methodAnnotationInfo.getRestletMethod());
-                    }
-                }
-            }
+        if (isAnnotated()) {
+            getAllowedMethods().addAll(getMethodAnnotationTable().getMethods());
         }
     }
 
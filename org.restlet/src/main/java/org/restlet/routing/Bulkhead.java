@@ -0,0 +1,312 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.routing;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.restlet.Context;
+import org.restlet.Restlet;
+import org.restlet.Uniform;
+import org.restlet.engine.adapter.ClientAdapter;
+import org.restlet.message.Request;
+import org.restlet.message.Response;
+import org.restlet.message.Status;
+
+/**
+ * Filter limiting the number of concurrent calls to each target host, so that
+ * a slow host can't consume all the calling threads. When the limit is reached,
+ * calls wait up to a maximum time for a permit, then fail fast with a
+ * {@link Status#CONNECTOR_ERROR_CONNECTION} status. Asynchronous calls hold
+ * their permit until their response is received, unless they complete
+ * synchronously without any callback. The response is only known to be pending
+ * when the next Restlet is a client connector, or when it sets the
+ * {@link ClientAdapter#ATTRIBUTE_RESPONSE_PENDING} request attribute. Behind
+ * other asynchronous Restlets, the permit is released when the call returns.<br>
+ * <br>
+ * It is typically placed in front of a client connector, possibly behind a
+ * {@link CircuitBreaker}:
+ * 
+ * <pre>
+ * Bulkhead bulkhead = new Bulkhead(getContext(),
+ *         getContext().getClientDispatcher());
+ * bulkhead.setMaxConcurrentCalls(32);
+ * setOutboundRoot(new CircuitBreaker(getContext(), bulkhead));
+ * </pre>
+ * 
+ * Concurrency note: instances of this class are thread-safe.
+ * 
+ * @author Jerome Louvel
+ */
+public class Bulkhead extends Filter {
+
+    /** Semaphore whose number of permits can be reduced. */
+    @SuppressWarnings("serial")
+    private static final class ResizableSemaphore extends Semaphore {
+
+        /**
+         * Constructor.
+         * 
+         * @param permits
+         *            The initial number of permits.
+         */
+        private ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        /**
+         * Changes the number of permits. When reduced, the available permits
+         * can become negative until enough calls in progress complete.
+         * 
+         * @param delta
+         *            The number of permits to add, or to remove if negative.
+         */
+        private void resize(int delta) {
+            if (delta > 0) {
+                release(delta);
+            } else if (delta < 0) {
+                reducePermits(-delta);
+            }
+        }
+    }
+
+    /** The default maximum number of concurrent calls per target host. */
+    public static final int DEFAULT_MAX_CONCURRENT_CALLS = 16;
+
+    /** The maximum number of concurrent calls per target host. */
+    private volatile int maxConcurrentCalls;
+
+    /** The maximum time in milliseconds waiting for a permit. */
+    private volatile long maxWaitTime;
+
+    /** The permits by target host. */
+    private final ConcurrentMap<String, ResizableSemaphore> permits;
+
+    /**
+     * Constructor.
+     */
+    public Bulkhead() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The context.
+     */
+    public Bulkhead(Context context) {
+        this(context, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The context.
+     * @param next
+     *            The next Restlet.
+     */
+    public Bulkhead(Context context, Restlet next) {
+        super(context, next);
+        this.maxConcurrentCalls = DEFAULT_MAX_CONCURRENT_CALLS;
+        this.maxWaitTime = 0L;
+        this.permits = new ConcurrentHashMap<String, ResizableSemaphore>();
+    }
+
+    /**
+     * Acquires a permit for the target host and invokes the next Restlet, or
+     * fails fast if no permit is available in time.
+     */
+    @Override
+    protected int doHandle(Request request, Response response) {
+        final Semaphore semaphore = getPermits(request);
+        boolean acquired;
+
+        try {
+            acquired = (getMaxWaitTime() > 0) ? semaphore.tryAcquire(
+                    getMaxWaitTime(), TimeUnit.MILLISECONDS) : semaphore
+                    .tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            response.setStatus(Status.CONNECTOR_ERROR_CONNECTION,
+                    "Too many concurrent calls to " + getKey(request));
+
+            if (request.isAsynchronous()) {
+                request.getOnResponse().handle(request, response);
+            }
+
+            return STOP;
+        }
+
+        if (request.isAsynchronous()) {
+            final Uniform onResponse = request.getOnResponse();
+            final AtomicBoolean released = new AtomicBoolean();
+            request.setOnResponse(new Uniform() {
+                public void handle(Request request, Response response) {
+                    request.setOnResponse(onResponse);
+
+                    if (released.compareAndSet(false, true)) {
+                        semaphore.release();
+                    }
+
+                    onResponse.handle(request, response);
+                }
+            });
+
+            boolean pending = false;
+
+            try {
+                int result = super.doHandle(request, response);
+                pending = ClientAdapter.isResponsePending(request);
+                return result;
+            } finally {
+                if (!pending) {
+                    // The call completed or failed without any callback
+                    request.setOnResponse(onResponse);
+
+                    if (released.compareAndSet(false, true)) {
+                        semaphore.release();
+                    }
+                }
+            }
+        }
+
+        try {
+            return super.doHandle(request, response);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    /**
+     * Returns the number of calls in progress to a target host.
+     * 
+     * @param hostIdentifier
+     *            The host identifier, such as "http://example.com:8080".
+     * @return The number of calls in progress.
+     */
+    public int getActiveCalls(String hostIdentifier) {
+        Semaphore semaphore = this.permits.get(hostIdentifier);
+        return (semaphore == null) ? 0 : getMaxConcurrentCalls()
+                - semaphore.availablePermits();
+    }
+
+    /**
+     * Returns the key of the permits used for a request. By default, it is the
+     * host identifier of the target resource, so that each target host has its
+     * own limit.
+     * 
+     * @param request
+     *            The request.
+     * @return The permits key.
+     */
+    protected String getKey(Request request) {
+        return request.getResourceRef().getHostIdentifier();
+    }
+
+    /**
+     * Returns the maximum number of concurrent calls per target host. Default
+     * value is 16.
+     * 
+     * @return The maximum number of concurrent calls per target host.
+     */
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds waiting for a permit. Default
+     * value is 0, failing fast when the limit is reached.
+     * 
+     * @return The maximum time in milliseconds waiting for a permit.
+     */
+    public long getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    /**
+     * Returns the permits of the target host of a request.
+     * 
+     * @param request
+     *            The request.
+     * @return The permits.
+     */
+    private Semaphore getPermits(Request request) {
+        String key = getKey(request);
+        ResizableSemaphore result = this.permits.get(key);
+
+        if (result == null) {
+            // Don't race with a change of the maximum
+            synchronized (this.permits) {
+                result = this.permits.get(key);
+
+                if (result == null) {
+                    result = new ResizableSemaphore(getMaxConcurrentCalls());
+                    this.permits.put(key, result);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Sets the maximum number of concurrent calls per target host. Calls in
+     * progress are counted against the new limit, so when it is lowered, new
+     * calls are only accepted once enough of them complete.
+     * 
+     * @param maxConcurrentCalls
+     *            The maximum number of concurrent calls per target host.
+     */
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+        synchronized (this.permits) {
+            int delta = maxConcurrentCalls - this.maxConcurrentCalls;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+
+            for (ResizableSemaphore semaphore : this.permits.values()) {
+                semaphore.resize(delta);
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum time in milliseconds waiting for a permit.
+     * 
+     * @param maxWaitTime
+     *            The maximum time in milliseconds waiting for a permit.
+     */
+    public void setMaxWaitTime(long maxWaitTime) {
+        this.maxWaitTime = maxWaitTime;
+    }
+
+}
@@ -0,0 +1,605 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.routing;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.restlet.Context;
+import org.restlet.Restlet;
+import org.restlet.Uniform;
+import org.restlet.engine.adapter.ClientAdapter;
+import org.restlet.message.Request;
+import org.restlet.message.Response;
+import org.restlet.message.Status;
+
+/**
+ * Filter protecting the callers of failing or slow target hosts. The outcome of
+ * the calls to each host is tracked in a lock-free sliding time window. When
+ * the rate of failed calls (connector and server errors) or slow calls exceeds
+ * a threshold, the circuit of the host opens and calls fail fast with a
+ * {@link Status#CONNECTOR_ERROR_CONNECTION} status. After the open duration, a
+ * limited number of probe calls are let through: the circuit closes on the
+ * first success and opens again on a failure.<br>
+ * <br>
+ * The outcome of an asynchronous call is recorded when its response is
+ * received if the next Restlet is a client connector, or if it sets the
+ * {@link ClientAdapter#ATTRIBUTE_RESPONSE_PENDING} request attribute until it
+ * invokes the callback. Behind other asynchronous Restlets, the outcome is
+ * recorded when the call returns, with the status known at that time.<br>
+ * <br>
+ * It is typically placed in front of a client connector, or used as the
+ * outbound root of an application to protect calls made by client resources
+ * and redirectors:
+ * 
+ * <pre>
+ * CircuitBreaker breaker = new CircuitBreaker(getContext(),
+ *         getContext().getClientDispatcher());
+ * setOutboundRoot(breaker);
+ * </pre>
+ * 
+ * Concurrency note: instances of this class are thread-safe.
+ * 
+ * @author Jerome Louvel
+ */
+public class CircuitBreaker extends Filter {
+
+    /** Counters of the calls completed during a slice of time. */
+    private static final class Bucket {
+
+        /** The number of completed calls. */
+        private final AtomicLong calls = new AtomicLong();
+
+        /** The number of failed calls. */
+        private final AtomicLong failures = new AtomicLong();
+
+        /** The index of the slice of time. */
+        private final long index;
+
+        /** The number of slow calls. */
+        private final AtomicLong slowCalls = new AtomicLong();
+
+        /**
+         * Constructor.
+         * 
+         * @param index
+         *            The index of the slice of time.
+         */
+        public Bucket(long index) {
+            this.index = index;
+        }
+    }
+
+    /** Circuit of a target host. */
+    private final class Circuit {
+
+        /** The buckets of the sliding window. */
+        private volatile AtomicReferenceArray<Bucket> buckets;
+
+        /** The time in milliseconds when the circuit was opened. */
+        private volatile long openedAt;
+
+        /** The number of probes let through since the circuit half-opened. */
+        private final AtomicInteger probes;
+
+        /** The current state. */
+        private final AtomicReference<State> state;
+
+        /**
+         * Constructor.
+         */
+        public Circuit() {
+            this.buckets = new AtomicReferenceArray<Bucket>(BUCKET_COUNT);
+            this.probes = new AtomicInteger();
+            this.state = new AtomicReference<State>(State.CLOSED);
+        }
+
+        /**
+         * Indicates if a call can proceed.
+         * 
+         * @param now
+         *            The current time in milliseconds.
+         * @return True if the call can proceed.
+         */
+        public boolean acquire(long now) {
+            State current = this.state.get();
+
+            if (current == State.CLOSED) {
+                return true;
+            }
+
+            if ((current == State.OPEN)
+                    && (now - this.openedAt >= getOpenDuration())
+                    && this.state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                this.probes.set(0);
+                current = State.HALF_OPEN;
+            }
+
+            return (current == State.HALF_OPEN)
+                    && (this.probes.incrementAndGet() <= getHalfOpenProbes());
+        }
+
+        /**
+         * Opens the circuit.
+         * 
+         * @param now
+         *            The current time in milliseconds.
+         */
+        private void open(long now) {
+            this.openedAt = now;
+            this.state.set(State.OPEN);
+            getLogger().info("Circuit opened again after a failed probe");
+        }
+
+        /**
+         * Records the outcome of a call and updates the state.
+         * 
+         * @param now
+         *            The current time in milliseconds.
+         * @param failed
+         *            Indicates if the call failed.
+         * @param slow
+         *            Indicates if the call was slow.
+         */
+        public void record(long now, boolean failed, boolean slow) {
+            State current = this.state.get();
+
+            if (current == State.HALF_OPEN) {
+                if (failed || slow) {
+                    open(now);
+                } else if (this.state.compareAndSet(State.HALF_OPEN,
+                        State.CLOSED)) {
+                    this.buckets = new AtomicReferenceArray<Bucket>(
+                            BUCKET_COUNT);
+                }
+            } else if (current == State.CLOSED) {
+                long bucketDuration = Math.max(1, getWindowDuration()
+                        / BUCKET_COUNT);
+                long index = now / bucketDuration;
+                AtomicReferenceArray<Bucket> buckets = this.buckets;
+                int slot = (int) (index % BUCKET_COUNT);
+                Bucket bucket = buckets.get(slot);
+
+                if ((bucket == null) || (bucket.index != index)) {
+                    Bucket fresh = new Bucket(index);
+                    bucket = buckets.compareAndSet(slot, bucket, fresh) ? fresh
+                            : buckets.get(slot);
+                }
+
+                bucket.calls.incrementAndGet();
+
+                if (failed) {
+                    bucket.failures.incrementAndGet();
+                }
+
+                if (slow) {
+                    bucket.slowCalls.incrementAndGet();
+                }
+
+                long calls = 0;
+                long failures = 0;
+                long slowCalls = 0;
+
+                for (int i = 0; i < BUCKET_COUNT; i++) {
+                    Bucket b = buckets.get(i);
+
+                    if ((b != null) && (index - b.index < BUCKET_COUNT)) {
+                        calls += b.calls.get();
+                        failures += b.failures.get();
+                        slowCalls += b.slowCalls.get();
+                    }
+                }
+
+                if ((calls >= getMinimumCalls())
+                        && ((failures >= calls * getFailureRateThreshold()) || (slowCalls >= calls
+                                * getSlowCallRateThreshold()))) {
+                    if (this.state.compareAndSet(State.CLOSED, State.OPEN)) {
+                        this.openedAt = now;
+                        getLogger().info(
+                                "Circuit opened after " + failures
+                                        + " failed and " + slowCalls
+                                        + " slow calls out of " + calls);
+                    }
+                }
+            }
+        }
+    }
+
+    /** The states of a circuit. */
+    public enum State {
+        /** Calls proceed normally. */
+        CLOSED,
+
+        /** Calls fail fast. */
+        OPEN,
+
+        /** A limited number of probe calls proceed. */
+        HALF_OPEN
+    }
+
+    /** The number of buckets of the sliding windows. */
+    private static final int BUCKET_COUNT = 10;
+
+    /** The circuits by target host. */
+    private final ConcurrentMap<String, Circuit> circuits;
+
+    /** The rate of failed calls opening the circuit. */
+    private volatile float failureRateThreshold;
+
+    /** The number of probe calls let through when half-open. */
+    private volatile int halfOpenProbes;
+
+    /** The minimum number of calls in the window before evaluating rates. */
+    private volatile int minimumCalls;
+
+    /** The duration in milliseconds of the open state. */
+    private volatile long openDuration;
+
+    /** The duration in milliseconds above which a call is slow. */
+    private volatile long slowCallDuration;
+
+    /** The rate of slow calls opening the circuit. */
+    private volatile float slowCallRateThreshold;
+
+    /** The duration in milliseconds of the sliding window. */
+    private volatile long windowDuration;
+
+    /**
+     * Constructor.
+     */
+    public CircuitBreaker() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The context.
+     */
+    public CircuitBreaker(Context context) {
+        this(context, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The context.
+     * @param next
+     *            The next Restlet.
+     */
+    public CircuitBreaker(Context context, Restlet next) {
+        super(context, next);
+        this.circuits = new ConcurrentHashMap<String, Circuit>();
+        this.failureRateThreshold = 0.5F;
+        this.halfOpenProbes = 1;
+        this.minimumCalls = 20;
+        this.openDuration = 5000L;
+        this.slowCallDuration = -1L;
+        this.slowCallRateThreshold = 1.0F;
+        this.windowDuration = 10000L;
+    }
+
+    /**
+     * Fails fast if the circuit of the target host is open.
+     */
+    @Override
+    protected int beforeHandle(Request request, Response response) {
+        if (getCircuit(request).acquire(System.currentTimeMillis())) {
+            return CONTINUE;
+        }
+
+        response.setStatus(Status.CONNECTOR_ERROR_CONNECTION,
+                "Circuit open for " + getKey(request));
+
+        if (request.isAsynchronous()) {
+            request.getOnResponse().handle(request, response);
+        }
+
+        return STOP;
+    }
+
+    /**
+     * Invokes the next Restlet and records the outcome of the call.
+     */
+    @Override
+    protected int doHandle(Request request, Response response) {
+        final Circuit circuit = getCircuit(request);
+        final long start = System.nanoTime();
+
+        if (request.isAsynchronous()) {
+            final Uniform onResponse = request.getOnResponse();
+            final AtomicBoolean recorded = new AtomicBoolean();
+            request.setOnResponse(new Uniform() {
+                public void handle(Request request, Response response) {
+                    request.setOnResponse(onResponse);
+
+                    if (recorded.compareAndSet(false, true)) {
+                        record(circuit, start, response.getStatus());
+                    }
+
+                    onResponse.handle(request, response);
+                }
+            });
+
+            boolean pending = false;
+            Status status = Status.CONNECTOR_ERROR_INTERNAL;
+
+            try {
+                int result = super.doHandle(request, response);
+                pending = ClientAdapter.isResponsePending(request);
+                status = response.getStatus();
+                return result;
+            } finally {
+                if (!pending) {
+                    // The call completed or failed without any callback, so
+                    // record it now to not leave a probe unanswered
+                    request.setOnResponse(onResponse);
+
+                    if (recorded.compareAndSet(false, true)) {
+                        record(circuit, start, status);
+                    }
+                }
+            }
+        }
+
+        try {
+            int result = super.doHandle(request, response);
+            record(circuit, start, response.getStatus());
+            return result;
+        } catch (RuntimeException e) {
+            record(circuit, start, Status.CONNECTOR_ERROR_INTERNAL);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the circuit of the target host of a request.
+     * 
+     * @param request
+     *            The request.
+     * @return The circuit.
+     */
+    private Circuit getCircuit(Request request) {
+        String key = getKey(request);
+        Circuit result = this.circuits.get(key);
+
+        if (result == null) {
+            Circuit circuit = new Circuit();
+            result = this.circuits.putIfAbsent(key, circuit);
+
+            if (result == null) {
+                result = circuit;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the rate of failed calls opening the circuit. Default value is
+     * 0.5.
+     * 
+     * @return The rate of failed calls opening the circuit.
+     */
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * Returns the number of probe calls let through when half-open. Default
+     * value is 1.
+     * 
+     * @return The number of probe calls let through when half-open.
+     */
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+
+    /**
+     * Returns the key of the circuit used for a request. By default, it is the
+     * host identifier of the target resource, so that each target host has its
+     * own circuit.
+     * 
+     * @param request
+     *            The request.
+     * @return The circuit key.
+     */
+    protected String getKey(Request request) {
+        return request.getResourceRef().getHostIdentifier();
+    }
+
+    /**
+     * Returns the minimum number of calls in the window before evaluating the
+     * rates. Default value is 20.
+     * 
+     * @return The minimum number of calls in the window.
+     */
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /**
+     * Returns the duration in milliseconds of the open state. Default value is
+     * 5 seconds.
+     * 
+     * @return The duration in milliseconds of the open state.
+     */
+    public long getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Returns the duration in milliseconds above which a call is slow. Default
+     * value is -1, disabling the detection of slow calls.
+     * 
+     * @return The duration in milliseconds above which a call is slow.
+     */
+    public long getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    /**
+     * Returns the rate of slow calls opening the circuit. Default value is 1.
+     * 
+     * @return The rate of slow calls opening the circuit.
+     */
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    /**
+     * Returns the state of the circuit of a target host.
+     * 
+     * @param hostIdentifier
+     *            The host identifier, such as "http://example.com:8080".
+     * @return The state of the circuit.
+     */
+    public State getState(String hostIdentifier) {
+        Circuit circuit = this.circuits.get(hostIdentifier);
+        return (circuit == null) ? State.CLOSED : circuit.state.get();
+    }
+
+    /**
+     * Returns the duration in milliseconds of the sliding window. Default
+     * value is 10 seconds.
+     * 
+     * @return The duration in milliseconds of the sliding window.
+     */
+    public long getWindowDuration() {
+        return windowDuration;
+    }
+
+    /**
+     * Indicates if a call failed. By default, connector and server errors are
+     * failures.
+     * 
+     * @param status
+     *            The response status.
+     * @return True if the call failed.
+     */
+    protected boolean isFailure(Status status) {
+        return (status == null) || status.isConnectorError()
+                || status.isServerError();
+    }
+
+    /**
+     * Records the outcome of a call.
+     * 
+     * @param circuit
+     *            The circuit.
+     * @param start
+     *            The start time of the call in nanoseconds.
+     * @param status
+     *            The response status.
+     */
+    private void record(Circuit circuit, long start, Status status) {
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime()
+                - start);
+        circuit.record(System.currentTimeMillis(), isFailure(status),
+                (getSlowCallDuration() >= 0)
+                        && (duration > getSlowCallDuration()));
+    }
+
+    /**
+     * Sets the rate of failed calls opening the circuit.
+     * 
+     * @param failureRateThreshold
+     *            The rate of failed calls opening the circuit.
+     */
+    public void setFailureRateThreshold(float failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    /**
+     * Sets the number of probe calls let through when half-open.
+     * 
+     * @param halfOpenProbes
+     *            The number of probe calls let through when half-open.
+     */
+    public void setHalfOpenProbes(int halfOpenProbes) {
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    /**
+     * Sets the minimum number of calls in the window before evaluating the
+     * rates.
+     * 
+     * @param minimumCalls
+     *            The minimum number of calls in the window.
+     */
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    /**
+     * Sets the duration in milliseconds of the open state.
+     * 
+     * @param openDuration
+     *            The duration in milliseconds of the open state.
+     */
+    public void setOpenDuration(long openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Sets the duration in milliseconds above which a call is slow. -1
+     * disables the detection of slow calls.
+     * 
+     * @param slowCallDuration
+     *            The duration in milliseconds above which a call is slow.
+     */
+    public void setSlowCallDuration(long slowCallDuration) {
+        this.slowCallDuration = slowCallDuration;
+    }
+
+    /**
+     * Sets the rate of slow calls opening the circuit.
+     * 
+     * @param slowCallRateThreshold
+     *            The rate of slow calls opening the circuit.
+     */
+    public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    /**
+     * Sets the duration in milliseconds of the sliding window.
+     * 
+     * @param windowDuration
+     *            The duration in milliseconds of the sliding window.
+     */
+    public void setWindowDuration(long windowDuration) {
+        this.windowDuration = windowDuration;
+    }
+
+}
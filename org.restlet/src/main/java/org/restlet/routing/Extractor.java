@@ -34,6 +34,7 @@ import org.restlet.message.Request;
 import org.restlet.message.Response;
 import org.restlet.representation.Representation;
 import org.restlet.util.Form;
+import org.restlet.util.FormView;
 import org.restlet.util.Series;
 
 /**
@@ -131,20 +132,18 @@ public class Extractor extends Filter {
     protected int beforeHandle(Request request, Response response) {
         // Extract the query parameters
         if (!getQueryExtracts().isEmpty()) {
-            Form form = request.getResourceRef().getQueryAsForm();
+            FormView query = request.getResourceRef().getQueryView();
 
-            if (form != null) {
-                for (ExtractInfo ei : getQueryExtracts()) {
-                    if (ei.first) {
-                        String value = form.getFirstValue(ei.parameter);
+            for (ExtractInfo ei : getQueryExtracts()) {
+                if (ei.first) {
+                    String value = query.getFirstValue(ei.parameter);
 
-                        if (value != null) {
-                            request.getAttributes().put(ei.attribute, value);
-                        }
-                    } else {
-                        request.getAttributes().put(ei.attribute,
-                                form.subList(ei.parameter));
+                    if (value != null) {
+                        request.getAttributes().put(ei.attribute, value);
                     }
+                } else {
+                    request.getAttributes().put(ei.attribute,
+                            query.toForm().subList(ei.parameter));
                 }
             }
         }
@@ -24,10 +24,17 @@
 
 package org.restlet.routing;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.restlet.Application;
 import org.restlet.Component;
 import org.restlet.Context;
 import org.restlet.Restlet;
+import org.restlet.engine.connector.HttpClientHelper;
 import org.restlet.engine.header.HeaderConstants;
 import org.restlet.engine.header.HeaderUtils;
 import org.restlet.message.Request;
@@ -57,6 +64,10 @@ import org.restlet.util.Resolver;
  * properly redirected as well, "rr" appending the remaining part of the current
  * request URI that hasn't been routed yet.<br>
  * <br>
+ * When several upstream servers are available, the {@link #MODE_REVERSE_PROXY}
+ * mode balances the calls across the list of {@link #getTargetTemplates()}
+ * and temporarily skips the targets that repeatedly failed.<br>
+ * <br>
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
  * should be especially careful when storing state in member variables.
@@ -67,6 +78,27 @@ import org.restlet.util.Resolver;
  * @author Jerome Louvel
  */
 public class Redirector extends Restlet {
+
+    /**
+     * Passive health state of a target template, updated from the outcome of
+     * the proxied calls.
+     */
+    private static final class TargetHealth {
+
+        /** The number of consecutive failures. */
+        private final AtomicInteger failures = new AtomicInteger();
+
+        /** The time until which the target is considered unhealthy. */
+        private volatile long unhealthyUntil;
+
+    }
+
+    /** The default number of consecutive failures marking a target unhealthy. */
+    public static final int DEFAULT_MAX_FAILURES = 3;
+
+    /** The default duration in milliseconds a target stays unhealthy. */
+    public static final long DEFAULT_UNHEALTHY_DURATION = 10000L;
+
     /**
      * In this mode, the client is simply redirected to the URI generated from
      * the target URI pattern using the {@link Status#REDIRECTION_FOUND} status.
@@ -105,6 +137,30 @@ public class Redirector extends Restlet {
      */
     public static final int MODE_CLIENT_TEMPORARY = 4;
 
+    /**
+     * In this mode, the call is handled like in {@link #MODE_SERVER_OUTBOUND}
+     * but the target URI is generated from one of the
+     * {@link #getTargetTemplates()}, selected in a round-robin way among the
+     * healthy ones. The health of each target is passively checked: after
+     * {@link #getMaxFailures()} consecutive connector errors or 502, 503 and
+     * 504 statuses, a target is skipped for
+     * {@link #getUnhealthyDuration()} milliseconds. When a target cannot be
+     * connected to, the call is transparently sent to the next one, as long as
+     * the request entity hasn't been consumed.<br>
+     * <br>
+     * Entities are not buffered: the request entity is streamed to the
+     * upstream connection and the upstream response entity is streamed back to
+     * the client. With the default HTTP client, released upstream connections
+     * are kept alive and reused.<br>
+     * <br>
+     * If the list of target templates is empty, the
+     * {@link #getTargetTemplate()} is used. Note: this is a server-side
+     * redirection.
+     * 
+     * @see #getTargetTemplates()
+     */
+    public static final int MODE_REVERSE_PROXY = 8;
+
     /**
      * In this mode, the call is sent to {@link Context#getServerDispatcher()}.
      * Once the selected client connector has completed the request handling,
@@ -155,12 +211,27 @@ public class Redirector extends Restlet {
      */
     protected volatile boolean headersCleaning;
 
+    /** The number of consecutive failures marking a target unhealthy. */
+    private volatile int maxFailures;
+
     /** The redirection mode. */
     protected volatile int mode;
 
+    /** The index of the next target to try in reverse proxy mode. */
+    private final AtomicInteger nextTarget;
+
+    /** The passive health state of the target templates. */
+    private final ConcurrentMap<String, TargetHealth> targetHealths;
+
     /** The target URI pattern. */
     protected volatile String targetTemplate;
 
+    /** The target URI patterns balanced in reverse proxy mode. */
+    private final List<String> targetTemplates;
+
+    /** The duration in milliseconds a failing target stays unhealthy. */
+    private volatile long unhealthyDuration;
+
     /**
      * Constructor for the client dispatcher mode.
      * 
@@ -190,24 +261,82 @@ public class Redirector extends Restlet {
         this.targetTemplate = targetPattern;
         this.mode = mode;
         this.headersCleaning = true;
+        this.maxFailures = DEFAULT_MAX_FAILURES;
+        this.nextTarget = new AtomicInteger();
+        this.targetHealths = new ConcurrentHashMap<String, TargetHealth>();
+        this.targetTemplates = new CopyOnWriteArrayList<String>();
+        this.unhealthyDuration = DEFAULT_UNHEALTHY_DURATION;
+    }
+
+    /**
+     * Constructor for the reverse proxy mode, balancing the calls across
+     * several targets.
+     * 
+     * @param context
+     *            The context.
+     * @param targetTemplates
+     *            The templates to build the target URIs.
+     * @see #MODE_REVERSE_PROXY
+     */
+    public Redirector(Context context, List<String> targetTemplates) {
+        this(context, targetTemplates.isEmpty() ? null : targetTemplates
+                .get(0), MODE_REVERSE_PROXY);
+        this.targetTemplates.addAll(targetTemplates);
     }
 
     /**
      * Computes the new location of the given reference, after applying the
+     * redirection template. In {@link #MODE_REVERSE_PROXY} mode, each of the
+     * target templates is tried as the reference may come from any of them.
+     * Returns null in case it cannot compute the new reference.
+     * 
+     * @param locationRef
+     *            The reference to translate.
+     * @param request
+     *            The current request.
+     * @return The new location of the given reference.
+     */
+    private String getLocation(Reference locationRef, Request request) {
+        String result = getLocation(this.targetTemplate, locationRef, request);
+
+        if ((result == null) && (getMode() == MODE_REVERSE_PROXY)) {
+            for (String targetTemplate : getTargetTemplates()) {
+                if (!targetTemplate.equals(this.targetTemplate)) {
+                    result = getLocation(targetTemplate, locationRef, request);
+
+                    if (result != null) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the new location of the given reference, after applying a given
      * redirection template. Returns null in case it cannot compute the new
      * reference.
      * 
+     * @param targetTemplate
+     *            The redirection template.
      * @param locationRef
      *            The reference to translate.
      * @param request
      *            The current request.
      * @return The new location of the given reference.
      */
-    private String getLocation(Reference locationRef, Request request) {
+    private String getLocation(String targetTemplate, Reference locationRef,
+            Request request) {
+        if (targetTemplate == null) {
+            return null;
+        }
+
         Reference resourceRef = request.getResourceRef();
         Reference baseRef = resourceRef.getBaseRef();
 
-        Template rt = new Template(this.targetTemplate);
+        Template rt = new Template(targetTemplate);
         rt.setLogger(getLogger());
         int matched = rt.parse(locationRef.toString(), request);
 
@@ -222,6 +351,17 @@ public class Redirector extends Restlet {
         return null;
     }
 
+    /**
+     * Returns the number of consecutive failures after which a target is
+     * considered unhealthy in {@link #MODE_REVERSE_PROXY} mode. Defaults to
+     * {@link #DEFAULT_MAX_FAILURES}.
+     * 
+     * @return The number of consecutive failures marking a target unhealthy.
+     */
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
     /**
      * Returns the redirection mode.
      * 
@@ -243,12 +383,29 @@ public class Redirector extends Restlet {
      * @return The target reference to redirect to.
      */
     protected Reference getTargetRef(Request request, Response response) {
+        return getTargetRef(this.targetTemplate, request, response);
+    }
+
+    /**
+     * Returns the target reference to redirect to by automatically resolving
+     * URI template variables of the given target template.
+     * 
+     * @param targetTemplate
+     *            The target URI pattern.
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     * @return The target reference to redirect to.
+     */
+    protected Reference getTargetRef(String targetTemplate, Request request,
+            Response response) {
         // Create the template
-        Template rt = new Template(this.targetTemplate);
+        Template rt = new Template(targetTemplate);
         rt.setLogger(getLogger());
 
         // Return the formatted target URI
-        if (new Reference(this.targetTemplate).isRelative()) {
+        if (new Reference(targetTemplate).isRelative()) {
             // Be sure to keep the resource's base reference.
             return new Reference(request.getResourceRef(), rt.format(request,
                     response));
@@ -266,6 +423,27 @@ public class Redirector extends Restlet {
         return this.targetTemplate;
     }
 
+    /**
+     * Returns the modifiable list of target URI patterns balanced in
+     * {@link #MODE_REVERSE_PROXY} mode.
+     * 
+     * @return The modifiable list of target URI patterns.
+     */
+    public List<String> getTargetTemplates() {
+        return this.targetTemplates;
+    }
+
+    /**
+     * Returns the duration in milliseconds during which an unhealthy target is
+     * skipped in {@link #MODE_REVERSE_PROXY} mode. Defaults to
+     * {@link #DEFAULT_UNHEALTHY_DURATION}.
+     * 
+     * @return The duration in milliseconds a failing target stays unhealthy.
+     */
+    public long getUnhealthyDuration() {
+        return unhealthyDuration;
+    }
+
     /**
      * Handles a call by redirecting using the selected redirection mode.
      * 
@@ -276,6 +454,12 @@ public class Redirector extends Restlet {
      */
     @Override
     public void handle(Request request, Response response) {
+        if (this.mode == MODE_REVERSE_PROXY) {
+            // The target depends on the selected upstream server
+            proxyRedirect(request, response);
+            return;
+        }
+
         // Generate the target reference
         Reference targetRef = getTargetRef(request, response);
 
@@ -360,6 +544,41 @@ public class Redirector extends Restlet {
         return headersCleaning;
     }
 
+    /**
+     * Indicates if the given target template is currently considered healthy
+     * by the passive health checks of the {@link #MODE_REVERSE_PROXY} mode.
+     * 
+     * @param targetTemplate
+     *            The target URI pattern.
+     * @return True if the target is considered healthy.
+     */
+    public boolean isTargetHealthy(String targetTemplate) {
+        TargetHealth health = this.targetHealths.get(targetTemplate);
+        return (health == null)
+                || (health.unhealthyUntil <= System.currentTimeMillis());
+    }
+
+    /**
+     * Indicates if the response of a proxied call reveals a failure of the
+     * target. By default, connector errors and the
+     * {@link Status#SERVER_ERROR_BAD_GATEWAY},
+     * {@link Status#SERVER_ERROR_SERVICE_UNAVAILABLE} and
+     * {@link Status#SERVER_ERROR_GATEWAY_TIMEOUT} statuses are failures.
+     * 
+     * @param request
+     *            The proxied request.
+     * @param response
+     *            The proxied response.
+     * @return True if the target failed.
+     */
+    protected boolean isTargetFailure(Request request, Response response) {
+        Status status = response.getStatus();
+        return status.isConnectorError()
+                || Status.SERVER_ERROR_BAD_GATEWAY.equals(status)
+                || Status.SERVER_ERROR_SERVICE_UNAVAILABLE.equals(status)
+                || Status.SERVER_ERROR_GATEWAY_TIMEOUT.equals(status);
+    }
+
     /**
      * Redirects a given call to a target reference. In the default
      * implementation, the request HTTP headers, stored in the request's
@@ -392,6 +611,60 @@ public class Redirector extends Restlet {
         }
     }
 
+    /**
+     * Redirects a given call to one of the balanced target templates, in
+     * {@link #MODE_REVERSE_PROXY} mode. The health of the selected target is
+     * updated from the response and, if the connection to the target could
+     * not be established, the call is sent to the next healthy target. The
+     * default HTTP client is asked to keep the upstream connections alive.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param response
+     *            The response to update.
+     */
+    protected void proxyRedirect(Request request, Response response) {
+        int attempts = Math.max(1, getTargetTemplates().size());
+        String previous = null;
+
+        // Let the HTTP client keep the upstream connections alive
+        request.getAttributes().put(
+                HttpClientHelper.ATTRIBUTE_PERSISTING_CONNECTION, true);
+
+        for (int i = 0; i < attempts; i++) {
+            String targetTemplate = selectTargetTemplate(previous);
+
+            if ((targetTemplate == null) || targetTemplate.equals(previous)) {
+                break;
+            }
+
+            Reference targetRef = getTargetRef(targetTemplate, request,
+                    response);
+
+            if (request.isLoggable()) {
+                getLogger().debug("Proxying call to: " + targetRef);
+            }
+
+            outboundServerRedirect(targetRef, request, response);
+            boolean failed = isTargetFailure(request, response);
+            updateTargetHealth(targetTemplate, failed);
+
+            // Only retry when nothing could be sent to the failing target
+            if (!failed
+                    || !Status.CONNECTOR_ERROR_CONNECTION.equals(response
+                            .getStatus())
+                    || (request.getEntity() != null && !request.getEntity()
+                            .isAvailable())) {
+                break;
+            }
+
+            previous = targetTemplate;
+        }
+
+        request.getAttributes().remove(
+                HttpClientHelper.ATTRIBUTE_PERSISTING_CONNECTION);
+    }
+
     /**
      * Optionally rewrites the response entity returned in the
      * {@link #MODE_SERVER_INBOUND} and {@link #MODE_SERVER_OUTBOUND} modes. By
@@ -472,6 +745,47 @@ public class Redirector extends Restlet {
         }
     }
 
+    /**
+     * Selects the next target template in {@link #MODE_REVERSE_PROXY} mode,
+     * in a round-robin way among the healthy ones. If all targets are
+     * unhealthy, the one expected to recover first is returned. If the list of
+     * target templates is empty, the {@link #getTargetTemplate()} is returned.
+     * 
+     * @param excluded
+     *            The target template to avoid if possible, or null.
+     * @return The selected target template.
+     */
+    protected String selectTargetTemplate(String excluded) {
+        String[] templates = getTargetTemplates().toArray(new String[0]);
+
+        if (templates.length == 0) {
+            return getTargetTemplate();
+        }
+
+        int start = (nextTarget.getAndIncrement() & Integer.MAX_VALUE)
+                % templates.length;
+        long now = System.currentTimeMillis();
+        String result = null;
+        long earliest = Long.MAX_VALUE;
+
+        for (int i = 0; i < templates.length; i++) {
+            String template = templates[(start + i) % templates.length];
+
+            if (!template.equals(excluded)) {
+                TargetHealth health = this.targetHealths.get(template);
+
+                if ((health == null) || (health.unhealthyUntil <= now)) {
+                    return template;
+                } else if (health.unhealthyUntil < earliest) {
+                    earliest = health.unhealthyUntil;
+                    result = template;
+                }
+            }
+        }
+
+        return (result == null) ? templates[start] : result;
+    }
+
     /**
      * Redirects a given call on the server-side to a next Restlet with a given
      * target reference. In the default implementation, the request HTTP
@@ -527,6 +841,18 @@ public class Redirector extends Restlet {
         this.headersCleaning = headersCleaning;
     }
 
+    /**
+     * Sets the number of consecutive failures after which a target is
+     * considered unhealthy in {@link #MODE_REVERSE_PROXY} mode.
+     * 
+     * @param maxFailures
+     *            The number of consecutive failures marking a target
+     *            unhealthy.
+     */
+    public void setMaxFailures(int maxFailures) {
+        this.maxFailures = maxFailures;
+    }
+
     /**
      * Sets the redirection mode.
      * 
@@ -547,4 +873,78 @@ public class Redirector extends Restlet {
         this.targetTemplate = targetTemplate;
     }
 
+    /**
+     * Sets the list of target URI patterns balanced in
+     * {@link #MODE_REVERSE_PROXY} mode. The health state of the previous
+     * targets is reset.
+     * 
+     * @param targetTemplates
+     *            The list of target URI patterns.
+     */
+    public void setTargetTemplates(List<String> targetTemplates) {
+        synchronized (this.targetTemplates) {
+            if (targetTemplates != this.targetTemplates) {
+                this.targetTemplates.clear();
+
+                if (targetTemplates != null) {
+                    this.targetTemplates.addAll(targetTemplates);
+                }
+            }
+        }
+
+        this.targetHealths.clear();
+    }
+
+    /**
+     * Sets the duration in milliseconds during which an unhealthy target is
+     * skipped in {@link #MODE_REVERSE_PROXY} mode.
+     * 
+     * @param unhealthyDuration
+     *            The duration in milliseconds a failing target stays
+     *            unhealthy.
+     */
+    public void setUnhealthyDuration(long unhealthyDuration) {
+        this.unhealthyDuration = unhealthyDuration;
+    }
+
+    /**
+     * Updates the passive health state of a target template after a proxied
+     * call.
+     * 
+     * @param targetTemplate
+     *            The target URI pattern.
+     * @param failed
+     *            True if the call failed.
+     */
+    private void updateTargetHealth(String targetTemplate, boolean failed) {
+        TargetHealth health = this.targetHealths.get(targetTemplate);
+
+        if (!failed) {
+            if (health != null) {
+                health.failures.set(0);
+                health.unhealthyUntil = 0L;
+            }
+        } else {
+            if (health == null) {
+                TargetHealth newHealth = new TargetHealth();
+                health = this.targetHealths.putIfAbsent(targetTemplate,
+                        newHealth);
+
+                if (health == null) {
+                    health = newHealth;
+                }
+            }
+
+            if (health.failures.incrementAndGet() >= getMaxFailures()) {
+                health.failures.set(0);
+                health.unhealthyUntil = System.currentTimeMillis()
+                        + getUnhealthyDuration();
+                getLogger().warn(
+                        "Target " + targetTemplate
+                                + " marked unhealthy for "
+                                + getUnhealthyDuration() + " ms");
+            }
+        }
+    }
+
 }
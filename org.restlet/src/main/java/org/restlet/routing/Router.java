@@ -32,6 +32,7 @@ import org.restlet.message.Status;
 import org.restlet.resource.Directory;
 import org.restlet.resource.Finder;
 import org.restlet.resource.ServerResource;
+import org.restlet.util.RetryPolicy;
 import org.restlet.util.RouteList;
 
 /**
@@ -146,6 +147,9 @@ public class Router extends Restlet {
     /** The delay (in milliseconds) before a new attempt. */
     private volatile long retryDelay;
 
+    /** The retry policy replacing the fixed retry delay. */
+    private volatile RetryPolicy retryPolicy;
+
     /** The modifiable list of routes. */
     private volatile RouteList routes;
 
@@ -515,13 +519,23 @@ public class Router extends Restlet {
      */
     public Restlet getNext(Request request, Response response) {
         Route result = null;
+        RetryPolicy retryPolicy = getRetryPolicy();
+
+        if (retryPolicy != null) {
+            retryPolicy.recordCall();
+        }
 
         for (int i = 0; (result == null) && (i < getMaxAttempts()); i++) {
             if (i > 0) {
+                if ((retryPolicy != null) && !retryPolicy.tryAcquire()) {
+                    break;
+                }
+
                 // Before attempting another time, let's
                 // sleep during the "retryDelay" set.
                 try {
-                    Thread.sleep(getRetryDelay());
+                    Thread.sleep((retryPolicy == null) ? getRetryDelay()
+                            : retryPolicy.getDelay(i - 1));
                 } catch (InterruptedException e) {
                     // MITRE, CWE-391 - Unchecked Error Condition
                     Thread.currentThread().interrupt();
@@ -602,6 +616,17 @@ public class Router extends Restlet {
         return this.retryDelay;
     }
 
+    /**
+     * Returns the retry policy replacing the fixed retry delay. When set, the
+     * delay before a new attempt grows with exponential backoff and jitter,
+     * and attempts stop when the policy budget is exhausted. Null by default.
+     * 
+     * @return The retry policy or null.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return this.retryPolicy;
+    }
+
     /**
      * Returns the modifiable list of routes. Creates a new instance if no one
      * has been set.
@@ -783,6 +808,16 @@ public class Router extends Restlet {
         this.retryDelay = retryDelay;
     }
 
+    /**
+     * Sets the retry policy replacing the fixed retry delay.
+     * 
+     * @param retryPolicy
+     *            The retry policy or null.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
     /**
      * Sets the modifiable list of routes.
      * 
@@ -169,7 +169,7 @@ public class CookieAuthenticator extends ChallengeAuthenticator {
      *            The current response.
      */
     protected void attemptRedirect(Request request, Response response) {
-        String targetUri = request.getResourceRef().getQueryAsForm()
+        String targetUri = request.getResourceRef().getQueryView()
                 .getFirstValue(getRedirectQueryName());
 
         if (targetUri != null) {
@@ -242,10 +242,10 @@ public class CookieAuthenticator extends ChallengeAuthenticator {
         } else {
             Reference ref = response.getRequest().getResourceRef();
             String redirectQueryName = getRedirectQueryName();
-            String redirectQueryValue = ref.getQueryAsForm().getFirstValue(
-                    redirectQueryName, "");
+            String redirectQueryValue = ref.getQueryView().getFirstValue(
+                    redirectQueryName);
 
-            if ("".equals(redirectQueryValue)) {
+            if ((redirectQueryValue == null) || "".equals(redirectQueryValue)) {
                 redirectQueryValue = new Reference(getLoginFormPath())
                         .addQueryParameter(redirectQueryName, ref.toString())
                         .toString();
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.service;
+
+import org.restlet.Context;
+import org.restlet.engine.application.CacheFilter;
+import org.restlet.engine.cache.CacheStore;
+import org.restlet.routing.Filter;
+import org.restlet.util.Reference;
+
+/**
+ * Application service caching responses in memory, following the HTTP caching
+ * rules for shared caches. Only responses to GET requests with explicit
+ * freshness information ("s-maxage" or "max-age" cache directives or an entity
+ * expiration date) are stored, taking into account the dimensions they vary
+ * on. Fresh responses are then returned for the following GET and HEAD
+ * requests, including "304 Not Modified" responses to conditional requests,
+ * without invoking the resources. Concurrent misses for the same response are
+ * collapsed so that only one of them is handled by the resource.<br>
+ * <br>
+ * Successful unsafe requests invalidate the responses cached for their target
+ * resource and for their response location. Because the cached responses are
+ * stored before encoding, the service should stay after the encoder service
+ * in the list of services.
+ * 
+ * @author Jerome Louvel
+ */
+public class CacheService extends Service {
+
+    /** The default maximum time in milliseconds waiting for a collapsed miss. */
+    public static final long DEFAULT_COLLAPSING_TIMEOUT = 10000;
+
+    /** The default maximum size in bytes of a cached entity. */
+    public static final long DEFAULT_MAX_ENTRY_SIZE = 1024 * 1024;
+
+    /**
+     * The default time in milliseconds during which misses for an uncacheable
+     * response aren't collapsed.
+     */
+    public static final long DEFAULT_PASS_DURATION = 30000;
+
+    /** The maximum time in milliseconds waiting for a collapsed miss. */
+    private volatile long collapsingTimeout;
+
+    /** The maximum size in bytes of a cached entity. */
+    private volatile long maxEntrySize;
+
+    /** The time during which misses for an uncacheable response pass. */
+    private volatile long passDuration;
+
+    /** The store of cached responses. */
+    private final CacheStore store;
+
+    /**
+     * Constructor.
+     */
+    public CacheService() {
+        this(true);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param enabled
+     *            True if the service has been enabled.
+     */
+    public CacheService(boolean enabled) {
+        super(enabled);
+        this.collapsingTimeout = DEFAULT_COLLAPSING_TIMEOUT;
+        this.maxEntrySize = DEFAULT_MAX_ENTRY_SIZE;
+        this.passDuration = DEFAULT_PASS_DURATION;
+        this.store = new CacheStore();
+    }
+
+    /**
+     * Removes all the cached responses.
+     */
+    public void clear() {
+        getStore().clear();
+    }
+
+    @Override
+    public Filter createInboundFilter(Context context) {
+        return new CacheFilter(context, this);
+    }
+
+    /**
+     * Returns the maximum time in milliseconds a request waits for the
+     * concurrent handling of the same response before being handled itself.
+     * 
+     * @return The maximum time in milliseconds waiting for a collapsed miss.
+     */
+    public long getCollapsingTimeout() {
+        return collapsingTimeout;
+    }
+
+    /**
+     * Returns the maximum size in bytes of a cached entity. Larger entities are
+     * never stored. -1 means no limit.
+     * 
+     * @return The maximum size in bytes of a cached entity.
+     */
+    public long getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    /**
+     * Returns the time in milliseconds during which the concurrent misses for
+     * a response that couldn't be stored are handled directly instead of
+     * being collapsed.
+     * 
+     * @return The time during which misses for an uncacheable response pass.
+     */
+    public long getPassDuration() {
+        return passDuration;
+    }
+
+    /**
+     * Returns the store of cached responses, giving access to its memory and
+     * overflow limits.
+     * 
+     * @return The store of cached responses.
+     */
+    public CacheStore getStore() {
+        return store;
+    }
+
+    /**
+     * Removes the responses cached for a given resource.
+     * 
+     * @param resourceRef
+     *            The resource reference.
+     */
+    public void invalidate(Reference resourceRef) {
+        getStore().remove(resourceRef.getTargetRef().toString(true, false));
+    }
+
+    /**
+     * Sets the maximum time in milliseconds a request waits for the concurrent
+     * handling of the same response before being handled itself.
+     * 
+     * @param collapsingTimeout
+     *            The maximum time in milliseconds waiting for a collapsed miss.
+     */
+    public void setCollapsingTimeout(long collapsingTimeout) {
+        this.collapsingTimeout = collapsingTimeout;
+    }
+
+    /**
+     * Sets the maximum size in bytes of a cached entity. -1 means no limit.
+     * 
+     * @param maxEntrySize
+     *            The maximum size in bytes of a cached entity.
+     */
+    public void setMaxEntrySize(long maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    /**
+     * Sets the time in milliseconds during which the concurrent misses for a
+     * response that couldn't be stored are handled directly instead of being
+     * collapsed.
+     * 
+     * @param passDuration
+     *            The time during which misses for an uncacheable response
+     *            pass.
+     */
+    public void setPassDuration(long passDuration) {
+        this.passDuration = passDuration;
+    }
+
+    @Override
+    public synchronized void stop() throws Exception {
+        super.stop();
+        getStore().clear();
+    }
+
+}
@@ -24,23 +24,64 @@
 
 package org.restlet.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.restlet.engine.application.Conneg;
 import org.restlet.engine.application.FlexibleConneg;
 import org.restlet.engine.application.StrictConneg;
+import org.restlet.engine.resource.MethodAnnotationInfo;
+import org.restlet.engine.resource.VariantInfo;
+import org.restlet.engine.util.LruCache;
 import org.restlet.message.Request;
+import org.restlet.representation.Encoding;
+import org.restlet.representation.Language;
 import org.restlet.representation.Variant;
 
 /**
  * Application service negotiating the preferred resource variants. This service
  * is leveraged by server-side and client-side content negotiation, annotated
- * method dispatching, and so on.
+ * method dispatching, and so on.<br>
+ * <br>
+ * Negotiation results are cached by raw "Accept*" header values and variant
+ * list, as long as the client preferences haven't been parsed or modified
+ * before the negotiation. The cache size can be changed via the
+ * {@link #setCacheSize(int)} method, zero disabling it.
  * 
  * @author Jerome Louvel
  */
 public class ConnegService extends Service {
 
+    /** The default maximum number of cached negotiation results. */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    /**
+     * Returns a description of the variant dimensions used by the negotiation
+     * algorithms. Unlike the variant itself, the description isn't affected by
+     * later modifications of the variant.
+     * 
+     * @param variant
+     *            The variant to describe.
+     * @return The variant description.
+     */
+    private static List<Object> describe(Variant variant) {
+        List<Object> result = Arrays.<Object> asList(variant.getMediaType(),
+                variant.getCharacterSet(), new ArrayList<Language>(
+                        variant.getLanguages()), new ArrayList<Encoding>(
+                        variant.getEncodings()), null, null);
+
+        if (variant instanceof VariantInfo) {
+            result.set(4, ((VariantInfo) variant).getAnnotationInfo());
+            result.set(5, ((VariantInfo) variant).getInputScore());
+        }
+
+        return result;
+    }
+
+    /** The cache of preferred variant indexes. */
+    private final LruCache<List<Object>, Integer> cache;
+
     /**
      * Indicates if the conneg algorithm should strictly respect client
      * preferences or be more flexible.
@@ -63,6 +104,70 @@ public class ConnegService extends Service {
     public ConnegService(boolean enabled) {
         super(enabled);
         this.strict = false;
+        this.cache = new LruCache<List<Object>, Integer>(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Returns the cache key of a negotiation or null if the negotiation can't
+     * be cached. This is the case when the client preferences have been
+     * parsed or modified, or when some variants aren't plain {@link Variant}
+     * or {@link VariantInfo} instances.
+     * 
+     * @param variants
+     *            The list of variants to compare.
+     * @param request
+     *            The request including client preferences.
+     * @param metadataService
+     *            The metadata service used to get default metadata values.
+     * @return The cache key or null.
+     */
+    private List<Object> getCacheKey(List<? extends Variant> variants,
+            Request request, MetadataService metadataService) {
+        List<String> preferenceHeaders = request.getClientInfo()
+                .getPreferenceHeaders();
+
+        if (preferenceHeaders == null) {
+            return null;
+        }
+
+        // The annotation scores also depend on the query
+        List<Object> variantDescriptions = new ArrayList<Object>(
+                variants.size());
+        boolean queryConstrained = false;
+
+        for (Variant variant : variants) {
+            if (variant.getClass() == VariantInfo.class) {
+                MethodAnnotationInfo annotationInfo = ((VariantInfo) variant)
+                        .getAnnotationInfo();
+                queryConstrained = queryConstrained
+                        || ((annotationInfo != null) && (annotationInfo
+                                .getQuery() != null));
+            } else if (variant.getClass() != Variant.class) {
+                return null;
+            }
+
+            variantDescriptions.add(describe(variant));
+        }
+
+        String query = (request.getResourceRef() == null) ? null : request
+                .getResourceRef().getQuery();
+        return Arrays.<Object> asList(isStrict(), metadataService,
+                (metadataService == null) ? null : Arrays.asList(
+                        metadataService.getDefaultCharacterSet(),
+                        metadataService.getDefaultEncoding(),
+                        metadataService.getDefaultLanguage(),
+                        metadataService.getDefaultMediaType()),
+                preferenceHeaders, variantDescriptions,
+                queryConstrained ? query : Boolean.valueOf(query != null));
+    }
+
+    /**
+     * Returns the maximum number of cached negotiation results.
+     * 
+     * @return The maximum number of cached negotiation results.
+     */
+    public int getCacheSize() {
+        return this.cache.getMaxSize();
     }
 
     /**
@@ -84,9 +189,35 @@ public class ConnegService extends Service {
      */
     public Variant getPreferredVariant(List<? extends Variant> variants,
             Request request, MetadataService metadataService) {
+        List<Object> key = ((getCacheSize() > 0) && (variants != null) && !variants
+                .isEmpty()) ? getCacheKey(variants, request, metadataService)
+                : null;
+
+        if (key != null) {
+            Integer index = this.cache.get(key);
+
+            if (index != null) {
+                return (index < 0) ? null : variants.get(index);
+            }
+        }
+
         Conneg conneg = isStrict() ? new StrictConneg(request, metadataService)
                 : new FlexibleConneg(request, metadataService);
-        return conneg.getPreferredVariant(variants);
+        Variant result = conneg.getPreferredVariant(variants);
+
+        if (key != null) {
+            int index = -1;
+
+            for (int i = 0; (index < 0) && (i < variants.size()); i++) {
+                if (variants.get(i) == result) {
+                    index = i;
+                }
+            }
+
+            this.cache.put(key, index);
+        }
+
+        return result;
     }
 
     /**
@@ -112,4 +243,19 @@ public class ConnegService extends Service {
         this.strict = strict;
     }
 
+    /**
+     * Sets the maximum number of cached negotiation results. Zero disables the
+     * cache.
+     * 
+     * @param cacheSize
+     *            The maximum number of cached negotiation results.
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cache.setMaxSize(cacheSize);
+
+        if (cacheSize <= 0) {
+            this.cache.clear();
+        }
+    }
+
 }
@@ -32,12 +32,15 @@ import org.restlet.Context;
 import org.restlet.engine.Engine;
 import org.restlet.engine.converter.ConverterHelper;
 import org.restlet.engine.converter.ConverterUtils;
+import org.restlet.engine.local.LocalRepresentation;
 import org.restlet.engine.resource.VariantInfo;
 import org.restlet.message.Preference;
+import org.restlet.message.Request;
 import org.restlet.representation.MediaType;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Resource;
+import org.restlet.util.Protocol;
 
 /**
  * Application service converting between representation and regular Java
@@ -47,17 +50,26 @@ import org.restlet.resource.Resource;
  * Root object classes used for conversion shouldn't be generic classes
  * otherwise important contextual type information will be missing at runtime
  * due to Java type erasure mechanism. If needed, create a fully resolved
- * subclasses and/or a container classes.
+ * subclasses and/or a container classes.<br>
+ * <br>
+ * For in-process calls using the RIAP protocol, the converted representations
+ * can also keep the original Java objects. When the receiving resource expects
+ * a compatible class, it then directly gets the original object, skipping both
+ * the serialization and the parsing steps. This is disabled by default, see
+ * {@link #setObjectPassing(boolean)}.
  * 
  * @author Jerome Louvel
  */
 public class ConverterService extends Service {
 
+    /** Indicates if Java objects are passed as-is for RIAP calls. */
+    private volatile boolean objectPassing;
+
     /**
      * Constructor.
      */
     public ConverterService() {
-        super();
+        this(true);
     }
 
     /**
@@ -68,6 +80,7 @@ public class ConverterService extends Service {
      */
     public ConverterService(boolean enabled) {
         super(enabled);
+        this.objectPassing = false;
     }
 
     /**
@@ -163,6 +176,31 @@ public class ConverterService extends Service {
         return ConverterUtils.getVariants(source, target);
     }
 
+    /**
+     * Indicates if the given resource handles an in-process RIAP call.
+     * 
+     * @param resource
+     *            The parent resource.
+     * @return True if the given resource handles an in-process RIAP call.
+     */
+    private boolean isLocal(Resource resource) {
+        Request request = (resource == null) ? null : resource.getRequest();
+        return (request != null) && Protocol.RIAP.equals(request.getProtocol());
+    }
+
+    /**
+     * Indicates if Java objects are passed as-is between the two sides of an
+     * in-process RIAP call. In this case, the same instance is shared by the
+     * client and the server resources, so it shouldn't be modified after being
+     * sent, and the filtering done by converters, such as views or ignored
+     * properties, doesn't apply. Default value is false.
+     * 
+     * @return True if Java objects are passed as-is for RIAP calls.
+     */
+    public boolean isObjectPassing() {
+        return objectPassing;
+    }
+
     /**
      * Reverts a patch representation from a modified representation in order to
      * obtain the initial one. The patch must have a recognized media type in
@@ -182,6 +220,17 @@ public class ConverterService extends Service {
         return null;
     }
 
+    /**
+     * Indicates if Java objects are passed as-is between the two sides of an
+     * in-process RIAP call.
+     * 
+     * @param objectPassing
+     *            True if Java objects are passed as-is for RIAP calls.
+     */
+    public void setObjectPassing(boolean objectPassing) {
+        this.objectPassing = objectPassing;
+    }
+
     /**
      * Converts a Representation into a regular Java object.
      * 
@@ -213,6 +262,22 @@ public class ConverterService extends Service {
         T result = null;
         boolean loggable = (resource == null) ? true : resource.isLoggable();
 
+        if ((source instanceof LocalRepresentation) && (target != null)
+                && isObjectPassing()) {
+            Object object = ((LocalRepresentation) source).getObject();
+
+            if (target.isInstance(object)) {
+                // In-process call, no need to parse the entity
+                if (loggable && Context.getCurrentLogger().isDebugEnabled()) {
+                    Context.getCurrentLogger().debug(
+                            "Passing the local object as-is: "
+                                    + object.getClass().getSimpleName());
+                }
+
+                return target.cast(object);
+            }
+        }
+
         if ((source != null) && source.isAvailable() && (source.getSize() != 0)) {
             ConverterHelper ch = ConverterUtils.getBestHelper(source, target,
                     resource);
@@ -322,7 +387,8 @@ public class ConverterService extends Service {
             }
 
             if (target == null) {
-                List<VariantInfo> variants = ch.getVariants(source.getClass());
+                List<VariantInfo> variants = ConverterUtils.getVariants(ch,
+                        source.getClass());
 
                 if ((variants != null) && !variants.isEmpty()) {
                     if (resource != null) {
@@ -366,6 +432,12 @@ public class ConverterService extends Service {
                 if (result.getLanguages().isEmpty()) {
                     result.getLanguages().addAll(target.getLanguages());
                 }
+
+                if (isObjectPassing() && isLocal(resource)) {
+                    // Keep the object for the other side of the in-process
+                    // call
+                    result = new LocalRepresentation(result, source);
+                }
             }
         } else {
             if (loggable) {
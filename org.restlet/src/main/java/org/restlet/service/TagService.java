@@ -0,0 +1,197 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.service;
+
+import org.restlet.Context;
+import org.restlet.engine.application.TagFilter;
+import org.restlet.engine.util.LruCache;
+import org.restlet.routing.Filter;
+import org.restlet.util.Digest;
+import org.restlet.util.Tag;
+
+/**
+ * Application service automatically adding strong entity tags to the
+ * successful responses of GET and HEAD requests whose entity has no tag. The
+ * tag is a digest of the content, computed while the entity is serialized into
+ * a single buffer that is then sent to the client. Conditional requests are
+ * evaluated against the computed tag, so that "304 Not Modified" responses are
+ * returned before anything is written to the connector.<br>
+ * <br>
+ * When an entity has a modification date, it is considered as the version of
+ * the resource. The computed tags are then cached by target URI, variant and
+ * version, so that the following requests can skip the serialization of
+ * unmodified entities. The size of this cache can be changed via the
+ * {@link #setCacheSize(int)} method, zero disabling it.
+ * 
+ * @author Jerome Louvel
+ */
+public class TagService extends Service {
+
+    /** The default digest algorithm. */
+    public static final String DEFAULT_ALGORITHM = Digest.ALGORITHM_MD5;
+
+    /** The default maximum number of cached tags. */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    /** The default maximum size in bytes of a tagged entity. */
+    public static final long DEFAULT_MAX_ENTITY_SIZE = 1024 * 1024;
+
+    /** The digest algorithm. */
+    private volatile String algorithm;
+
+    /** The cache of computed tags. */
+    private final LruCache<String, Tag> cache;
+
+    /** The maximum size in bytes of a tagged entity. */
+    private volatile long maxEntitySize;
+
+    /**
+     * Constructor.
+     */
+    public TagService() {
+        this(true);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param enabled
+     *            True if the service has been enabled.
+     */
+    public TagService(boolean enabled) {
+        super(enabled);
+        this.algorithm = DEFAULT_ALGORITHM;
+        this.cache = new LruCache<String, Tag>(DEFAULT_CACHE_SIZE);
+        this.maxEntitySize = DEFAULT_MAX_ENTITY_SIZE;
+    }
+
+    /**
+     * Removes all the cached tags.
+     */
+    public void clear() {
+        this.cache.clear();
+    }
+
+    @Override
+    public Filter createInboundFilter(Context context) {
+        return new TagFilter(context, this);
+    }
+
+    /**
+     * Returns the digest algorithm. See {@link Digest} for the supported
+     * values.
+     * 
+     * @return The digest algorithm.
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the tag cached for an entity version.
+     * 
+     * @param key
+     *            The key of the entity version.
+     * @return The cached tag or null.
+     */
+    public Tag getCachedTag(String key) {
+        return (getCacheSize() > 0) ? this.cache.get(key) : null;
+    }
+
+    /**
+     * Returns the maximum number of cached tags.
+     * 
+     * @return The maximum number of cached tags.
+     */
+    public int getCacheSize() {
+        return this.cache.getMaxSize();
+    }
+
+    /**
+     * Returns the maximum size in bytes of a tagged entity. Larger entities are
+     * sent without tag. -1 means no limit.
+     * 
+     * @return The maximum size in bytes of a tagged entity.
+     */
+    public long getMaxEntitySize() {
+        return maxEntitySize;
+    }
+
+    /**
+     * Caches the tag computed for an entity version.
+     * 
+     * @param key
+     *            The key of the entity version.
+     * @param tag
+     *            The computed tag.
+     */
+    public void putCachedTag(String key, Tag tag) {
+        if (getCacheSize() > 0) {
+            this.cache.put(key, tag);
+        }
+    }
+
+    /**
+     * Sets the digest algorithm. See {@link Digest} for the supported values.
+     * 
+     * @param algorithm
+     *            The digest algorithm.
+     */
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+        clear();
+    }
+
+    /**
+     * Sets the maximum number of cached tags. Zero disables the cache.
+     * 
+     * @param cacheSize
+     *            The maximum number of cached tags.
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cache.setMaxSize(cacheSize);
+
+        if (cacheSize == 0) {
+            clear();
+        }
+    }
+
+    /**
+     * Sets the maximum size in bytes of a tagged entity. -1 means no limit.
+     * 
+     * @param maxEntitySize
+     *            The maximum size in bytes of a tagged entity.
+     */
+    public void setMaxEntitySize(long maxEntitySize) {
+        this.maxEntitySize = maxEntitySize;
+    }
+
+    @Override
+    public synchronized void stop() throws Exception {
+        super.stop();
+        clear();
+    }
+
+}
@@ -0,0 +1,365 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.restlet.Context;
+import org.restlet.Uniform;
+import org.restlet.message.Request;
+import org.restlet.message.Response;
+import org.restlet.message.Status;
+
+/**
+ * Dispatches a batch of requests concurrently and collects their responses in
+ * the order of the requests. Each call is handled by the client dispatcher of
+ * the context, in a task submitted to the executor service of the context,
+ * usually backed by the {@link org.restlet.service.TaskService}. This lets
+ * aggregating resources wait for the slowest of their dependencies instead of
+ * the sum of them all.<br>
+ * <br>
+ * Each call can't last longer than the timeout, counted from the moment it is
+ * submitted, whether its task is already running or still queued in the
+ * executor service. A call that times out is cancelled and gets a
+ * {@link Status#CONNECTOR_ERROR_COMMUNICATION} status. Without a timeout,
+ * callers running on the same executor service as the calls should make sure
+ * that it has enough threads for both. When a call fails and the cancellation
+ * of siblings is enabled, the pending calls are cancelled and get a
+ * {@link Status#CONNECTOR_ERROR_INTERNAL} status.<br>
+ * <br>
+ * If the context has no executor service, the calls are handled one after the
+ * other by the current thread.<br>
+ * <br>
+ * Concurrency note: instances of this class are thread-safe once configured.
+ * 
+ * @author Jerome Louvel
+ * @see Context#handleAll(List, long)
+ */
+public class FanOut {
+
+    /** The default timeout in milliseconds of each call. */
+    public static final long DEFAULT_TIMEOUT = 30000L;
+
+    /** Indicates if pending calls are cancelled when a call fails. */
+    private volatile boolean cancellingSiblings;
+
+    /** The parent context. */
+    private volatile Context context;
+
+    /** The timeout in milliseconds of each call. */
+    private volatile long timeout;
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The parent context providing the client dispatcher and the
+     *            executor service.
+     */
+    public FanOut(Context context) {
+        this(context, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param context
+     *            The parent context providing the client dispatcher and the
+     *            executor service.
+     * @param timeout
+     *            The timeout in milliseconds of each call, or 0 for no
+     *            timeout.
+     */
+    public FanOut(Context context, long timeout) {
+        this.context = context;
+        this.timeout = timeout;
+        this.cancellingSiblings = true;
+    }
+
+    /**
+     * Cancels the pending calls, replacing their response by a new one with
+     * the given status. The responses of cancelled calls are discarded as
+     * their tasks may still be updating them.
+     * 
+     * @param futures
+     *            The futures of the calls.
+     * @param responses
+     *            The responses of the calls.
+     * @param done
+     *            The completion flag of the calls.
+     * @param index
+     *            The index of the call to cancel, or -1 for all pending calls.
+     * @param status
+     *            The status of the cancelled calls.
+     * @return The number of cancelled calls.
+     */
+    private int cancel(List<Future<Integer>> futures, List<Response> responses,
+            boolean[] done, int index, Status status) {
+        int result = 0;
+
+        for (int i = 0; i < done.length; i++) {
+            if (!done[i] && ((index == -1) || (index == i))) {
+                futures.get(i).cancel(true);
+                Response response = new Response(responses.get(i)
+                        .getRequest());
+                response.setStatus(status);
+                responses.set(i, response);
+                done[i] = true;
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the parent context.
+     * 
+     * @return The parent context.
+     */
+    public Context getContext() {
+        return context;
+    }
+
+    /**
+     * Returns the timeout in milliseconds of each call. A value of 0 means no
+     * timeout. Defaults to {@link #DEFAULT_TIMEOUT}.
+     * 
+     * @return The timeout in milliseconds of each call.
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Dispatches the given requests concurrently and waits for their
+     * responses.
+     * 
+     * @param requests
+     *            The requests to dispatch.
+     * @return The responses, in the order of the requests.
+     */
+    public List<Response> handle(List<Request> requests) {
+        List<Response> result = new ArrayList<Response>(requests.size());
+
+        for (Request request : requests) {
+            result.add(new Response(request));
+        }
+
+        Context context = getContext();
+        Uniform dispatcher = (context == null) ? null : context
+                .getClientDispatcher();
+
+        if (dispatcher == null) {
+            Context.getCurrentLogger().warn(
+                    "No client dispatcher available to fan out the calls");
+
+            for (Response response : result) {
+                response.setStatus(Status.CONNECTOR_ERROR_INTERNAL,
+                        "No client dispatcher available");
+            }
+        } else if (context.getExecutorService() == null) {
+            handleSequentially(dispatcher, result);
+        } else {
+            handleConcurrently(dispatcher, context.getExecutorService(),
+                    result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Handles the calls concurrently using the given executor service.
+     * 
+     * @param dispatcher
+     *            The client dispatcher.
+     * @param executorService
+     *            The executor service.
+     * @param responses
+     *            The responses to update, in the order of the requests.
+     */
+    private void handleConcurrently(final Uniform dispatcher,
+            ExecutorService executorService, List<Response> responses) {
+        int count = responses.size();
+        ExecutorCompletionService<Integer> completion = new ExecutorCompletionService<Integer>(
+                executorService);
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>(count);
+        boolean[] done = new boolean[count];
+        int pending = count;
+        long timeout = getTimeout();
+        long deadline = System.currentTimeMillis() + timeout;
+
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            final Response response = responses.get(i);
+            futures.add(completion.submit(new Callable<Integer>() {
+                public Integer call() throws Exception {
+                    dispatcher.handle(response.getRequest(), response);
+                    return index;
+                }
+            }));
+        }
+
+        while (pending > 0) {
+            Future<Integer> future = null;
+
+            try {
+                if (timeout > 0) {
+                    long wait = deadline - System.currentTimeMillis();
+                    future = (wait > 0) ? completion.poll(wait,
+                            TimeUnit.MILLISECONDS) : completion.poll();
+                } else {
+                    future = completion.take();
+                }
+            } catch (InterruptedException ie) {
+                cancel(futures, responses, done, -1, new Status(
+                        Status.CONNECTOR_ERROR_INTERNAL,
+                        "The calls were interrupted"));
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (future == null) {
+                // Running or still queued, the remaining calls timed out
+                cancel(futures, responses, done, -1, new Status(
+                        Status.CONNECTOR_ERROR_COMMUNICATION,
+                        "The call timed out"));
+                break;
+            }
+
+            int index = futures.indexOf(future);
+
+            if ((index != -1) && !done[index]) {
+                try {
+                    future.get();
+                } catch (CancellationException ce) {
+                    // Already replaced
+                } catch (ExecutionException ee) {
+                    responses.get(index).setStatus(
+                            new Status(Status.CONNECTOR_ERROR_INTERNAL, ee
+                                    .getCause()));
+                } catch (InterruptedException ie) {
+                    // Can't happen as the future is done
+                    Thread.currentThread().interrupt();
+                }
+
+                done[index] = true;
+                pending--;
+
+                if (isCancellingSiblings() && (pending > 0)
+                        && isFailure(responses.get(index))) {
+                    pending -= cancel(futures, responses, done, -1,
+                            new Status(Status.CONNECTOR_ERROR_INTERNAL,
+                                    "The call was cancelled after a sibling failure"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Handles the calls one after the other in the current thread.
+     * 
+     * @param dispatcher
+     *            The client dispatcher.
+     * @param responses
+     *            The responses to update, in the order of the requests.
+     */
+    private void handleSequentially(Uniform dispatcher,
+            List<Response> responses) {
+        boolean cancelled = false;
+
+        for (Response response : responses) {
+            if (cancelled) {
+                response.setStatus(Status.CONNECTOR_ERROR_INTERNAL,
+                        "The call was cancelled after a sibling failure");
+            } else {
+                dispatcher.handle(response.getRequest(), response);
+                cancelled = isCancellingSiblings() && isFailure(response);
+            }
+        }
+    }
+
+    /**
+     * Indicates if the pending calls are cancelled as soon as a call fails.
+     * Default value is true.
+     * 
+     * @return True if the pending calls are cancelled when a call fails.
+     */
+    public boolean isCancellingSiblings() {
+        return cancellingSiblings;
+    }
+
+    /**
+     * Indicates if a completed call failed, triggering the cancellation of
+     * its siblings. By default, any error status is a failure.
+     * 
+     * @param response
+     *            The response of the completed call.
+     * @return True if the call failed.
+     */
+    protected boolean isFailure(Response response) {
+        return response.getStatus().isError();
+    }
+
+    /**
+     * Indicates if the pending calls are cancelled as soon as a call fails.
+     * 
+     * @param cancellingSiblings
+     *            True if the pending calls are cancelled when a call fails.
+     */
+    public void setCancellingSiblings(boolean cancellingSiblings) {
+        this.cancellingSiblings = cancellingSiblings;
+    }
+
+    /**
+     * Sets the parent context.
+     * 
+     * @param context
+     *            The parent context.
+     */
+    public void setContext(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Sets the timeout in milliseconds of each call. A value of 0 means no
+     * timeout.
+     * 
+     * @param timeout
+     *            The timeout in milliseconds of each call.
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+}
@@ -0,0 +1,402 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restlet.Context;
+import org.restlet.representation.CharacterSet;
+
+/**
+ * Read-only view of URL encoded parameters such as a query string. The
+ * parameters are located by offsets into the source string when the view is
+ * created, but names and values are only decoded when accessed, then cached.
+ * Names that don't need decoding are matched without any allocation.<br>
+ * <br>
+ * Use {@link #toForm()} to get a modifiable copy.
+ * 
+ * @author Jerome Louvel
+ * @see Reference#getQueryView()
+ */
+public class FormView {
+
+    /** The number of offsets stored per parameter. */
+    private static final int STRIDE = 4;
+
+    /** The character set used for decoding or null to leave data encoded. */
+    private final CharacterSet characterSet;
+
+    /** The lazily decoded parameter names. */
+    private final String[] names;
+
+    /**
+     * The offsets of each parameter: name start, name end, value start or -1
+     * if there is no value, value end.
+     */
+    private final int[] offsets;
+
+    /** The separator character used between parameters. */
+    private final char separator;
+
+    /** The number of parameters. */
+    private final int size;
+
+    /** The source string. */
+    private final String source;
+
+    /** The lazily decoded parameter values. */
+    private final String[] values;
+
+    /**
+     * Constructor. Uses '&' as the separator and decodes names and values
+     * using the UTF-8 character set.
+     * 
+     * @param source
+     *            The parameters string.
+     */
+    public FormView(String source) {
+        this(source, CharacterSet.UTF_8, '&');
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param source
+     *            The parameters string.
+     * @param characterSet
+     *            The supported character encoding. Set to null to leave the
+     *            data encoded.
+     * @param separator
+     *            The separator character used between parameters.
+     */
+    public FormView(String source, CharacterSet characterSet, char separator) {
+        this.characterSet = characterSet;
+        this.separator = separator;
+        this.source = (source == null) ? "" : source;
+
+        int[] offsets = new int[STRIDE * 4];
+        int count = 0;
+        int length = this.source.length();
+        int start = 0;
+
+        while (start < length) {
+            int end = this.source.indexOf(separator, start);
+
+            if (end == -1) {
+                end = length;
+            }
+
+            if (end > start) {
+                int equal = this.source.indexOf('=', start);
+
+                if ((equal != -1) && (equal < end) && (equal == start)) {
+                    Context.getCurrentLogger()
+                            .warn("Empty parameter name detected. Skipping the remaining parameters.");
+                    break;
+                }
+
+                if (offsets.length < STRIDE * (count + 1)) {
+                    int[] grown = new int[offsets.length * 2];
+                    System.arraycopy(offsets, 0, grown, 0, offsets.length);
+                    offsets = grown;
+                }
+
+                int i = STRIDE * count++;
+                offsets[i] = start;
+
+                if ((equal != -1) && (equal < end)) {
+                    offsets[i + 1] = equal;
+                    offsets[i + 2] = equal + 1;
+                } else {
+                    offsets[i + 1] = end;
+                    offsets[i + 2] = -1;
+                }
+
+                offsets[i + 3] = end;
+            }
+
+            start = end + 1;
+        }
+
+        this.offsets = offsets;
+        this.size = count;
+        this.names = new String[count];
+        this.values = new String[count];
+    }
+
+    /**
+     * Adds all the parameters, decoded, to a given series.
+     * 
+     * @param series
+     *            The target series.
+     */
+    public void addTo(Series<Parameter> series) {
+        for (int i = 0; i < this.size; i++) {
+            series.add(new Parameter(getName(i), getValue(i)));
+        }
+    }
+
+    /**
+     * Decodes a region of the source string.
+     * 
+     * @param start
+     *            The start index.
+     * @param end
+     *            The end index.
+     * @return The decoded region.
+     */
+    private String decode(int start, int end) {
+        String result = this.source.substring(start, end);
+
+        if ((this.characterSet != null) && isEncoded(start, end)) {
+            result = Reference.decode(result, this.characterSet);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the character set used for decoding or null if data is left
+     * encoded.
+     * 
+     * @return The character set used for decoding.
+     */
+    public CharacterSet getCharacterSet() {
+        return characterSet;
+    }
+
+    /**
+     * Returns the value of the first parameter found with the given name.
+     * 
+     * @param name
+     *            The parameter name (case sensitive).
+     * @return The value of the first parameter found with the given name.
+     */
+    public String getFirstValue(String name) {
+        return getFirstValue(name, false);
+    }
+
+    /**
+     * Returns the value of the first parameter found with the given name.
+     * 
+     * @param name
+     *            The parameter name.
+     * @param ignoreCase
+     *            Indicates if the name comparison is case insensitive.
+     * @return The value of the first parameter found with the given name.
+     */
+    public String getFirstValue(String name, boolean ignoreCase) {
+        int index = indexOf(name, ignoreCase);
+        return (index == -1) ? null : getValue(index);
+    }
+
+    /**
+     * Returns the name of the parameter at the given index.
+     * 
+     * @param index
+     *            The parameter index.
+     * @return The parameter name.
+     */
+    public String getName(int index) {
+        String result = this.names[index];
+
+        if (result == null) {
+            int i = STRIDE * index;
+            result = decode(this.offsets[i], this.offsets[i + 1]);
+            this.names[index] = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the separator character used between parameters.
+     * 
+     * @return The separator character used between parameters.
+     */
+    public char getSeparator() {
+        return separator;
+    }
+
+    /**
+     * Returns the source string.
+     * 
+     * @return The source string.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the value of the parameter at the given index, or null if the
+     * parameter has no value.
+     * 
+     * @param index
+     *            The parameter index.
+     * @return The parameter value.
+     */
+    public String getValue(int index) {
+        String result = this.values[index];
+        int i = STRIDE * index;
+
+        if ((result == null) && (this.offsets[i + 2] != -1)) {
+            result = decode(this.offsets[i + 2], this.offsets[i + 3]);
+            this.values[index] = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the values of the parameters with the given name.
+     * 
+     * @param name
+     *            The parameter name (case sensitive).
+     * @return The parameter values.
+     */
+    public List<String> getValues(String name) {
+        List<String> result = new ArrayList<String>();
+
+        for (int i = 0; i < this.size; i++) {
+            if (matches(i, name, false)) {
+                result.add(getValue(i));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the index of the first parameter found with the given name, or
+     * -1.
+     * 
+     * @param name
+     *            The parameter name.
+     * @param ignoreCase
+     *            Indicates if the name comparison is case insensitive.
+     * @return The index of the first parameter found or -1.
+     */
+    public int indexOf(String name, boolean ignoreCase) {
+        for (int i = 0; i < this.size; i++) {
+            if (matches(i, name, ignoreCase)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Indicates if the view has no parameter.
+     * 
+     * @return True if the view has no parameter.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Indicates if a region of the source string contains encoded characters.
+     * 
+     * @param start
+     *            The start index.
+     * @param end
+     *            The end index.
+     * @return True if the region contains encoded characters.
+     */
+    private boolean isEncoded(int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = this.source.charAt(i);
+
+            if ((c == '%') || (c == '+')) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Indicates if the name of the parameter at the given index matches the
+     * given name. The source string is directly compared when the name doesn't
+     * need decoding.
+     * 
+     * @param index
+     *            The parameter index.
+     * @param name
+     *            The name to match.
+     * @param ignoreCase
+     *            Indicates if the name comparison is case insensitive.
+     * @return True if the name matches.
+     */
+    private boolean matches(int index, String name, boolean ignoreCase) {
+        boolean result = false;
+
+        if (name != null) {
+            int i = STRIDE * index;
+            int start = this.offsets[i];
+            int end = this.offsets[i + 1];
+
+            if ((this.names[index] == null) && ((this.characterSet == null)
+                    || !isEncoded(start, end))) {
+                result = (end - start == name.length())
+                        && this.source.regionMatches(ignoreCase, start, name,
+                                0, name.length());
+            } else {
+                result = ignoreCase ? name.equalsIgnoreCase(getName(index))
+                        : name.equals(getName(index));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of parameters.
+     * 
+     * @return The number of parameters.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns a modifiable form containing a copy of the parameters.
+     * 
+     * @return A modifiable form.
+     */
+    public Form toForm() {
+        Form result = new Form(Math.max(this.size, 1));
+        addTo(result);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return this.source;
+    }
+
+}
@@ -29,7 +29,9 @@ import org.restlet.representation.CharacterSet;
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Reference to a Uniform Resource Identifier (URI). Contrary to the
@@ -144,7 +146,7 @@ public class Reference {
     public static String decode(String toDecode, CharacterSet characterSet) {
         String result = null;
         try {
-            result = (characterSet == null) ? toDecode : java.net.URLDecoder.decode(toDecode, characterSet.getName());
+            result = (characterSet == null || !isEncoded(toDecode)) ? toDecode : java.net.URLDecoder.decode(toDecode, characterSet.getName());
         } catch (UnsupportedEncodingException uee) {
             Context.getCurrentLogger()
                     .warn("Unable to decode the string with the UTF-8 character set.", uee);
@@ -201,7 +203,12 @@ public class Reference {
         String result = null;
 
         try {
-            result = (characterSet == null) ? toEncode : java.net.URLEncoder.encode(toEncode, characterSet.getName());
+            if ((characterSet == null) || isSafe(toEncode, queryString)) {
+                // Nothing to encode
+                return toEncode;
+            }
+
+            result = java.net.URLEncoder.encode(toEncode, characterSet.getName());
 
             if (result != null && queryString) {
                 result = result.replace("+", "%20").replace("*", "%2A").replace("%7E", "~");
@@ -256,6 +263,28 @@ public class Reference {
         return (character >= '0') && (character <= '9');
     }
 
+    /**
+     * Indicates if the given string contains percent-encoded characters or '+'
+     * characters, i.e. if it needs decoding.
+     * 
+     * @param toDecode
+     *            The string to test.
+     * @return True if the given string needs decoding.
+     */
+    private static boolean isEncoded(String toDecode) {
+        if (toDecode != null) {
+            for (int i = 0; i < toDecode.length(); i++) {
+                char c = toDecode.charAt(i);
+
+                if ((c == '%') || (c == '+')) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Indicates if the given character is a generic URI component delimiter
      * character.
@@ -293,6 +322,33 @@ public class Reference {
         return isGenericDelimiter(character) || isSubDelimiter(character);
     }
 
+    /**
+     * Indicates if the given string is left unchanged by the encoding, i.e. if
+     * it only contains alphanumeric characters, '-', '.', '_' characters, plus
+     * '~' in query strings or '*' otherwise.
+     * 
+     * @param toEncode
+     *            The string to test.
+     * @param queryString
+     *            True if the string is part of a query string instead of a HTML
+     *            form post.
+     * @return True if the given string is left unchanged by the encoding.
+     */
+    private static boolean isSafe(String toEncode, boolean queryString) {
+        if (toEncode != null) {
+            for (int i = 0; i < toEncode.length(); i++) {
+                char c = toEncode.charAt(i);
+
+                if (!isAlpha(c) && !isDigit(c) && (c != '-') && (c != '.')
+                        && (c != '_') && (c != (queryString ? '~' : '*'))) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
     /**
      * Indicates if the given character is an URI subcomponent delimiter
      * character.
@@ -454,6 +510,47 @@ public class Reference {
         return sb.toString();
     }
 
+    /**
+     * Components memoized for a given internal reference. Unset components
+     * refer to the {@link #UNSET} marker.
+     */
+    private static final class Memo {
+
+        /** Marker of unset components. */
+        private static final String UNSET = new String();
+
+        /** The decoded path. */
+        private volatile String decodedPath = UNSET;
+
+        /** The decoded query. */
+        private volatile String decodedQuery = UNSET;
+
+        /** The internal reference the components are computed from. */
+        private final String internalRef;
+
+        /** The last segment. */
+        private volatile String lastSegment = UNSET;
+
+        /** The path. */
+        private volatile String path = UNSET;
+
+        /** The query. */
+        private volatile String query = UNSET;
+
+        /** The unmodifiable list of segments. */
+        private volatile List<String> segments;
+
+        /**
+         * Constructor.
+         * 
+         * @param internalRef
+         *            The internal reference the components are computed from.
+         */
+        private Memo(String internalRef) {
+            this.internalRef = internalRef;
+        }
+    }
+
     /** The base reference for relative references. */
     private volatile Reference baseRef;
 
@@ -463,9 +560,15 @@ public class Reference {
     /** The internal reference. */
     private volatile String internalRef;
 
+    /** The memoized components of the internal reference. */
+    private volatile Memo memo;
+
     /** The query separator index. */
     private volatile int queryIndex;
 
+    /** The cached view of the query parameters. */
+    private volatile FormView queryView;
+
     /** The scheme separator index. */
     private volatile int schemeIndex;
 
@@ -866,6 +969,26 @@ public class Reference {
         return this.baseRef;
     }
 
+    /**
+     * Returns the end index of the reference without the fragment, and
+     * optionally without the query, like {@link #toString(boolean, boolean)}.
+     * 
+     * @param query
+     *            True if the query part should be included.
+     * @return The end index in the internal reference.
+     */
+    private int getEndIndex(boolean query) {
+        int result = this.internalRef.length();
+
+        if (!query && hasQuery()) {
+            result = this.queryIndex;
+        } else if (hasFragment()) {
+            result = this.fragmentIndex;
+        }
+
+        return result;
+    }
+
     /**
      * Returns the optional extensions for hierarchical identifiers. An
      * extensions part starts after the first '.' character of the last path
@@ -1150,6 +1273,23 @@ public class Reference {
      * @return The last segment of a hierarchical path.
      */
     public String getLastSegment() {
+        Memo memo = getMemo();
+        String result = memo.lastSegment;
+
+        if (result == Memo.UNSET) {
+            result = computeLastSegment();
+            memo.lastSegment = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the last segment of a hierarchical path.
+     * 
+     * @return The last segment of a hierarchical path.
+     */
+    private String computeLastSegment() {
         String result = null;
         String path = getPath();
 
@@ -1293,6 +1433,23 @@ public class Reference {
         return result;
     }
 
+    /**
+     * Returns the memoized components of the current internal reference.
+     * 
+     * @return The memoized components.
+     */
+    private Memo getMemo() {
+        Memo result = this.memo;
+        String ref = this.internalRef;
+
+        if ((result == null) || (result.internalRef != ref)) {
+            result = new Memo(ref);
+            this.memo = result;
+        }
+
+        return result;
+    }
+
     /**
      * Returns the path component for hierarchical identifiers. If not path is
      * available it returns null.<br>
@@ -1301,6 +1458,23 @@ public class Reference {
      * @return The path component for hierarchical identifiers.
      */
     public String getPath() {
+        Memo memo = getMemo();
+        String result = memo.path;
+
+        if (result == Memo.UNSET) {
+            result = computePath();
+            memo.path = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the path component for hierarchical identifiers.
+     * 
+     * @return The path component for hierarchical identifiers.
+     */
+    private String computePath() {
         String result = null;
         String part = isRelative() ? getRelativePart()
                 : getSchemeSpecificPart();
@@ -1352,7 +1526,19 @@ public class Reference {
      * @see #getPath()
      */
     public String getPath(boolean decode) {
-        return decode ? decode(getPath()) : getPath();
+        if (!decode) {
+            return getPath();
+        }
+
+        Memo memo = getMemo();
+        String result = memo.decodedPath;
+
+        if (result == Memo.UNSET) {
+            result = decode(getPath());
+            memo.decodedPath = result;
+        }
+
+        return result;
     }
 
     /**
@@ -1362,6 +1548,23 @@ public class Reference {
      * @return The query component or null.
      */
     public String getQuery() {
+        Memo memo = getMemo();
+        String result = memo.query;
+
+        if (result == Memo.UNSET) {
+            result = computeQuery();
+            memo.query = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the optional query component for hierarchical identifiers.
+     * 
+     * @return The query component or null.
+     */
+    private String computeQuery() {
         if (hasQuery()) {
             // Query found
             if (hasFragment()) {
@@ -1391,16 +1594,29 @@ public class Reference {
      * @see #getQuery()
      */
     public String getQuery(boolean decode) {
-        return decode ? decode(getQuery()) : getQuery();
+        if (!decode) {
+            return getQuery();
+        }
+
+        Memo memo = getMemo();
+        String result = memo.decodedQuery;
+
+        if (result == Memo.UNSET) {
+            result = decode(getQuery());
+            memo.decodedQuery = result;
+        }
+
+        return result;
     }
 
     /**
-     * Returns the optional query component as a form.
+     * Returns the optional query component as a form. The returned form is a
+     * modifiable copy of the cached {@link #getQueryView()}.
      * 
      * @return The optional query component as a form.
      */
     public Form getQueryAsForm() {
-        return new Form(getQuery());
+        return getQueryView().toForm();
     }
 
     /**
@@ -1423,7 +1639,58 @@ public class Reference {
      * @return The optional query component as a form submission.
      */
     public Form getQueryAsForm(CharacterSet characterSet) {
-        return new Form(getQuery(), characterSet);
+        return getQueryView(characterSet).toForm();
+    }
+
+    /**
+     * Returns a read-only view of the query parameters, decoded using the
+     * UTF-8 character set. The view is cached until the query changes and the
+     * parameters are only decoded when accessed.
+     * 
+     * @return A read-only view of the query parameters.
+     */
+    public FormView getQueryView() {
+        return getQueryView(CharacterSet.UTF_8);
+    }
+
+    /**
+     * Returns a read-only view of the query parameters. The view is cached
+     * until the query or the character set change and the parameters are only
+     * decoded when accessed.
+     * 
+     * @param characterSet
+     *            The supported character encoding.
+     * @return A read-only view of the query parameters.
+     */
+    public FormView getQueryView(CharacterSet characterSet) {
+        FormView result = this.queryView;
+        String ref = this.internalRef;
+        int start = -1;
+        int end = -1;
+
+        if ((ref != null) && hasQuery()) {
+            start = this.queryIndex + 1;
+            end = (hasFragment() && (this.queryIndex < this.fragmentIndex)) ? this.fragmentIndex
+                    : ref.length();
+
+            if (hasFragment() && (this.queryIndex > this.fragmentIndex)) {
+                // The query sign is inside the fragment
+                start = end = -1;
+            }
+        }
+
+        if ((result == null)
+                || !Objects.equals(characterSet,
+                        result.getCharacterSet())
+                || (result.getSource().length() != Math.max(0, end - start))
+                || ((start != -1) && !ref.regionMatches(start,
+                        result.getSource(), 0, end - start))) {
+            result = new FormView((start == -1) ? null : ref.substring(start,
+                    end), characterSet, '&');
+            this.queryView = result;
+        }
+
+        return result;
     }
 
     /**
@@ -1684,16 +1951,27 @@ public class Reference {
      */
     public String getRemainingPart(boolean decode, boolean query) {
         String result = null;
-        final String all = toString(query, false);
-
-        if (getBaseRef() != null) {
-            final String base = getBaseRef().toString(query, false);
-
-            if ((base != null) && all.startsWith(base)) {
-                result = all.substring(base.length());
+        final String all = this.internalRef;
+        final Reference baseRef = getBaseRef();
+
+        if (all == null) {
+            // No reference
+        } else if (baseRef != null) {
+            final String base = baseRef.internalRef;
+
+            if (base != null) {
+                // Compare the parts without the fragment, and without the query
+                // if needed, in place
+                final int allEnd = getEndIndex(query);
+                final int baseEnd = baseRef.getEndIndex(query);
+
+                if ((baseEnd <= allEnd)
+                        && all.regionMatches(0, base, 0, baseEnd)) {
+                    result = all.substring(baseEnd, allEnd);
+                }
             }
         } else {
-            result = all;
+            result = toString(query, false);
         }
 
         return decode ? decode(result) : result;
@@ -1781,6 +2059,23 @@ public class Reference {
      * @return The segments of a hierarchical path.
      */
     public List<String> getSegments() {
+        Memo memo = getMemo();
+        List<String> segments = memo.segments;
+
+        if (segments == null) {
+            segments = Collections.unmodifiableList(computeSegments());
+            memo.segments = segments;
+        }
+
+        return new ArrayList<String>(segments);
+    }
+
+    /**
+     * Computes the list of segments in a hierarchical path.
+     * 
+     * @return The segments of a hierarchical path.
+     */
+    private List<String> computeSegments() {
         final List<String> result = new ArrayList<String>();
         final String path = getPath();
         int start = -2; // The index of the slash starting the segment
@@ -2964,6 +3259,9 @@ public class Reference {
      * Updates internal indexes.
      */
     private void updateIndexes() {
+        // Invalidate the memoized components
+        this.memo = null;
+
         if (this.internalRef != null) {
             // Compute the indexes
             final int firstSlashIndex = this.internalRef.indexOf('/');
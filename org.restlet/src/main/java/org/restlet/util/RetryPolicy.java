@@ -0,0 +1,384 @@
+/**
+ * Copyright 2005-2016 Restlet
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or or EPL 1.0 (the "Licenses"). You can
+ * select the license that you prefer but you may not use this file except in
+ * compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.util;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.restlet.message.Request;
+import org.restlet.message.Response;
+
+/**
+ * Policy deciding if and when a failed call should be attempted again. The
+ * delay between attempts grows exponentially from the initial delay up to the
+ * maximum delay, and a random part of it is removed (jitter) so that clients
+ * failing at the same time don't retry at the same time.<br>
+ * <br>
+ * A retry budget prevents retry storms when a downstream service is
+ * unavailable: each new call earns a fraction of a retry token, each retry
+ * spends a full token, and the number of tokens is bounded. Only idempotent
+ * calls whose entity can be sent again are retried, unless configured
+ * otherwise.<br>
+ * <br>
+ * When an executor service is set, asynchronous calls are retried by tasks
+ * scheduled on it instead of parking a thread during the delay.<br>
+ * <br>
+ * Concurrency note: instances of this class are thread-safe and can be shared
+ * by all the clients calling the same services.
+ * 
+ * @author Jerome Louvel
+ */
+public class RetryPolicy {
+
+    /** The default fraction of a retry token earned by each new call. */
+    public static final double DEFAULT_BUDGET_RATIO = 0.2;
+
+    /** The default initial delay in milliseconds. */
+    public static final long DEFAULT_INITIAL_DELAY = 100L;
+
+    /** The default fraction of the delay that can be randomly removed. */
+    public static final double DEFAULT_JITTER = 0.5;
+
+    /** The default maximum number of retry tokens. */
+    public static final int DEFAULT_MAX_BUDGET = 10;
+
+    /** The default maximum delay in milliseconds. */
+    public static final long DEFAULT_MAX_DELAY = 10000L;
+
+    /** The default multiplier applied to the delay after each attempt. */
+    public static final double DEFAULT_MULTIPLIER = 2.0;
+
+    /** The default maximum number of retries for a call. */
+    public static final int DEFAULT_MAX_RETRIES = 2;
+
+    /** The number of milli-tokens in a retry token. */
+    private static final long TOKEN = 1000L;
+
+    /** The available retry budget in milli-tokens. */
+    private final AtomicLong budget;
+
+    /** The fraction of a retry token earned by each new call. */
+    private volatile double budgetRatio;
+
+    /** The executor service used to schedule asynchronous retries. */
+    private volatile ScheduledExecutorService executorService;
+
+    /** The initial delay in milliseconds. */
+    private volatile long initialDelay;
+
+    /** The fraction of the delay that can be randomly removed. */
+    private volatile double jitter;
+
+    /** The maximum number of retry tokens. */
+    private volatile int maxBudget;
+
+    /** The maximum delay in milliseconds. */
+    private volatile long maxDelay;
+
+    /** The maximum number of retries for a call. */
+    private volatile int maxRetries;
+
+    /** The multiplier applied to the delay after each attempt. */
+    private volatile double multiplier;
+
+    /** Indicates if calls with non-idempotent methods can be retried. */
+    private volatile boolean retryingNonIdempotent;
+
+    /**
+     * Constructor.
+     */
+    public RetryPolicy() {
+        this.budgetRatio = DEFAULT_BUDGET_RATIO;
+        this.initialDelay = DEFAULT_INITIAL_DELAY;
+        this.jitter = DEFAULT_JITTER;
+        this.maxBudget = DEFAULT_MAX_BUDGET;
+        this.maxDelay = DEFAULT_MAX_DELAY;
+        this.maxRetries = DEFAULT_MAX_RETRIES;
+        this.multiplier = DEFAULT_MULTIPLIER;
+        this.retryingNonIdempotent = false;
+        this.budget = new AtomicLong(DEFAULT_MAX_BUDGET * TOKEN);
+    }
+
+    /**
+     * Returns the available retry budget, in retry tokens.
+     * 
+     * @return The available retry budget.
+     */
+    public double getBudget() {
+        return this.budget.get() / (double) TOKEN;
+    }
+
+    /**
+     * Returns the fraction of a retry token earned by each new call. A ratio of
+     * 0.2 allows one retry every five calls in the long run.
+     * 
+     * @return The fraction of a retry token earned by each new call.
+     */
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /**
+     * Returns the delay before a retry attempt, including jitter.
+     * 
+     * @param retryAttempt
+     *            The number of retries already done for the call.
+     * @return The delay in milliseconds.
+     */
+    public long getDelay(int retryAttempt) {
+        double delay = Math.min(getMaxDelay(), getInitialDelay()
+                * Math.pow(getMultiplier(), retryAttempt));
+        return (long) (delay * (1 - getJitter()
+                * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * Returns the executor service used to schedule asynchronous retries.
+     * 
+     * @return The executor service or null.
+     */
+    public ScheduledExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Returns the initial delay in milliseconds.
+     * 
+     * @return The initial delay in milliseconds.
+     */
+    public long getInitialDelay() {
+        return initialDelay;
+    }
+
+    /**
+     * Returns the fraction of the delay that can be randomly removed, between 0
+     * and 1.
+     * 
+     * @return The fraction of the delay that can be randomly removed.
+     */
+    public double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Returns the maximum number of retry tokens.
+     * 
+     * @return The maximum number of retry tokens.
+     */
+    public int getMaxBudget() {
+        return maxBudget;
+    }
+
+    /**
+     * Returns the maximum delay in milliseconds.
+     * 
+     * @return The maximum delay in milliseconds.
+     */
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Returns the maximum number of retries for a call.
+     * 
+     * @return The maximum number of retries for a call.
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Returns the multiplier applied to the delay after each attempt.
+     * 
+     * @return The multiplier applied to the delay after each attempt.
+     */
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Indicates if a failed call can be retried, ignoring the budget. The
+     * status must be a recoverable error, the method must be idempotent unless
+     * {@link #isRetryingNonIdempotent()} is true, and the request entity must
+     * still be available.
+     * 
+     * @param request
+     *            The request.
+     * @param response
+     *            The response.
+     * @param retryAttempt
+     *            The number of retries already done for the call.
+     * @return True if the call can be retried.
+     */
+    public boolean isRetryable(Request request, Response response,
+            int retryAttempt) {
+        return (retryAttempt < getMaxRetries())
+                && response.getStatus().isRecoverableError()
+                && (isRetryingNonIdempotent() || request.getMethod()
+                        .isIdempotent())
+                && ((request.getEntity() == null) || request.getEntity()
+                        .isAvailable());
+    }
+
+    /**
+     * Indicates if calls with non-idempotent methods can be retried. False by
+     * default.
+     * 
+     * @return True if calls with non-idempotent methods can be retried.
+     */
+    public boolean isRetryingNonIdempotent() {
+        return retryingNonIdempotent;
+    }
+
+    /**
+     * Records a new call, earning a fraction of a retry token.
+     */
+    public void recordCall() {
+        long earned = (long) (getBudgetRatio() * TOKEN);
+        long max = getMaxBudget() * TOKEN;
+        long current;
+
+        do {
+            current = this.budget.get();
+
+            if (current >= max) {
+                return;
+            }
+        } while (!this.budget.compareAndSet(current,
+                Math.min(max, current + earned)));
+    }
+
+    /**
+     * Sets the fraction of a retry token earned by each new call.
+     * 
+     * @param budgetRatio
+     *            The fraction of a retry token earned by each new call.
+     */
+    public void setBudgetRatio(double budgetRatio) {
+        this.budgetRatio = budgetRatio;
+    }
+
+    /**
+     * Sets the executor service used to schedule asynchronous retries.
+     * 
+     * @param executorService
+     *            The executor service.
+     */
+    public void setExecutorService(ScheduledExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /**
+     * Sets the initial delay in milliseconds.
+     * 
+     * @param initialDelay
+     *            The initial delay in milliseconds.
+     */
+    public void setInitialDelay(long initialDelay) {
+        this.initialDelay = initialDelay;
+    }
+
+    /**
+     * Sets the fraction of the delay that can be randomly removed, between 0
+     * and 1.
+     * 
+     * @param jitter
+     *            The fraction of the delay that can be randomly removed.
+     */
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    /**
+     * Sets the maximum number of retry tokens.
+     * 
+     * @param maxBudget
+     *            The maximum number of retry tokens.
+     */
+    public void setMaxBudget(int maxBudget) {
+        this.maxBudget = maxBudget;
+    }
+
+    /**
+     * Sets the maximum delay in milliseconds.
+     * 
+     * @param maxDelay
+     *            The maximum delay in milliseconds.
+     */
+    public void setMaxDelay(long maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Sets the maximum number of retries for a call.
+     * 
+     * @param maxRetries
+     *            The maximum number of retries for a call.
+     */
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Sets the multiplier applied to the delay after each attempt.
+     * 
+     * @param multiplier
+     *            The multiplier applied to the delay after each attempt.
+     */
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * Indicates if calls with non-idempotent methods can be retried.
+     * 
+     * @param retryingNonIdempotent
+     *            True if calls with non-idempotent methods can be retried.
+     */
+    public void setRetryingNonIdempotent(boolean retryingNonIdempotent) {
+        this.retryingNonIdempotent = retryingNonIdempotent;
+    }
+
+    /**
+     * Spends a retry token if available.
+     * 
+     * @return True if a token was spent and the retry can proceed.
+     */
+    public boolean tryAcquire() {
+        long current;
+
+        do {
+            current = this.budget.get();
+
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!this.budget.compareAndSet(current, current - TOKEN));
+
+        return true;
+    }
+
+}